@@ -19,10 +19,21 @@
 package org.gsc.common.storage;
 
 import java.util.Map;
+import org.iq80.leveldb.WriteOptions;
 
 
 public interface BatchSourceInter<K, V> extends SourceInter<K, V> {
 
 
   void updateByBatch(Map<K, V> rows);
+
+  /**
+   * Keep subsequent puts and deletes in memory until {@link #flush()} writes them in one batch.
+   */
+  void startBatch();
+
+  /**
+   * Write the buffered rows with {@code options}, otherwise as {@link #flush()}.
+   */
+  boolean flush(WriteOptions options);
 }
@@ -41,4 +41,29 @@ public interface DbSourceInter<V> extends BatchSourceInter<byte[], V> {
 
   long getTotal() throws RuntimeException;
 
+  /**
+   * Number of records, without walking them.
+   */
+  long count();
+
+  /**
+   * Open an in-memory layer; later writes land in it and reads see it first.
+   */
+  void pushSnapshot();
+
+  /**
+   * Drop the newest layer together with its writes.
+   */
+  void revokeSnapshot();
+
+  /**
+   * Fold the newest layer into the one below it, or into the store if it is the last.
+   */
+  void mergeSnapshot();
+
+  /**
+   * Write the oldest layer to the store in one batch.
+   */
+  void solidifySnapshot();
+
 }
@@ -0,0 +1,59 @@
+package org.gsc.common.storage;
+
+import java.util.Arrays;
+import org.fusesource.leveldbjni.JniDBFactory;
+import org.gsc.common.storage.memory.MemoryDBFactory;
+import org.gsc.common.storage.rocksdb.RocksDBFactory;
+import org.iq80.leveldb.DBFactory;
+
+/**
+ * Engines a database can be opened with. Each one implements the leveldb {@code DB} API that
+ * {@code LevelDbDataSourceImpl} is written against, so stores do not depend on the engine.
+ */
+public enum StorageEngine {
+
+  LEVELDB("leveldb") {
+    @Override
+    public DBFactory getFactory() {
+      return JniDBFactory.factory;
+    }
+  },
+  ROCKSDB("rocksdb") {
+    @Override
+    public DBFactory getFactory() {
+      return RocksDBFactory.factory;
+    }
+  },
+  MEMORY("memory") {
+    @Override
+    public DBFactory getFactory() {
+      return MemoryDBFactory.factory;
+    }
+  };
+
+  private final String name;
+
+  StorageEngine(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * The factory of the engine, resolved on first use so the native library of an engine that
+   * is not configured is never loaded.
+   */
+  public abstract DBFactory getFactory();
+
+  /**
+   * Look up an engine by its config name.
+   */
+  public static StorageEngine fromName(String name) {
+    return Arrays.stream(values())
+        .filter(engine -> engine.name.equalsIgnoreCase(name))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("unknown storage engine: " + name));
+  }
+}
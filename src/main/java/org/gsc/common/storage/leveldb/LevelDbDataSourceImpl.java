@@ -15,35 +15,57 @@
 
 package org.gsc.common.storage.leveldb;
 
-import static org.fusesource.leveldbjni.JniDBFactory.factory;
-
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBFactory;
 import org.iq80.leveldb.DBException;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
 import org.gsc.common.storage.DbSourceInter;
 import org.gsc.common.utils.FileUtil;
 import org.gsc.config.args.Args;
-import org.gsc.db.common.iterator.StoreIterator;
+import org.gsc.db.common.WrappedByteArray;
+import org.gsc.db.common.iterator.MergedIterator;
+import org.gsc.db.common.iterator.RangeCursor;
 
 @Slf4j
 @NoArgsConstructor
@@ -56,6 +78,35 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
   private String parentName;
   private ReadWriteLock resetDbLock = new ReentrantReadWriteLock();
 
+  // marks a key deleted inside the write buffer or a snapshot, compared by identity
+  private static final byte[] TOMBSTONE = new byte[0];
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+  private Map<WrappedByteArray, byte[]> writeBuffer = new ConcurrentHashMap<>();
+  private volatile boolean batching;
+  // uncommitted snapshot layers above the write buffer, oldest first
+  private Deque<Map<WrappedByteArray, byte[]>> snapshots = new ConcurrentLinkedDeque<>();
+  private List<Consumer<byte[]>> changeListeners = new CopyOnWriteArrayList<>();
+
+  // row holding the record count. No store writes a key of this shape: names and urls are
+  // printable, hashes and addresses have other lengths. It reads as absent and is refused as a
+  // record key
+  private static final byte[] COUNT_KEY = "\0\u007fgsc.db.record-count\u007f\0"
+      .getBytes(StandardCharsets.US_ASCII);
+  // a count row one byte longer holds only the changes since a rebuild began
+  private static final int REBUILDING_COUNT_LENGTH = Long.BYTES + 1;
+  private static final int REBUILD_CHUNK = 10_000;
+  // the snapshot a background rebuild counts, closed with the database
+  private volatile Snapshot countSnapshot;
+  // records the rebuild has counted so far
+  private volatile long countProgress;
+  // writes share it and so run side by side; pushing, folding, dropping and flushing layers
+  // take it exclusively
+  private final ReadWriteLock layersLock = new ReentrantReadWriteLock();
+  // serializes updates of the count row written straight to the database
+  private final Object countLock = new Object();
+  // the locks are taken in the order layersLock, countLock, resetDbLock, never the other way
+  // round; reads and scans take resetDbLock alone
+
   /**
    * constructor.
    */
@@ -86,6 +137,7 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
       try {
         openDatabase(dbOptions);
         alive = true;
+        initCount();
       } catch (IOException ioe) {
         throw new RuntimeException("Can't initialize database", ioe);
       }
@@ -99,6 +151,7 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     if (!Files.isSymbolicLink(dbPath.getParent())) {
       Files.createDirectories(dbPath.getParent());
     }
+    DBFactory factory = getFactory();
     try {
       database = factory.open(dbPath.toFile(), dbOptions);
     } catch (IOException e) {
@@ -125,6 +178,10 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     return dbOptions;
   }
 
+  private DBFactory getFactory() {
+    return Args.getInstance().getStorage().getEngineByDbName(dataBaseName).getFactory();
+  }
+
   private Path getDbPath() {
     return Paths.get(parentName, dataBaseName);
   }
@@ -133,9 +190,24 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
    * reset database.
    */
   public void resetDb() {
+    snapshots.clear();
+    writeBuffer.clear();
     closeDB();
     FileUtil.recursiveDelete(getDbPath().toString());
     initDB();
+    notifyChanged(null);
+  }
+
+  /**
+   * Register a callback run after a key's visible value changes, with null when every key may
+   * have changed. Used to keep caches of decoded values coherent, including across revokes.
+   */
+  public void addChangeListener(Consumer<byte[]> listener) {
+    changeListeners.add(listener);
+  }
+
+  private void notifyChanged(byte[] key) {
+    changeListeners.forEach(listener -> listener.accept(key));
   }
 
   @Override
@@ -152,7 +224,7 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
       logger.debug("Destroying existing database: " + fileLocation);
       Options options = new Options();
       try {
-        factory.destroy(fileLocation, options);
+        getFactory().destroy(fileLocation, options);
       } catch (IOException e) {
         logger.error(e.getMessage(), e);
       }
@@ -173,6 +245,24 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
 
   @Override
   public byte[] getData(byte[] key) {
+    if (Arrays.equals(key, COUNT_KEY)) {
+      return null;
+    }
+    return read(key);
+  }
+
+  /**
+   * The visible value of {@code key}, the count row included.
+   */
+  private byte[] read(byte[] key) {
+    byte[] buffered = getBuffered(key);
+    if (buffered != null) {
+      return buffered == TOMBSTONE ? null : buffered;
+    }
+    return readFromDb(key);
+  }
+
+  private byte[] readFromDb(byte[] key) {
     resetDbLock.readLock().lock();
     try {
       return database.get(key);
@@ -186,53 +276,122 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
 
   @Override
   public void putData(byte[] key, byte[] value) {
-    resetDbLock.readLock().lock();
-    try {
-      database.put(key, value);
-    } finally {
-      resetDbLock.readLock().unlock();
-    }
+    write(key, value, null);
   }
 
   @Override
   public void putData(byte[] key, byte[] value, WriteOptions options) {
-    resetDbLock.readLock().lock();
-    try {
-      database.put(key, value, options);
-    } finally {
-      resetDbLock.readLock().unlock();
-    }
+    write(key, value, options);
   }
 
   @Override
   public void deleteData(byte[] key) {
-    resetDbLock.readLock().lock();
+    write(key, TOMBSTONE, null);
+  }
+
+  @Override
+  public void deleteData(byte[] key, WriteOptions options) {
+    write(key, TOMBSTONE, options);
+  }
+
+  private static void checkRecordKey(byte[] key) {
+    if (Arrays.equals(key, COUNT_KEY)) {
+      throw new IllegalArgumentException("the key is reserved for the record count");
+    }
+  }
+
+  /**
+   * Write {@code value}, or delete the key when it is {@code TOMBSTONE}, keeping the count.
+   * Whether the key held a record is read in the same atomic step that replaces it, so writers
+   * of one key cannot both count it.
+   */
+  private void write(byte[] key, byte[] value, WriteOptions options) {
+    checkRecordKey(key);
+    layersLock.readLock().lock();
     try {
-      database.delete(key);
+      Map<WrappedByteArray, byte[]> layer = writableLayer();
+      if (layer != null) {
+        long[] delta = new long[1];
+        layer.compute(WrappedByteArray.of(key), (k, previous) -> {
+          delta[0] = countDelta(previous != null ? previous : readBelow(layer, key), value);
+          return value;
+        });
+        if (delta[0] != 0) {
+          addToCount(layer, delta[0]);
+        }
+      } else {
+        synchronized (countLock) {
+          long delta = countDelta(readFromDb(key), value);
+          byte[] countRow = delta == 0 ? null : addToCount(readFromDb(COUNT_KEY), delta);
+          writeToDb(key, value, countRow, options);
+        }
+      }
     } finally {
-      resetDbLock.readLock().unlock();
+      layersLock.readLock().unlock();
     }
+    notifyChanged(key);
   }
 
-  @Override
-  public void deleteData(byte[] key, WriteOptions options) {
+  private void writeToDb(byte[] key, byte[] value, byte[] countRow, WriteOptions options) {
     resetDbLock.readLock().lock();
-    try {
-      database.delete(key, options);
+    try (WriteBatch batch = database.createWriteBatch()) {
+      if (value == TOMBSTONE) {
+        batch.delete(key);
+      } else {
+        batch.put(key, value);
+      }
+      if (countRow != null) {
+        batch.put(COUNT_KEY, countRow);
+      }
+      if (options == null) {
+        database.write(batch);
+      } else {
+        database.write(batch, options);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
     } finally {
       resetDbLock.readLock().unlock();
     }
   }
 
+  /**
+   * The newest pending value of a key, {@code TOMBSTONE} if it is pending deletion,
+   * or null if the key has to be read from the database.
+   */
+  private byte[] getBuffered(byte[] key) {
+    if (snapshots.isEmpty() && writeBuffer.isEmpty()) {
+      return null;
+    }
+    WrappedByteArray wrapped = WrappedByteArray.of(key);
+    Iterator<Map<WrappedByteArray, byte[]>> layers = snapshots.descendingIterator();
+    while (layers.hasNext()) {
+      byte[] value = layers.next().get(wrapped);
+      if (value != null) {
+        return value;
+      }
+    }
+    return writeBuffer.get(wrapped);
+  }
+
+  /**
+   * The layer writes land in, or null when they go straight to the database.
+   */
+  private Map<WrappedByteArray, byte[]> writableLayer() {
+    Map<WrappedByteArray, byte[]> top = snapshots.peekLast();
+    if (top != null) {
+      return top;
+    }
+    return batching ? writeBuffer : null;
+  }
+
   @Deprecated
   @Override
   public Set<byte[]> allKeys() {
     resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
+    try (RangeCursor iterator = scan(null, null, false, Long.MAX_VALUE)) {
       Set<byte[]> result = Sets.newHashSet();
-      for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
-        result.add(iterator.peekNext().getKey());
-      }
+      iterator.forEachRemaining(entry -> result.add(entry.getKey()));
       return result;
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -244,13 +403,30 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
   @Deprecated
   @Override
   public Set<byte[]> allValues() {
+    return collectValues(null, false, Long.MAX_VALUE);
+  }
+
+  public Set<byte[]> getlatestValues(long limit) {
+    return collectValues(null, true, limit);
+  }
+
+  public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    return collectValues(key, false, limit);
+  }
+
+  public Set<byte[]> getValuesPrev(byte[] key, long limit) {
+    return collectValues(key, true, limit);
+  }
+
+  @Override
+  public long getTotal() throws RuntimeException {
     resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
-      Set<byte[]> result = Sets.newHashSet();
-      for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
-        result.add(iterator.peekNext().getValue());
+    try (RangeCursor iterator = scan(null, null, false, Long.MAX_VALUE)) {
+      long total = 0;
+      for (; iterator.hasNext(); iterator.next()) {
+        total++;
       }
-      return result;
+      return total;
     } catch (IOException e) {
       throw new RuntimeException(e);
     } finally {
@@ -258,22 +434,14 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
-  public Set<byte[]> getlatestValues(long limit) {
+  private Set<byte[]> collectValues(byte[] from, boolean descending, long limit) {
     if (limit <= 0) {
       return Sets.newHashSet();
     }
     resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
-      Set<byte[]> result = Sets.newHashSet();
-      long i = 0;
-      iterator.seekToLast();
-      if (iterator.hasNext()) {
-        result.add(iterator.peekNext().getValue());
-        i++;
-      }
-      for (; iterator.hasPrev() && i++ < limit; iterator.prev()) {
-        result.add(iterator.peekPrev().getValue());
-      }
+    try (RangeCursor iterator = scan(from, null, descending, limit)) {
+      Set<byte[]> result = new LinkedHashSet<>();
+      iterator.forEachRemaining(entry -> result.add(entry.getValue()));
       return result;
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -282,66 +450,115 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
-  public Set<byte[]> getValuesNext(byte[] key, long limit) {
-    if (limit <= 0) {
-      return Sets.newHashSet();
-    }
+  /**
+   * Ordered scan from {@code from} (inclusive; the first key, or the last one when
+   * descending, if null) towards {@code to} (exclusive; unbounded if null), yielding at most
+   * {@code limit} entries. It reads a leveldb snapshot taken on open with the pending writes
+   * laid over it, and fetches entries only as they are iterated. Close it when done.
+   */
+  public RangeCursor scan(byte[] from, byte[] to, boolean descending, long limit) {
     resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
-      Set<byte[]> result = Sets.newHashSet();
-      long i = 0;
-      for (iterator.seek(key); iterator.hasNext() && i++ < limit; iterator.next()) {
-        result.add(iterator.peekNext().getValue());
+    try {
+      NavigableMap<byte[], byte[]> overlay = collapseLayers();
+      Snapshot snapshot = database.getSnapshot();
+      DBIterator iterator = database.iterator(new ReadOptions().snapshot(snapshot));
+      Comparator<byte[]> order;
+      MergedIterator merged;
+      if (descending) {
+        order = KEY_ORDER.reversed();
+        NavigableMap<byte[], byte[]> head = from == null ? overlay : overlay.headMap(from, true);
+        merged = new MergedIterator(new DescendingIterator(iterator, from),
+            head.descendingMap().entrySet().iterator(), order, TOMBSTONE);
+      } else {
+        order = KEY_ORDER;
+        if (from == null) {
+          iterator.seekToFirst();
+        } else {
+          iterator.seek(from);
+        }
+        NavigableMap<byte[], byte[]> tail = from == null ? overlay : overlay.tailMap(from, true);
+        merged = new MergedIterator(iterator, tail.entrySet().iterator(), order, TOMBSTONE);
       }
-      return result;
-    } catch (IOException e) {
-      throw new RuntimeException(e);
+      // the count row is not a record
+      Iterator<Entry<byte[], byte[]>> records =
+          Iterators.filter(merged, entry -> !Arrays.equals(entry.getKey(), COUNT_KEY));
+      return new RangeCursor(records, to, limit, order, merged, snapshot);
     } finally {
       resetDbLock.readLock().unlock();
     }
   }
 
-  public Set<byte[]> getValuesPrev(byte[] key, long limit) {
-    if (limit <= 0) {
-      return Sets.newHashSet();
+  /**
+   * The pending writes, the write buffer and the snapshot layers, in one sorted map. Read
+   * without a lock, in an order that misses no row moving down meanwhile: a solidified layer
+   * is put into the buffer before it is dropped, and buffered rows are written to the database
+   * before they leave the buffer, so the layers are listed first and the database, whose
+   * snapshot the caller takes next, read last.
+   */
+  private NavigableMap<byte[], byte[]> collapseLayers() {
+    List<Map<WrappedByteArray, byte[]>> layers = new ArrayList<>(snapshots);
+    NavigableMap<byte[], byte[]> overlay = new TreeMap<>(KEY_ORDER);
+    writeBuffer.forEach((k, v) -> overlay.put(k.getBytes(), v));
+    // oldest first, so newer layers overwrite
+    layers.forEach(layer -> layer.forEach((k, v) -> overlay.put(k.getBytes(), v)));
+    return overlay;
+  }
+
+  /**
+   * Steps a leveldb iterator backwards from the greatest key not above {@code from}.
+   */
+  private static class DescendingIterator implements Iterator<Entry<byte[], byte[]>>, Closeable {
+
+    private final DBIterator iterator;
+    private Entry<byte[], byte[]> next;
+
+    DescendingIterator(DBIterator iterator, byte[] from) {
+      this.iterator = iterator;
+      if (from != null) {
+        iterator.seek(from);
+      }
+      if (from == null || !iterator.hasNext()) {
+        iterator.seekToLast();
+        next = iterator.hasNext() ? iterator.peekNext() : null;
+      } else if (Arrays.equals(iterator.peekNext().getKey(), from)) {
+        next = iterator.peekNext();
+      } else {
+        next = stepBack();
+      }
     }
-    resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
-      Set<byte[]> result = Sets.newHashSet();
-      long i = 0;
-      byte[] data = getData(key);
-      if (Objects.nonNull(data)) {
-        result.add(data);
-        i++;
+
+    private Entry<byte[], byte[]> stepBack() {
+      if (!iterator.hasPrev()) {
+        return null;
       }
-      for (iterator.seek(key); iterator.hasPrev() && i++ < limit; iterator.prev()) {
-        result.add(iterator.peekPrev().getValue());
+      Entry<byte[], byte[]> entry = iterator.peekPrev();
+      iterator.prev();
+      return entry;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<byte[], byte[]> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
       }
+      Entry<byte[], byte[]> result = next;
+      next = stepBack();
       return result;
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    } finally {
-      resetDbLock.readLock().unlock();
     }
-  }
 
-  @Override
-  public long getTotal() throws RuntimeException {
-    resetDbLock.readLock().lock();
-    try (DBIterator iterator = database.iterator()) {
-      long total = 0;
-      for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
-        total++;
-      }
-      return total;
-    } catch (IOException e) {
-      throw new RuntimeException(e);
-    } finally {
-      resetDbLock.readLock().unlock();
+    @Override
+    public void close() throws IOException {
+      iterator.close();
     }
   }
 
-  private void updateByBatchInner(Map<byte[], byte[]> rows) throws Exception {
+  private void updateByBatchInner(Map<byte[], byte[]> rows, WriteOptions options)
+      throws Exception {
     try (WriteBatch batch = database.createWriteBatch()) {
       rows.forEach((key, value) -> {
         if (value == null) {
@@ -350,18 +567,49 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
           batch.put(key, value);
         }
       });
-      database.write(batch);
+      if (options == null) {
+        database.write(batch);
+      } else {
+        database.write(batch, options);
+      }
     }
   }
 
+  /**
+   * Write the rows straight to the database, a null value deleting its key.
+   */
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows) {
+    rows.keySet().forEach(LevelDbDataSourceImpl::checkRecordKey);
+    layersLock.readLock().lock();
+    try {
+      synchronized (countLock) {
+        long delta = 0;
+        for (Entry<byte[], byte[]> row : rows.entrySet()) {
+          delta += countDelta(readFromDb(row.getKey()),
+              row.getValue() == null ? TOMBSTONE : row.getValue());
+        }
+        byte[] countRow = delta == 0 ? null : addToCount(readFromDb(COUNT_KEY), delta);
+        Map<byte[], byte[]> batch = rows;
+        if (countRow != null) {
+          batch = new HashMap<>(rows);
+          batch.put(COUNT_KEY, countRow);
+        }
+        writeRows(batch, null);
+      }
+    } finally {
+      layersLock.readLock().unlock();
+    }
+    rows.keySet().forEach(this::notifyChanged);
+  }
+
+  private void writeRows(Map<byte[], byte[]> rows, WriteOptions options) {
     resetDbLock.readLock().lock();
     try {
-      updateByBatchInner(rows);
+      updateByBatchInner(rows, options);
     } catch (Exception e) {
       try {
-        updateByBatchInner(rows);
+        updateByBatchInner(rows, options);
       } catch (Exception e1) {
         throw new RuntimeException(e);
       }
@@ -370,18 +618,322 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  @Override
+  public void startBatch() {
+    // so no write goes straight to the database once a buffered count row exists
+    layersLock.writeLock().lock();
+    try {
+      batching = true;
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * write the buffered rows with one WriteBatch and stop buffering.
+   */
   @Override
   public boolean flush() {
-    return false;
+    return flush(null);
+  }
+
+  @Override
+  public boolean flush(WriteOptions options) {
+    layersLock.writeLock().lock();
+    try {
+      batching = false;
+      return writeBufferToDb(options);
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void pushSnapshot() {
+    layersLock.writeLock().lock();
+    try {
+      snapshots.addLast(new ConcurrentHashMap<>());
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void revokeSnapshot() {
+    Map<WrappedByteArray, byte[]> top;
+    layersLock.writeLock().lock();
+    try {
+      top = snapshots.pollLast();
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+    if (top != null) {
+      top.keySet().forEach(key -> notifyChanged(key.getBytes()));
+    }
+  }
+
+  @Override
+  public void mergeSnapshot() {
+    layersLock.writeLock().lock();
+    try {
+      Iterator<Map<WrappedByteArray, byte[]>> layers = snapshots.descendingIterator();
+      if (!layers.hasNext()) {
+        return;
+      }
+      Map<WrappedByteArray, byte[]> top = layers.next();
+      if (!layers.hasNext()) {
+        solidifySnapshot();
+        return;
+      }
+      layers.next().putAll(top);
+      snapshots.pollLast();
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void solidifySnapshot() {
+    layersLock.writeLock().lock();
+    try {
+      Map<WrappedByteArray, byte[]> bottom = snapshots.peekFirst();
+      if (bottom == null) {
+        return;
+      }
+      // hand the layer to the write buffer before dropping it so readers never miss a row
+      writeBuffer.putAll(bottom);
+      snapshots.pollFirst();
+      writeBufferToDb(null);
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  private boolean writeBufferToDb(WriteOptions options) {
+    layersLock.writeLock().lock();
+    try {
+      if (writeBuffer.isEmpty()) {
+        return false;
+      }
+      Map<WrappedByteArray, byte[]> snapshot = new HashMap<>(writeBuffer);
+      Map<byte[], byte[]> rows = new HashMap<>(snapshot.size());
+      snapshot.forEach((k, v) -> rows.put(k.getBytes(), v == TOMBSTONE ? null : v));
+      writeRows(rows, options);
+      // readers find the rows in the database once they leave the buffer
+      snapshot.forEach(writeBuffer::remove);
+      return true;
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Number of records, kept in a row of its own that is written in the same batch, buffer or
+   * snapshot layer as the records, so it is flushed and revoked together with them. While the
+   * row is being rebuilt after an upgrade or an interrupted rebuild, this is a partial count:
+   * the records counted so far plus the changes since the rebuild began. Use
+   * {@link #getTotal()} for an exact figure meanwhile.
+   */
+  @Override
+  public long count() {
+    byte[] row = read(COUNT_KEY);
+    if (row == null) {
+      return 0;
+    }
+    long count = Longs.fromByteArray(Arrays.copyOfRange(row, row.length - Long.BYTES,
+        row.length));
+    return row.length == REBUILDING_COUNT_LENGTH ? countProgress + count : count;
+  }
+
+  /**
+   * The count change of replacing {@code previous}, null or {@code TOMBSTONE} when the key held
+   * no record, with {@code value}.
+   */
+  private static long countDelta(byte[] previous, byte[] value) {
+    boolean had = previous != null && previous != TOMBSTONE;
+    boolean exists = value != TOMBSTONE;
+    return had == exists ? 0 : exists ? 1 : -1;
+  }
+
+  /**
+   * Add {@code delta} to the count row of {@code layer}, starting from the row visible below
+   * it. Atomic per layer, so concurrent writers need no lock of their own.
+   */
+  private void addToCount(Map<WrappedByteArray, byte[]> layer, long delta) {
+    layer.compute(WrappedByteArray.of(COUNT_KEY),
+        (k, row) -> addToCount(row != null ? row : readBelow(layer, COUNT_KEY), delta));
+  }
+
+  private byte[] readBelow(Map<WrappedByteArray, byte[]> layer, byte[] key) {
+    WrappedByteArray wrapped = WrappedByteArray.of(key);
+    if (layer != writeBuffer) {
+      boolean below = false;
+      Iterator<Map<WrappedByteArray, byte[]>> layers = snapshots.descendingIterator();
+      while (layers.hasNext()) {
+        Map<WrappedByteArray, byte[]> next = layers.next();
+        byte[] value = below ? next.get(wrapped) : null;
+        if (value != null) {
+          return value == TOMBSTONE ? null : value;
+        }
+        below |= next == layer;
+      }
+      byte[] value = writeBuffer.get(wrapped);
+      if (value != null) {
+        return value == TOMBSTONE ? null : value;
+      }
+    }
+    return readFromDb(key);
+  }
+
+  private static byte[] addToCount(byte[] row, long delta) {
+    if (row == null) {
+      return null;
+    }
+    int offset = row.length - Long.BYTES;
+    byte[] result = Arrays.copyOf(row, row.length);
+    long count = Longs.fromByteArray(Arrays.copyOfRange(row, offset, row.length)) + delta;
+    System.arraycopy(Longs.toByteArray(count), 0, result, offset, Long.BYTES);
+    return result;
+  }
+
+  /**
+   * Make sure a freshly opened database has a count row. A database without one, or whose
+   * rebuild was interrupted, gets a row counting changes from now on and a background count
+   * of a snapshot taken at the same moment; the two are added once the count finishes.
+   */
+  private void initCount() throws IOException {
+    byte[] row = database.get(COUNT_KEY);
+    if (row != null && row.length == Long.BYTES) {
+      return;
+    }
+    boolean empty;
+    try (DBIterator iterator = database.iterator()) {
+      iterator.seekToFirst();
+      // the count key may be left by an interrupted rebuild
+      if (iterator.hasNext() && Arrays.equals(iterator.peekNext().getKey(), COUNT_KEY)) {
+        iterator.next();
+      }
+      empty = !iterator.hasNext();
+    }
+    if (empty) {
+      database.put(COUNT_KEY, Longs.toByteArray(0));
+      return;
+    }
+
+    database.put(COUNT_KEY, new byte[REBUILDING_COUNT_LENGTH]);
+    DB db = database;
+    Snapshot snapshot = database.getSnapshot();
+    countProgress = 0;
+    countSnapshot = snapshot;
+    Thread rebuild = new Thread(() -> rebuildCount(db, snapshot), "count-" + dataBaseName);
+    rebuild.setDaemon(true);
+    rebuild.start();
+  }
+
+  private void rebuildCount(DB db, Snapshot snapshot) {
+    logger.info("rebuilding the record count of {}", dataBaseName);
+    long total = 0;
+    byte[] last = null;
+    boolean done = false;
+    while (!done) {
+      // count in chunks so closing or resetting the database is not held up
+      resetDbLock.readLock().lock();
+      if (countSnapshot != snapshot) {
+        // the database was closed, which closed the snapshot too; the next open counts again
+        resetDbLock.readLock().unlock();
+        return;
+      }
+      ReadOptions options = new ReadOptions().snapshot(snapshot).fillCache(false);
+      try (DBIterator iterator = db.iterator(options)) {
+        if (last == null) {
+          iterator.seekToFirst();
+        } else {
+          iterator.seek(last);
+          iterator.next();
+        }
+        for (int i = 0; i < REBUILD_CHUNK && iterator.hasNext(); i++) {
+          last = iterator.next().getKey();
+          if (!Arrays.equals(last, COUNT_KEY)) {
+            total++;
+          }
+        }
+        done = !iterator.hasNext();
+        countProgress = total;
+      } catch (IOException | DBException e) {
+        logger.error("failed to rebuild the record count of " + dataBaseName, e);
+        closeCountSnapshot();
+        return;
+      } finally {
+        resetDbLock.readLock().unlock();
+      }
+    }
+    completeCount(db, snapshot, total);
+  }
+
+  private void completeCount(DB db, Snapshot snapshot, long total) {
+    layersLock.writeLock().lock();
+    try {
+      resetDbLock.readLock().lock();
+      try {
+        if (countSnapshot != snapshot) {
+          return;
+        }
+        WrappedByteArray countKey = WrappedByteArray.of(COUNT_KEY);
+        snapshots.forEach(layer -> layer.computeIfPresent(countKey, (k, v) -> addCount(v, total)));
+        writeBuffer.computeIfPresent(countKey, (k, v) -> addCount(v, total));
+        db.put(COUNT_KEY, addCount(db.get(COUNT_KEY), total));
+        logger.info("record count of {} rebuilt", dataBaseName);
+      } catch (DBException e) {
+        logger.error("failed to store the record count of " + dataBaseName, e);
+      } finally {
+        if (countSnapshot == snapshot) {
+          closeCountSnapshot();
+        }
+        resetDbLock.readLock().unlock();
+      }
+    } finally {
+      layersLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Turn a count row holding changes since the rebuild began into a full count.
+   */
+  private static byte[] addCount(byte[] row, long total) {
+    if (row == null || row.length != REBUILDING_COUNT_LENGTH) {
+      return row;
+    }
+    return Longs.toByteArray(Longs.fromByteArray(Arrays.copyOfRange(row, 1, row.length)) + total);
+  }
+
+  /**
+   * Release the snapshot of a running rebuild, which then stops. Called with resetDbLock held
+   * while the database is still open.
+   */
+  private void closeCountSnapshot() {
+    Snapshot snapshot = countSnapshot;
+    if (snapshot == null) {
+      return;
+    }
+    countSnapshot = null;
+    try {
+      snapshot.close();
+    } catch (IOException e) {
+      logger.error("failed to release the count snapshot of " + dataBaseName, e);
+    }
   }
 
   @Override
   public void closeDB() {
+    if (isAlive()) {
+      flush();
+    }
     resetDbLock.writeLock().lock();
     try {
       if (!isAlive()) {
         return;
       }
+      closeCountSnapshot();
       database.close();
       alive = false;
     } catch (IOException e) {
@@ -393,7 +945,7 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
 
   @Override
   public org.gsc.db.common.iterator.DBIterator iterator() {
-    return new StoreIterator(database.iterator());
+    return scan(null, null, false, Long.MAX_VALUE);
   }
 
   public Stream<Entry<byte[], byte[]>> stream() {
@@ -0,0 +1,265 @@
+package org.gsc.common.storage.memory;
+
+import com.google.common.primitives.UnsignedBytes;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBException;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.Range;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
+
+/**
+ * Sorted in-memory {@link DB} for unit tests and benchmarks. Keys are ordered bytewise like
+ * leveldb; nothing survives {@link #close()}.
+ */
+public class MemoryDB implements DB {
+
+  private volatile ConcurrentSkipListMap<byte[], byte[]> data = newMap();
+
+  private static ConcurrentSkipListMap<byte[], byte[]> newMap() {
+    return new ConcurrentSkipListMap<>(UnsignedBytes.lexicographicalComparator());
+  }
+
+  @Override
+  public byte[] get(byte[] key) throws DBException {
+    return data.get(key);
+  }
+
+  @Override
+  public byte[] get(byte[] key, ReadOptions options) throws DBException {
+    return view(options).get(key);
+  }
+
+  @Override
+  public DBIterator iterator() {
+    return new MemoryIterator(data);
+  }
+
+  @Override
+  public DBIterator iterator(ReadOptions options) {
+    return new MemoryIterator(view(options));
+  }
+
+  @Override
+  public void put(byte[] key, byte[] value) throws DBException {
+    data.put(key, value);
+  }
+
+  @Override
+  public void delete(byte[] key) throws DBException {
+    data.remove(key);
+  }
+
+  @Override
+  public synchronized void write(WriteBatch updates) throws DBException {
+    ((MemoryWriteBatch) updates).applyTo(data);
+  }
+
+  @Override
+  public WriteBatch createWriteBatch() {
+    return new MemoryWriteBatch();
+  }
+
+  @Override
+  public Snapshot put(byte[] key, byte[] value, WriteOptions options) throws DBException {
+    put(key, value);
+    return null;
+  }
+
+  @Override
+  public Snapshot delete(byte[] key, WriteOptions options) throws DBException {
+    delete(key);
+    return null;
+  }
+
+  @Override
+  public Snapshot write(WriteBatch updates, WriteOptions options) throws DBException {
+    write(updates);
+    return null;
+  }
+
+  /**
+   * Copies the live map, so taking a snapshot costs O(n).
+   */
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    return new MemorySnapshot(data.clone());
+  }
+
+  @Override
+  public long[] getApproximateSizes(Range... ranges) {
+    long[] sizes = new long[ranges.length];
+    for (int i = 0; i < ranges.length; i++) {
+      for (Entry<byte[], byte[]> entry
+          : data.subMap(ranges[i].start(), ranges[i].limit()).entrySet()) {
+        sizes[i] += entry.getKey().length + entry.getValue().length;
+      }
+    }
+    return sizes;
+  }
+
+  @Override
+  public String getProperty(String name) {
+    return null;
+  }
+
+  @Override
+  public void suspendCompactions() throws InterruptedException {
+  }
+
+  @Override
+  public void resumeCompactions() {
+  }
+
+  @Override
+  public void compactRange(byte[] begin, byte[] end) throws DBException {
+  }
+
+  @Override
+  public void close() {
+    data = newMap();
+  }
+
+  private NavigableMap<byte[], byte[]> view(ReadOptions options) {
+    if (options != null && options.snapshot() instanceof MemorySnapshot) {
+      return ((MemorySnapshot) options.snapshot()).data;
+    }
+    return data;
+  }
+
+  private static class MemorySnapshot implements Snapshot {
+
+    private final NavigableMap<byte[], byte[]> data;
+
+    MemorySnapshot(NavigableMap<byte[], byte[]> data) {
+      this.data = data;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static class MemoryWriteBatch implements WriteBatch {
+
+    // a null value deletes the key
+    private final List<Entry<byte[], byte[]>> updates = new ArrayList<>();
+
+    @Override
+    public WriteBatch put(byte[] key, byte[] value) {
+      updates.add(new SimpleImmutableEntry<>(key, value));
+      return this;
+    }
+
+    @Override
+    public WriteBatch delete(byte[] key) {
+      updates.add(new SimpleImmutableEntry<>(key, null));
+      return this;
+    }
+
+    void applyTo(NavigableMap<byte[], byte[]> data) {
+      updates.forEach(update -> {
+        if (update.getValue() == null) {
+          data.remove(update.getKey());
+        } else {
+          data.put(update.getKey(), update.getValue());
+        }
+      });
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Positioned on the entry {@link #peekNext()} returns, following the leveldbjni iterator.
+   */
+  private static class MemoryIterator implements DBIterator {
+
+    private final NavigableMap<byte[], byte[]> data;
+    private Entry<byte[], byte[]> next;
+
+    MemoryIterator(NavigableMap<byte[], byte[]> data) {
+      this.data = data;
+      this.next = data.firstEntry();
+    }
+
+    @Override
+    public void seek(byte[] key) {
+      next = data.ceilingEntry(key);
+    }
+
+    @Override
+    public void seekToFirst() {
+      next = data.firstEntry();
+    }
+
+    @Override
+    public void seekToLast() {
+      next = data.lastEntry();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<byte[], byte[]> peekNext() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      return next;
+    }
+
+    @Override
+    public Entry<byte[], byte[]> next() {
+      Entry<byte[], byte[]> result = peekNext();
+      next = data.higherEntry(result.getKey());
+      return result;
+    }
+
+    @Override
+    public boolean hasPrev() {
+      return previous() != null;
+    }
+
+    @Override
+    public Entry<byte[], byte[]> peekPrev() {
+      Entry<byte[], byte[]> prev = previous();
+      if (prev == null) {
+        throw new NoSuchElementException();
+      }
+      return prev;
+    }
+
+    @Override
+    public Entry<byte[], byte[]> prev() {
+      next = peekPrev();
+      return next;
+    }
+
+    private Entry<byte[], byte[]> previous() {
+      return next == null ? data.lastEntry() : data.lowerEntry(next.getKey());
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
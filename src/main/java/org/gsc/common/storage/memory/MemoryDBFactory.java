@@ -0,0 +1,27 @@
+package org.gsc.common.storage.memory;
+
+import java.io.File;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBFactory;
+import org.iq80.leveldb.Options;
+
+/**
+ * Opens a fresh, empty {@link MemoryDB} for every call; nothing is written under the path.
+ */
+public class MemoryDBFactory implements DBFactory {
+
+  public static final MemoryDBFactory factory = new MemoryDBFactory();
+
+  @Override
+  public DB open(File path, Options options) {
+    return new MemoryDB();
+  }
+
+  @Override
+  public void destroy(File path, Options options) {
+  }
+
+  @Override
+  public void repair(File path, Options options) {
+  }
+}
@@ -0,0 +1,334 @@
+package org.gsc.common.storage.rocksdb;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBException;
+import org.iq80.leveldb.DBIterator;
+import org.iq80.leveldb.Range;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Filter;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+
+/**
+ * A RocksDB database seen through the leveldb {@link DB} API, reading and writing its default
+ * column family. Iterators follow the leveldbjni ones, positioned on the entry
+ * {@link DBIterator#peekNext()} returns.
+ */
+public class RocksDBAdapter implements DB {
+
+  private final RocksDB db;
+  private final List<ColumnFamilyHandle> handles;
+  private final ColumnFamilyHandle records;
+  private final boolean verifyChecksums;
+  private final DBOptions dbOptions;
+  private final ColumnFamilyOptions familyOptions;
+  private final Filter bloomFilter;
+
+  RocksDBAdapter(RocksDB db, List<ColumnFamilyHandle> handles, boolean verifyChecksums,
+      DBOptions dbOptions, ColumnFamilyOptions familyOptions, Filter bloomFilter) {
+    this.db = db;
+    this.handles = handles;
+    this.records = handles.get(0);
+    this.verifyChecksums = verifyChecksums;
+    this.dbOptions = dbOptions;
+    this.familyOptions = familyOptions;
+    this.bloomFilter = bloomFilter;
+  }
+
+  @Override
+  public byte[] get(byte[] key) throws DBException {
+    return get(key, null);
+  }
+
+  @Override
+  public byte[] get(byte[] key, ReadOptions options) throws DBException {
+    try (org.rocksdb.ReadOptions readOptions = readOptions(options)) {
+      return db.get(records, readOptions, key);
+    } catch (RocksDBException e) {
+      throw new DBException(e);
+    }
+  }
+
+  @Override
+  public DBIterator iterator() {
+    return iterator(null);
+  }
+
+  @Override
+  public DBIterator iterator(ReadOptions options) {
+    org.rocksdb.ReadOptions readOptions = readOptions(options);
+    return new RocksDBIterator(db.newIterator(records, readOptions), readOptions);
+  }
+
+  private org.rocksdb.ReadOptions readOptions(ReadOptions options) {
+    org.rocksdb.ReadOptions readOptions = new org.rocksdb.ReadOptions()
+        .setVerifyChecksums(verifyChecksums);
+    if (options != null) {
+      readOptions.setVerifyChecksums(options.verifyChecksums())
+          .setFillCache(options.fillCache());
+      if (options.snapshot() instanceof RocksDBSnapshot) {
+        readOptions.setSnapshot(((RocksDBSnapshot) options.snapshot()).snapshot);
+      }
+    }
+    return readOptions;
+  }
+
+  @Override
+  public void put(byte[] key, byte[] value) throws DBException {
+    put(key, value, null);
+  }
+
+  @Override
+  public void delete(byte[] key) throws DBException {
+    delete(key, null);
+  }
+
+  @Override
+  public void write(WriteBatch updates) throws DBException {
+    write(updates, null);
+  }
+
+  @Override
+  public WriteBatch createWriteBatch() {
+    return new RocksDBWriteBatch(records);
+  }
+
+  @Override
+  public Snapshot put(byte[] key, byte[] value, WriteOptions options) throws DBException {
+    try (org.rocksdb.WriteOptions writeOptions = writeOptions(options)) {
+      db.put(records, writeOptions, key, value);
+    } catch (RocksDBException e) {
+      throw new DBException(e);
+    }
+    return null;
+  }
+
+  @Override
+  public Snapshot delete(byte[] key, WriteOptions options) throws DBException {
+    try (org.rocksdb.WriteOptions writeOptions = writeOptions(options)) {
+      db.delete(records, writeOptions, key);
+    } catch (RocksDBException e) {
+      throw new DBException(e);
+    }
+    return null;
+  }
+
+  @Override
+  public Snapshot write(WriteBatch updates, WriteOptions options) throws DBException {
+    try (org.rocksdb.WriteOptions writeOptions = writeOptions(options)) {
+      db.write(writeOptions, ((RocksDBWriteBatch) updates).batch);
+    } catch (RocksDBException e) {
+      throw new DBException(e);
+    }
+    return null;
+  }
+
+  private static org.rocksdb.WriteOptions writeOptions(WriteOptions options) {
+    return new org.rocksdb.WriteOptions().setSync(options != null && options.sync());
+  }
+
+  @Override
+  public Snapshot getSnapshot() {
+    return new RocksDBSnapshot(db, db.getSnapshot());
+  }
+
+  @Override
+  public long[] getApproximateSizes(Range... ranges) {
+    throw new UnsupportedOperationException("approximate sizes are not read from rocksdb");
+  }
+
+  @Override
+  public String getProperty(String name) {
+    try {
+      return db.getProperty(records, name);
+    } catch (RocksDBException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void suspendCompactions() {
+  }
+
+  @Override
+  public void resumeCompactions() {
+  }
+
+  @Override
+  public void compactRange(byte[] begin, byte[] end) throws DBException {
+    try {
+      db.compactRange(records, begin, end);
+    } catch (RocksDBException e) {
+      throw new DBException(e);
+    }
+  }
+
+  @Override
+  public void close() {
+    handles.forEach(ColumnFamilyHandle::close);
+    db.close();
+    familyOptions.close();
+    dbOptions.close();
+    if (bloomFilter != null) {
+      bloomFilter.close();
+    }
+  }
+
+  private static class RocksDBSnapshot implements Snapshot {
+
+    private final RocksDB db;
+    private final org.rocksdb.Snapshot snapshot;
+
+    RocksDBSnapshot(RocksDB db, org.rocksdb.Snapshot snapshot) {
+      this.db = db;
+      this.snapshot = snapshot;
+    }
+
+    @Override
+    public void close() {
+      db.releaseSnapshot(snapshot);
+    }
+  }
+
+  private static class RocksDBWriteBatch implements WriteBatch {
+
+    private final ColumnFamilyHandle records;
+    private final org.rocksdb.WriteBatch batch = new org.rocksdb.WriteBatch();
+
+    RocksDBWriteBatch(ColumnFamilyHandle records) {
+      this.records = records;
+    }
+
+    @Override
+    public WriteBatch put(byte[] key, byte[] value) {
+      try {
+        batch.put(records, key, value);
+      } catch (RocksDBException e) {
+        throw new DBException(e);
+      }
+      return this;
+    }
+
+    @Override
+    public WriteBatch delete(byte[] key) {
+      try {
+        batch.delete(records, key);
+      } catch (RocksDBException e) {
+        throw new DBException(e);
+      }
+      return this;
+    }
+
+    @Override
+    public void close() {
+      batch.close();
+    }
+  }
+
+  private static class RocksDBIterator implements DBIterator {
+
+    private final RocksIterator iterator;
+    private final org.rocksdb.ReadOptions readOptions;
+
+    RocksDBIterator(RocksIterator iterator, org.rocksdb.ReadOptions readOptions) {
+      this.iterator = iterator;
+      this.readOptions = readOptions;
+      iterator.seekToFirst();
+    }
+
+    @Override
+    public void seek(byte[] key) {
+      iterator.seek(key);
+    }
+
+    @Override
+    public void seekToFirst() {
+      iterator.seekToFirst();
+    }
+
+    @Override
+    public void seekToLast() {
+      iterator.seekToLast();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.isValid();
+    }
+
+    @Override
+    public Entry<byte[], byte[]> peekNext() {
+      if (!iterator.isValid()) {
+        throw new NoSuchElementException();
+      }
+      return new SimpleImmutableEntry<>(iterator.key(), iterator.value());
+    }
+
+    @Override
+    public Entry<byte[], byte[]> next() {
+      Entry<byte[], byte[]> result = peekNext();
+      iterator.next();
+      return result;
+    }
+
+    @Override
+    public boolean hasPrev() {
+      if (!iterator.isValid()) {
+        return false;
+      }
+      iterator.prev();
+      try {
+        return iterator.isValid();
+      } finally {
+        if (iterator.isValid()) {
+          iterator.next();
+        } else {
+          iterator.seekToFirst();
+        }
+      }
+    }
+
+    @Override
+    public Entry<byte[], byte[]> peekPrev() {
+      iterator.prev();
+      try {
+        return peekNext();
+      } finally {
+        if (iterator.isValid()) {
+          iterator.next();
+        } else {
+          iterator.seekToFirst();
+        }
+      }
+    }
+
+    @Override
+    public Entry<byte[], byte[]> prev() {
+      Entry<byte[], byte[]> result = peekPrev();
+      iterator.prev();
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      iterator.close();
+      readOptions.close();
+    }
+  }
+}
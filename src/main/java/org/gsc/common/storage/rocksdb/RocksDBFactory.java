@@ -0,0 +1,122 @@
+package org.gsc.common.storage.rocksdb;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.iq80.leveldb.CompressionType;
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBFactory;
+import org.iq80.leveldb.Options;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.Filter;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+
+/**
+ * Opens RocksDB databases behind the leveldb {@link DB} API. Options given as
+ * {@link RocksDbOptions} carry the bloom filter and compaction tuning of the database; plain
+ * leveldb options get the RocksDB defaults for those.
+ */
+public class RocksDBFactory implements DBFactory {
+
+  public static final RocksDBFactory factory = new RocksDBFactory();
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  @Override
+  public DB open(File path, Options options) throws IOException {
+    RocksDbOptions rocksOptions = RocksDbOptions.of(options);
+    DBOptions dbOptions = new DBOptions()
+        .setCreateIfMissing(rocksOptions.createIfMissing())
+        .setCreateMissingColumnFamilies(true)
+        .setErrorIfExists(rocksOptions.errorIfExists())
+        .setParanoidChecks(rocksOptions.paranoidChecks())
+        .setMaxOpenFiles(rocksOptions.maxOpenFiles())
+        .setMaxBackgroundJobs(rocksOptions.maxBackgroundJobs());
+    Filter bloomFilter = rocksOptions.bloomFilterBitsPerKey() > 0
+        ? new BloomFilter(rocksOptions.bloomFilterBitsPerKey(), false) : null;
+    ColumnFamilyOptions familyOptions = columnFamilyOptions(rocksOptions, bloomFilter);
+
+    // every column family present has to be opened; records live in the default one
+    List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, familyOptions));
+    for (byte[] name : listColumnFamilies(path)) {
+      if (!Arrays.equals(name, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+        descriptors.add(new ColumnFamilyDescriptor(name, familyOptions));
+      }
+    }
+    List<ColumnFamilyHandle> handles = new ArrayList<>();
+    try {
+      RocksDB db = RocksDB.open(dbOptions, path.getAbsolutePath(), descriptors, handles);
+      return new RocksDBAdapter(db, handles, rocksOptions.verifyChecksums(),
+          dbOptions, familyOptions, bloomFilter);
+    } catch (RocksDBException e) {
+      handles.forEach(ColumnFamilyHandle::close);
+      familyOptions.close();
+      dbOptions.close();
+      if (bloomFilter != null) {
+        bloomFilter.close();
+      }
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  private static ColumnFamilyOptions columnFamilyOptions(RocksDbOptions options,
+      Filter bloomFilter) {
+    BlockBasedTableConfig tableConfig = new BlockBasedTableConfig()
+        .setBlockSize(options.blockSize())
+        .setBlockCacheSize(options.cacheSize())
+        .setCacheIndexAndFilterBlocks(true)
+        .setPinL0FilterAndIndexBlocksInCache(true);
+    if (bloomFilter != null) {
+      tableConfig.setFilter(bloomFilter);
+    }
+    return new ColumnFamilyOptions()
+        .setTableFormatConfig(tableConfig)
+        .setWriteBufferSize(options.writeBufferSize())
+        .setCompressionType(options.compressionType() == CompressionType.SNAPPY
+            ? org.rocksdb.CompressionType.SNAPPY_COMPRESSION
+            : org.rocksdb.CompressionType.NO_COMPRESSION)
+        .setLevelCompactionDynamicLevelBytes(options.levelCompactionDynamicLevelBytes())
+        .setTargetFileSizeBase(options.targetFileSizeBase())
+        .setMaxBytesForLevelBase(options.maxBytesForLevelBase());
+  }
+
+  private static List<byte[]> listColumnFamilies(File path) {
+    if (!new File(path, "CURRENT").exists()) {
+      return Collections.emptyList();
+    }
+    try (org.rocksdb.Options options = new org.rocksdb.Options()) {
+      return RocksDB.listColumnFamilies(options, path.getAbsolutePath());
+    } catch (RocksDBException e) {
+      return Collections.emptyList();
+    }
+  }
+
+  @Override
+  public void destroy(File path, Options options) throws IOException {
+    try (org.rocksdb.Options rocksOptions = new org.rocksdb.Options()) {
+      RocksDB.destroyDB(path.getAbsolutePath(), rocksOptions);
+    } catch (RocksDBException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * The RocksDB Java API has no repair, so a corrupted database fails to open as before.
+   */
+  @Override
+  public void repair(File path, Options options) throws IOException {
+    throw new IOException("repair is not supported by the rocksdb engine: " + path);
+  }
+}
@@ -0,0 +1,95 @@
+package org.gsc.common.storage.rocksdb;
+
+import org.iq80.leveldb.Options;
+
+/**
+ * Options of a database with the RocksDB tuning on top of those leveldb knows. The leveldb ones
+ * carry over: {@code cacheSize} sizes the block cache, {@code blockSize} the table blocks and
+ * {@code writeBufferSize} the memtable.
+ */
+public class RocksDbOptions extends Options {
+
+  /**
+   * Bits per key of the bloom filter on each table, 0 for none
+   */
+  private int bloomFilterBitsPerKey = 10;
+
+  /**
+   * Threads shared by compactions and flushes
+   */
+  private int maxBackgroundJobs = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+  /**
+   * Size the levels from the last one up, which bounds space amplification
+   */
+  private boolean levelCompactionDynamicLevelBytes = true;
+
+  private long targetFileSizeBase = 64 * 1024 * 1024L;
+
+  private long maxBytesForLevelBase = 256 * 1024 * 1024L;
+
+  public int bloomFilterBitsPerKey() {
+    return bloomFilterBitsPerKey;
+  }
+
+  public RocksDbOptions bloomFilterBitsPerKey(int bloomFilterBitsPerKey) {
+    this.bloomFilterBitsPerKey = bloomFilterBitsPerKey;
+    return this;
+  }
+
+  public int maxBackgroundJobs() {
+    return maxBackgroundJobs;
+  }
+
+  public RocksDbOptions maxBackgroundJobs(int maxBackgroundJobs) {
+    this.maxBackgroundJobs = maxBackgroundJobs;
+    return this;
+  }
+
+  public boolean levelCompactionDynamicLevelBytes() {
+    return levelCompactionDynamicLevelBytes;
+  }
+
+  public RocksDbOptions levelCompactionDynamicLevelBytes(boolean levelCompactionDynamicLevelBytes) {
+    this.levelCompactionDynamicLevelBytes = levelCompactionDynamicLevelBytes;
+    return this;
+  }
+
+  public long targetFileSizeBase() {
+    return targetFileSizeBase;
+  }
+
+  public RocksDbOptions targetFileSizeBase(long targetFileSizeBase) {
+    this.targetFileSizeBase = targetFileSizeBase;
+    return this;
+  }
+
+  public long maxBytesForLevelBase() {
+    return maxBytesForLevelBase;
+  }
+
+  public RocksDbOptions maxBytesForLevelBase(long maxBytesForLevelBase) {
+    this.maxBytesForLevelBase = maxBytesForLevelBase;
+    return this;
+  }
+
+  /**
+   * Copy the options leveldb knows from {@code options}, keeping the RocksDB defaults.
+   */
+  public static RocksDbOptions of(Options options) {
+    if (options instanceof RocksDbOptions) {
+      return (RocksDbOptions) options;
+    }
+    RocksDbOptions result = new RocksDbOptions();
+    result.createIfMissing(options.createIfMissing());
+    result.errorIfExists(options.errorIfExists());
+    result.paranoidChecks(options.paranoidChecks());
+    result.verifyChecksums(options.verifyChecksums());
+    result.compressionType(options.compressionType());
+    result.blockSize(options.blockSize());
+    result.writeBufferSize(options.writeBufferSize());
+    result.cacheSize(options.cacheSize());
+    result.maxOpenFiles(options.maxOpenFiles());
+    return result;
+  }
+}
@@ -0,0 +1,83 @@
+package org.gsc.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Durations counted in power of two buckets of microseconds, cheap enough to record from hot
+ * paths on any thread. Percentiles are read as the upper bound of their bucket, so at most
+ * twice the real value.
+ */
+public class LatencyHistogram {
+
+  // the last bucket takes everything from 2^(BUCKETS - 2) microseconds, about 18 minutes
+  private static final int BUCKETS = 32;
+
+  private final String name;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  public LatencyHistogram(String name) {
+    this.name = name;
+  }
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    buckets.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  private static int bucket(long micros) {
+    // bucket i holds [2^(i-1), 2^i) microseconds, bucket 0 anything under one
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Upper bound in microseconds of the bucket holding the {@code percent} percentile, or 0
+   * when nothing was recorded.
+   */
+  public long percentileMicros(double percent) {
+    long total = count.get();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(total * percent / 100);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return 1L << i;
+      }
+    }
+    return 1L << (BUCKETS - 1);
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    totalNanos.set(0);
+    maxNanos.set(0);
+  }
+
+  @Override
+  public String toString() {
+    long total = count.get();
+    return String.format("%s: count=%d, mean=%dus, p50<=%dus, p99<=%dus, max=%dus", name, total,
+        total == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / total),
+        percentileMicros(50), percentileMicros(99),
+        TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+  }
+}
@@ -42,6 +42,9 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
 
   public static final int LENGTH = 32; // bytes
   public static final Sha256Hash ZERO_HASH = wrap(new byte[LENGTH]);
+  // digest() resets a digest, so each thread reuses one instead of looking one up per hash
+  private static final ThreadLocal<MessageDigest> DIGEST =
+      ThreadLocal.withInitial(Sha256Hash::newDigest);
 
   private final byte[] bytes;
 
@@ -181,11 +184,23 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    * @return the hash (in big-endian order)
    */
   public static byte[] hash(byte[] input, int offset, int length) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = DIGEST.get();
     digest.update(input, offset, length);
     return digest.digest();
   }
 
+  /**
+   * Calculates the SHA-256 hash of the given byte ranges. This is equivalent to concatenating the
+   * two ranges and then passing the result to {@link #hash(byte[])}.
+   */
+  public static byte[] hash(byte[] input1, int offset1, int length1,
+      byte[] input2, int offset2, int length2) {
+    MessageDigest digest = DIGEST.get();
+    digest.update(input1, offset1, length1);
+    digest.update(input2, offset2, length2);
+    return digest.digest();
+  }
+
   /**
    * Calculates the SHA-256 hash of the given bytes, and then hashes the resulting hash again.
    *
@@ -205,7 +220,7 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    * @return the double-hash (in big-endian order)
    */
   public static byte[] hashTwice(byte[] input, int offset, int length) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = DIGEST.get();
     digest.update(input, offset, length);
     return digest.digest(digest.digest());
   }
@@ -216,7 +231,7 @@ public class Sha256Hash implements Serializable, Comparable<Sha256Hash> {
    */
   public static byte[] hashTwice(byte[] input1, int offset1, int length1,
       byte[] input2, int offset2, int length2) {
-    MessageDigest digest = newDigest();
+    MessageDigest digest = DIGEST.get();
     digest.update(input1, offset1, length1);
     digest.update(input2, offset2, length2);
     return digest.digest(digest.digest());
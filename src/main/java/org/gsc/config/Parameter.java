@@ -34,6 +34,7 @@ public interface Parameter {
     long MAX_BLOCKS_SYNC_FROM_ONE_PEER = 1000;
     long SYNC_CHAIN_LIMIT_NUM = 500;
     int MAX_TRANSACTION_PENDING = 2000;
+    long MAX_TRANSACTION_PENDING_BYTES = 4 * 1024 * 1024L;
   }
 
   interface NetConstants {
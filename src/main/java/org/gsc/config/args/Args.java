@@ -216,6 +216,11 @@ public class Args {
   @Parameter(names = {"--validate-sign-thread"}, description = "Num of validate thread")
   private int validateSignThreadNum;
 
+  @Getter
+  @Setter
+  @Parameter(names = {"--apply-thread"}, description = "Num of transaction apply thread")
+  private int applyThreadNum;
+
   @Getter
   @Setter
   private long maintenanceTimeInterval; // (ms)
@@ -366,6 +371,8 @@ public class Args {
         .filter(StringUtils::isNotEmpty)
         .orElse(Storage.getIndexDirectoryFromConfig(config)));
 
+    INSTANCE.storage.setRevoking(Storage.getRevokingFromConfig(config));
+    INSTANCE.storage.setDefaultEngine(Storage.getDefaultEngineFromConfig(config));
     INSTANCE.storage.setPropertyMapFromConfig(config);
 
     INSTANCE.seedNode = new SeedNode();
@@ -493,6 +500,9 @@ public class Args {
     INSTANCE.validateSignThreadNum = config.hasPath("peer.validateSignThreadNum") ? config
         .getInt("peer.validateSignThreadNum") : Runtime.getRuntime().availableProcessors() / 2;
 
+    INSTANCE.applyThreadNum = config.hasPath("peer.applyThreadNum") ? config
+        .getInt("peer.applyThreadNum") : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
     INSTANCE.walletExtensionApi =
         config.hasPath("peer.walletExtensionApi") && config.getBoolean("peer.walletExtensionApi");
 
@@ -18,6 +18,8 @@ package org.gsc.config.args;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigObject;
 
+import org.gsc.common.storage.StorageEngine;
+import org.gsc.common.storage.rocksdb.RocksDbOptions;
 import org.gsc.common.utils.FileUtil;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.Options;
@@ -37,9 +39,12 @@ public class Storage {
   private static final String DB_DIRECTORY_CONFIG_KEY = "storage.db.directory";
   private static final String INDEX_DIRECTORY_CONFIG_KEY = "storage.index.directory";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
+  private static final String REVOKING_CONFIG_KEY = "storage.revoking";
+  private static final String DEFAULT_ENGINE_CONFIG_KEY = "storage.engine";
 
   private static final String NAME_CONFIG_KEY = "name";
   private static final String PATH_CONFIG_KEY = "path";
+  private static final String ENGINE_CONFIG_KEY = "engine";
   private static final String CREATE_IF_MISSING_CONFIG_KEY = "createIfMissing";
   private static final String PARANOID_CHECKS_CONFIG_KEY = "paranoidChecks";
   private static final String VERITY_CHECK_SUMS_CONFIG_KEY = "verifyChecksums";
@@ -48,6 +53,12 @@ public class Storage {
   private static final String WRITE_BUFFER_SIZE_CONFIG_KEY = "writeBufferSize";
   private static final String CACHE_SIZE_CONFIG_KEY = "cacheSize";
   private static final String MAX_OPEN_FILES_CONFIG_KEY = "maxOpenFiles";
+  private static final String BLOOM_FILTER_BITS_CONFIG_KEY = "bloomFilterBitsPerKey";
+  private static final String MAX_BACKGROUND_JOBS_CONFIG_KEY = "maxBackgroundJobs";
+  private static final String LEVEL_COMPACTION_DYNAMIC_CONFIG_KEY =
+      "levelCompactionDynamicLevelBytes";
+  private static final String TARGET_FILE_SIZE_BASE_CONFIG_KEY = "targetFileSizeBase";
+  private static final String MAX_BYTES_FOR_LEVEL_BASE_CONFIG_KEY = "maxBytesForLevelBase";
 
   /**
    * Default values of directory
@@ -55,6 +66,13 @@ public class Storage {
   private static final String DEFAULT_DB_DIRECTORY = "database";
   private static final String DEFAULT_INDEX_DIRECTORY = "index";
 
+  /**
+   * Revoking engines: "undo" records old values per dialog, "snapshot" keeps each dialog as
+   * an in-memory layer over the stores
+   */
+  public static final String UNDO_REVOKING = "undo";
+  public static final String SNAPSHOT_REVOKING = "snapshot";
+
   /**
    * Default values of db options:
    * <p>
@@ -84,6 +102,20 @@ public class Storage {
   @Setter
   private String indexDirectory;
 
+  /**
+   * Revoking engine: {@link #UNDO_REVOKING} or {@link #SNAPSHOT_REVOKING}
+   */
+  @Getter
+  @Setter
+  private String revoking = UNDO_REVOKING;
+
+  /**
+   * Engine of databases without their own "engine" property
+   */
+  @Getter
+  @Setter
+  private StorageEngine defaultEngine = StorageEngine.LEVELDB;
+
   /**
    * Other custom database configurations
    */
@@ -92,6 +124,7 @@ public class Storage {
   private static class Property {
     private String name;
     private String path;
+    private StorageEngine engine;
     private Options dbOptions;
   }
 
@@ -110,6 +143,23 @@ public class Storage {
         config.getString(INDEX_DIRECTORY_CONFIG_KEY) : DEFAULT_INDEX_DIRECTORY;
   }
 
+  public static StorageEngine getDefaultEngineFromConfig(final Config config) {
+    return config.hasPath(DEFAULT_ENGINE_CONFIG_KEY)
+        ? StorageEngine.fromName(config.getString(DEFAULT_ENGINE_CONFIG_KEY))
+        : StorageEngine.LEVELDB;
+  }
+
+  public static String getRevokingFromConfig(final Config config) {
+    if (!config.hasPath(REVOKING_CONFIG_KEY)) {
+      return UNDO_REVOKING;
+    }
+    String revoking = config.getString(REVOKING_CONFIG_KEY);
+    if (!UNDO_REVOKING.equals(revoking) && !SNAPSHOT_REVOKING.equals(revoking)) {
+      throw new IllegalArgumentException("[storage.revoking] unknown revoking engine: " + revoking);
+    }
+    return revoking;
+  }
+
   /**
    * Set propertyMap of Storage object from Config
    *
@@ -136,6 +186,19 @@ public class Storage {
     return null;
   }
 
+  /**
+   * Get storage engine by name of database
+   *
+   * @param dbName name of database
+   * @return engine of that database
+   */
+  public StorageEngine getEngineByDbName(String dbName) {
+    if (hasProperty(dbName) && getProperty(dbName).getEngine() != null) {
+      return getProperty(dbName).getEngine();
+    }
+    return defaultEngine;
+  }
+
   /**
    * Get database options by name of database
    *
@@ -202,8 +265,17 @@ public class Storage {
       property.setPath(path);
     }
 
-    // Check, get and set fields of Options
-    Options dbOptions = createDefaultDbOptions();
+    if (conf.containsKey(ENGINE_CONFIG_KEY)) {
+      try {
+        property.setEngine(StorageEngine.fromName(conf.get(ENGINE_CONFIG_KEY).unwrapped().toString()));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("[storage.properties] " + e.getMessage());
+      }
+    }
+
+    // Check, get and set fields of Options; the rocksdb ones are ignored by other engines
+    RocksDbOptions dbOptions = new RocksDbOptions();
+    setDefaultDbOptions(dbOptions);
 
     if (conf.containsKey(CREATE_IF_MISSING_CONFIG_KEY)) {
       dbOptions.createIfMissing(
@@ -291,13 +363,73 @@ public class Storage {
       }
     }
 
+    if (conf.containsKey(BLOOM_FILTER_BITS_CONFIG_KEY)) {
+      try {
+        dbOptions.bloomFilterBitsPerKey(
+            Integer.parseInt(
+                conf.get(BLOOM_FILTER_BITS_CONFIG_KEY).unwrapped().toString()
+            )
+        );
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("[storage.properties] bloomFilterBitsPerKey must be Integer type.");
+      }
+    }
+
+    if (conf.containsKey(MAX_BACKGROUND_JOBS_CONFIG_KEY)) {
+      try {
+        dbOptions.maxBackgroundJobs(
+            Integer.parseInt(
+                conf.get(MAX_BACKGROUND_JOBS_CONFIG_KEY).unwrapped().toString()
+            )
+        );
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("[storage.properties] maxBackgroundJobs must be Integer type.");
+      }
+    }
+
+    if (conf.containsKey(LEVEL_COMPACTION_DYNAMIC_CONFIG_KEY)) {
+      dbOptions.levelCompactionDynamicLevelBytes(
+          Boolean.parseBoolean(
+              conf.get(LEVEL_COMPACTION_DYNAMIC_CONFIG_KEY).unwrapped().toString()
+          )
+      );
+    }
+
+    if (conf.containsKey(TARGET_FILE_SIZE_BASE_CONFIG_KEY)) {
+      try {
+        dbOptions.targetFileSizeBase(
+            Long.parseLong(
+                conf.get(TARGET_FILE_SIZE_BASE_CONFIG_KEY).unwrapped().toString()
+            )
+        );
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("[storage.properties] targetFileSizeBase must be Long type.");
+      }
+    }
+
+    if (conf.containsKey(MAX_BYTES_FOR_LEVEL_BASE_CONFIG_KEY)) {
+      try {
+        dbOptions.maxBytesForLevelBase(
+            Long.parseLong(
+                conf.get(MAX_BYTES_FOR_LEVEL_BASE_CONFIG_KEY).unwrapped().toString()
+            )
+        );
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("[storage.properties] maxBytesForLevelBase must be Long type.");
+      }
+    }
+
     property.setDbOptions(dbOptions);
     return property;
   }
 
   private static Options createDefaultDbOptions() {
     Options dbOptions = new Options();
+    setDefaultDbOptions(dbOptions);
+    return dbOptions;
+  }
 
+  private static void setDefaultDbOptions(Options dbOptions) {
     dbOptions.createIfMissing(true);
     dbOptions.paranoidChecks(true);
     dbOptions.verifyChecksums(true);
@@ -307,8 +439,6 @@ public class Storage {
     dbOptions.writeBufferSize(DEFAULT_WRITE_BUFFER_SIZE);
     dbOptions.cacheSize(DEFAULT_CACHE_SIZE);
     dbOptions.maxOpenFiles(DEFAULT_MAX_OPEN_FILES);
-
-    return dbOptions;
   }
 
 }
@@ -38,7 +38,6 @@ import org.gsc.core.wrapper.BlockWrapper;
 import org.gsc.db.AccountStore;
 import org.gsc.db.BandwidthProcessor;
 import org.gsc.db.Manager;
-import org.gsc.db.PendingManager;
 import org.gsc.core.exception.AccountResourceInsufficientException;
 import org.gsc.core.exception.BadItemException;
 import org.gsc.core.exception.ContractExeException;
@@ -220,11 +219,9 @@ public class Wallet {
       TransactionWrapper gsc = new TransactionWrapper(signaturedTransaction);
       Message message = new TransactionMessage(signaturedTransaction);
 
-      if (dbManager.isTooManyPending()) {
-        logger.debug(
-            "Manager is busy, pending transaction count:{}, discard the new coming transaction",
-            (dbManager.getPendingTransactions().size() + PendingManager.getTmpTransactions()
-                .size()));
+      if (dbManager.getPendingTransactions().isFull()) {
+        logger.debug("Manager is busy, {}, discard the new coming transaction",
+            dbManager.getPendingTransactions());
         return builder.setResult(false).setCode(response_code.SERVER_BUSY).build();
       }
 
@@ -240,7 +237,11 @@ public class Wallet {
         dbManager.getTransactionIdCache().put(gsc.getTransactionId(), true);
       }
 
-      dbManager.pushTransactions(gsc);
+      if (!dbManager.admitTransaction(gsc)) {
+        logger.debug("Manager is busy, {}, discard the new coming transaction",
+            dbManager.getPendingTransactions());
+        return builder.setResult(false).setCode(response_code.SERVER_BUSY).build();
+      }
       p2pNode.broadcast(message);
       return builder.setResult(true).setCode(response_code.SUCCESS).build();
     } catch (ValidateSignatureException e) {
@@ -309,11 +310,10 @@ public class Wallet {
   }
 
   public Block getNowBlock() {
-    List<BlockWrapper> blockList = dbManager.getBlockStore().getBlockByLatestNum(1);
-    if (CollectionUtils.isEmpty(blockList)) {
+    try {
+      return dbManager.getHead().getInstance();
+    } catch (HeaderNotFound e) {
       return null;
-    } else {
-      return blockList.get(0).getInstance();
     }
   }
 
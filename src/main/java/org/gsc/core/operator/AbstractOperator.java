@@ -1,15 +1,39 @@
 package org.gsc.core.operator;
 
 import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
 import org.gsc.db.Manager;
 
 public abstract class AbstractOperator implements Operator {
 
   protected Any contract;
   protected Manager dbManager;
+  // the contract as decoded by its transaction, see TransactionWrapper#getContract
+  private Message decoded;
 
   AbstractOperator(Any contract, Manager dbManager) {
     this.contract = contract;
     this.dbManager = dbManager;
   }
+
+  AbstractOperator withDecoded(Message decoded) {
+    this.decoded = decoded;
+    return this;
+  }
+
+  /**
+   * Whether the contract is a {@code clazz}, without resolving its type url when the
+   * transaction decoded it already.
+   */
+  protected boolean isContract(Class<? extends Message> clazz) {
+    return clazz.isInstance(decoded) || contract.is(clazz);
+  }
+
+  protected <T extends Message> T unpack(Class<T> clazz) throws InvalidProtocolBufferException {
+    if (clazz.isInstance(decoded)) {
+      return clazz.cast(decoded);
+    }
+    return contract.unpack(clazz);
+  }
 }
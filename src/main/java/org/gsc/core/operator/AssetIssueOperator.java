@@ -49,7 +49,7 @@ public class AssetIssueOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      AssetIssueContract assetIssueContract = contract.unpack(AssetIssueContract.class);
+      AssetIssueContract assetIssueContract = unpack(AssetIssueContract.class);
       byte[] ownerAddress = assetIssueContract.getOwnerAddress().toByteArray();
       AssetIssueWrapper assetIssueWrapper = new AssetIssueWrapper(assetIssueContract);
       dbManager.getAssetIssueStore()
@@ -108,14 +108,14 @@ public class AssetIssueOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(AssetIssueContract.class)) {
+    if (!isContract(AssetIssueContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [AssetIssueContract],real type[" + contract
               .getClass() + "]");
     }
     final AssetIssueContract assetIssueContract;
     try {
-      assetIssueContract = this.contract.unpack(AssetIssueContract.class);
+      assetIssueContract = unpack(AssetIssueContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -227,7 +227,7 @@ public class AssetIssueOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(AssetIssueContract.class).getOwnerAddress();
+    return unpack(AssetIssueContract.class).getOwnerAddress();
   }
 
   @Override
@@ -26,7 +26,7 @@ public class CreateAccountOperator extends AbstractOperator {
       throws ContractExeException {
     long fee = calcFee();
     try {
-      AccountCreateContract accountCreateContract = contract.unpack(AccountCreateContract.class);
+      AccountCreateContract accountCreateContract = unpack(AccountCreateContract.class);
       AccountWrapper accountWrapper = new AccountWrapper(accountCreateContract,
           dbManager.getHeadBlockTimeStamp());
       dbManager.getAccountStore()
@@ -49,14 +49,14 @@ public class CreateAccountOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!contract.is(AccountCreateContract.class)) {
+    if (!isContract(AccountCreateContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [AccountCreateContract],real type[" + contract
               .getClass() + "]");
     }
     final AccountCreateContract contract;
     try {
-      contract = this.contract.unpack(AccountCreateContract.class);
+      contract = unpack(AccountCreateContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -94,7 +94,7 @@ public class CreateAccountOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(AccountCreateContract.class).getOwnerAddress();
+    return unpack(AccountCreateContract.class).getOwnerAddress();
   }
 
   @Override
@@ -27,7 +27,7 @@ public class FreezeBalanceOperator extends AbstractOperator {
     long fee = calcFee();
     final FreezeBalanceContract freezeBalanceContract;
     try {
-      freezeBalanceContract = contract.unpack(FreezeBalanceContract.class);
+      freezeBalanceContract = unpack(FreezeBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       ret.setStatus(fee, code.FAILED);
@@ -80,7 +80,7 @@ public class FreezeBalanceOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!contract.is(FreezeBalanceContract.class)) {
+    if (!isContract(FreezeBalanceContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [FreezeBalanceContract],real type[" + contract
               .getClass() + "]");
@@ -88,7 +88,7 @@ public class FreezeBalanceOperator extends AbstractOperator {
 
     final FreezeBalanceContract freezeBalanceContract;
     try {
-      freezeBalanceContract = this.contract.unpack(FreezeBalanceContract.class);
+      freezeBalanceContract = unpack(FreezeBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -141,7 +141,7 @@ public class FreezeBalanceOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(FreezeBalanceContract.class).getOwnerAddress();
+    return unpack(FreezeBalanceContract.class).getOwnerAddress();
   }
 
   @Override
@@ -2,6 +2,7 @@ package org.gsc.core.operator;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
+import com.google.protobuf.InvalidProtocolBufferException;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.gsc.core.wrapper.TransactionWrapper;
@@ -34,8 +35,18 @@ public class OperatorFactory {
 
     Preconditions.checkNotNull(manager, "manager is null");
     Protocol.Transaction.raw rawData = transactionWrapper.getInstance().getRawData();
-    rawData.getContractList()
-        .forEach(contract -> actuatorList.add(getActuatorByContract(contract, manager)));
+    for (int i = 0; i < rawData.getContractCount(); i++) {
+      Operator operator = getActuatorByContract(rawData.getContract(i), manager);
+      if (operator instanceof AbstractOperator) {
+        try {
+          ((AbstractOperator) operator).withDecoded(transactionWrapper.getContract(i));
+        } catch (InvalidProtocolBufferException e) {
+          // left undecoded, validate reports it
+          logger.debug(e.getMessage(), e);
+        }
+      }
+      actuatorList.add(operator);
+    }
     return actuatorList;
   }
 
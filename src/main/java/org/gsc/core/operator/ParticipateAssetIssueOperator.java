@@ -47,7 +47,7 @@ public class ParticipateAssetIssueOperator extends AbstractOperator {
     long fee = calcFee();
     try {
       final ParticipateAssetIssueContract participateAssetIssueContract =
-          contract.unpack(Contract.ParticipateAssetIssueContract.class);
+          unpack(Contract.ParticipateAssetIssueContract.class);
       long cost = participateAssetIssueContract.getAmount();
 
       //subtract from owner address
@@ -98,7 +98,7 @@ public class ParticipateAssetIssueOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(ParticipateAssetIssueContract.class)) {
+    if (!isContract(ParticipateAssetIssueContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [ParticipateAssetIssueContract],real type[" + contract
               .getClass() + "]");
@@ -107,7 +107,7 @@ public class ParticipateAssetIssueOperator extends AbstractOperator {
     final ParticipateAssetIssueContract participateAssetIssueContract;
     try {
       participateAssetIssueContract =
-          this.contract.unpack(ParticipateAssetIssueContract.class);
+          unpack(ParticipateAssetIssueContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -190,7 +190,7 @@ public class ParticipateAssetIssueOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return this.contract.unpack(Contract.ParticipateAssetIssueContract.class).getOwnerAddress();
+    return unpack(Contract.ParticipateAssetIssueContract.class).getOwnerAddress();
   }
 
   @Override
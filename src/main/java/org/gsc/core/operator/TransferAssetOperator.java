@@ -45,8 +45,7 @@ public class TransferAssetOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      TransferAssetContract transferAssetContract = this.contract
-          .unpack(TransferAssetContract.class);
+      TransferAssetContract transferAssetContract = unpack(TransferAssetContract.class);
       AccountStore accountStore = this.dbManager.getAccountStore();
       byte[] ownerAddress = transferAssetContract.getOwnerAddress().toByteArray();
       byte[] toAddress = transferAssetContract.getToAddress().toByteArray();
@@ -88,14 +87,14 @@ public class TransferAssetOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(TransferAssetContract.class)) {
+    if (!isContract(TransferAssetContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [TransferAssetContract],real type[" + contract
               .getClass() + "]");
     }
     final TransferAssetContract transferAssetContract;
     try {
-      transferAssetContract = this.contract.unpack(TransferAssetContract.class);
+      transferAssetContract = unpack(TransferAssetContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -163,7 +162,7 @@ public class TransferAssetOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(TransferAssetContract.class).getOwnerAddress();
+    return unpack(TransferAssetContract.class).getOwnerAddress();
   }
 
   @Override
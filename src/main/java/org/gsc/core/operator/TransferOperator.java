@@ -28,7 +28,7 @@ public class TransferOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      TransferContract transferContract = contract.unpack(TransferContract.class);
+      TransferContract transferContract = unpack(TransferContract.class);
       long amount = transferContract.getAmount();
       byte[] toAddress = transferContract.getToAddress().toByteArray();
       byte[] ownerAddress = transferContract.getOwnerAddress().toByteArray();
@@ -68,7 +68,7 @@ public class TransferOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(TransferContract.class)) {
+    if (!isContract(TransferContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [TransferContract],real type[" + contract
               .getClass() + "]");
@@ -76,7 +76,7 @@ public class TransferOperator extends AbstractOperator {
     final long fee = calcFee();
     final TransferContract transferContract;
     try {
-      transferContract = contract.unpack(TransferContract.class);
+      transferContract = unpack(TransferContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -131,7 +131,7 @@ public class TransferOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(TransferContract.class).getOwnerAddress();
+    return unpack(TransferContract.class).getOwnerAddress();
   }
 
   @Override
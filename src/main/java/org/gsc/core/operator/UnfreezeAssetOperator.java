@@ -29,8 +29,7 @@ public class UnfreezeAssetOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      final UnfreezeAssetContract unfreezeAssetContract = contract
-          .unpack(UnfreezeAssetContract.class);
+      final UnfreezeAssetContract unfreezeAssetContract = unpack(UnfreezeAssetContract.class);
       byte[] ownerAddress = unfreezeAssetContract.getOwnerAddress().toByteArray();
 
       AccountWrapper accountWrapper = dbManager.getAccountStore().get(ownerAddress);
@@ -73,14 +72,14 @@ public class UnfreezeAssetOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(UnfreezeAssetContract.class)) {
+    if (!isContract(UnfreezeAssetContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [UnfreezeAssetContract],real type[" + contract
               .getClass() + "]");
     }
     final UnfreezeAssetContract unfreezeAssetContract;
     try {
-      unfreezeAssetContract = this.contract.unpack(UnfreezeAssetContract.class);
+      unfreezeAssetContract = unpack(UnfreezeAssetContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -117,7 +116,7 @@ public class UnfreezeAssetOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(UnfreezeAssetContract.class).getOwnerAddress();
+    return unpack(UnfreezeAssetContract.class).getOwnerAddress();
   }
 
   @Override
@@ -31,7 +31,7 @@ public class UnfreezeBalanceOperator extends AbstractOperator {
     long fee = calcFee();
     final UnfreezeBalanceContract unfreezeBalanceContract;
     try {
-      unfreezeBalanceContract = contract.unpack(UnfreezeBalanceContract.class);
+      unfreezeBalanceContract = unpack(UnfreezeBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       ret.setStatus(fee, code.FAILED);
@@ -85,14 +85,14 @@ public class UnfreezeBalanceOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(UnfreezeBalanceContract.class)) {
+    if (!isContract(UnfreezeBalanceContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [UnfreezeBalanceContract],real type[" + contract
               .getClass() + "]");
     }
     final UnfreezeBalanceContract unfreezeBalanceContract;
     try {
-      unfreezeBalanceContract = this.contract.unpack(UnfreezeBalanceContract.class);
+      unfreezeBalanceContract = unpack(UnfreezeBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -124,7 +124,7 @@ public class UnfreezeBalanceOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(UnfreezeBalanceContract.class).getOwnerAddress();
+    return unpack(UnfreezeBalanceContract.class).getOwnerAddress();
   }
 
   @Override
@@ -28,7 +28,7 @@ public class UpdateAccountOperator extends AbstractOperator {
     final AccountUpdateContract accountUpdateContract;
     final long fee = calcFee();
     try {
-      accountUpdateContract = contract.unpack(AccountUpdateContract.class);
+      accountUpdateContract = unpack(AccountUpdateContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       ret.setStatus(fee, code.FAILED);
@@ -56,14 +56,14 @@ public class UpdateAccountOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(AccountUpdateContract.class)) {
+    if (!isContract(AccountUpdateContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [AccountUpdateContract],real type[" + contract
               .getClass() + "]");
     }
     final AccountUpdateContract accountUpdateContract;
     try {
-      accountUpdateContract = contract.unpack(AccountUpdateContract.class);
+      accountUpdateContract = unpack(AccountUpdateContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -93,7 +93,7 @@ public class UpdateAccountOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(AccountUpdateContract.class).getOwnerAddress();
+    return unpack(AccountUpdateContract.class).getOwnerAddress();
   }
 
   @Override
@@ -29,8 +29,7 @@ public class UpdateAssetOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      final UpdateAssetContract updateAssetContract = this.contract
-          .unpack(UpdateAssetContract.class);
+      final UpdateAssetContract updateAssetContract = unpack(UpdateAssetContract.class);
 
       long newLimit = updateAssetContract.getNewLimit();
       long newPublicLimit = updateAssetContract.getNewPublicLimit();
@@ -68,14 +67,14 @@ public class UpdateAssetOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(UpdateAssetContract.class)) {
+    if (!isContract(UpdateAssetContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [UpdateAssetContract],real type[" + contract
               .getClass() + "]");
     }
     final UpdateAssetContract updateAssetContract;
     try {
-      updateAssetContract = this.contract.unpack(UpdateAssetContract.class);
+      updateAssetContract = unpack(UpdateAssetContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -123,7 +122,7 @@ public class UpdateAssetOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(AccountUpdateContract.class).getOwnerAddress();
+    return unpack(AccountUpdateContract.class).getOwnerAddress();
   }
 
   @Override
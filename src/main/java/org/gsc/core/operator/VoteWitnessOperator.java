@@ -33,7 +33,7 @@ public class VoteWitnessOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      VoteWitnessContract voteContract = contract.unpack(VoteWitnessContract.class);
+      VoteWitnessContract voteContract = unpack(VoteWitnessContract.class);
       countVoteAccount(voteContract);
       ret.setStatus(fee, code.SUCCESS);
     } catch (InvalidProtocolBufferException e) {
@@ -52,14 +52,14 @@ public class VoteWitnessOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(VoteWitnessContract.class)) {
+    if (!isContract(VoteWitnessContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [VoteWitnessContract],real type[" + contract
               .getClass() + "]");
     }
     final VoteWitnessContract contract;
     try {
-      contract = this.contract.unpack(VoteWitnessContract.class);
+      contract = unpack(VoteWitnessContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -161,7 +161,7 @@ public class VoteWitnessOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(VoteWitnessContract.class).getOwnerAddress();
+    return unpack(VoteWitnessContract.class).getOwnerAddress();
   }
 
   @Override
@@ -30,7 +30,7 @@ public class WithdrawBalanceOperator extends AbstractOperator {
     long fee = calcFee();
     final WithdrawBalanceContract withdrawBalanceContract;
     try {
-      withdrawBalanceContract = contract.unpack(WithdrawBalanceContract.class);
+      withdrawBalanceContract = unpack(WithdrawBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       ret.setStatus(fee, code.FAILED);
@@ -62,14 +62,14 @@ public class WithdrawBalanceOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(WithdrawBalanceContract.class)) {
+    if (!isContract(WithdrawBalanceContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [WithdrawBalanceContract],real type[" + contract
               .getClass() + "]");
     }
     final WithdrawBalanceContract withdrawBalanceContract;
     try {
-      withdrawBalanceContract = this.contract.unpack(WithdrawBalanceContract.class);
+      withdrawBalanceContract = unpack(WithdrawBalanceContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -125,7 +125,7 @@ public class WithdrawBalanceOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(WithdrawBalanceContract.class).getOwnerAddress();
+    return unpack(WithdrawBalanceContract.class).getOwnerAddress();
   }
 
   @Override
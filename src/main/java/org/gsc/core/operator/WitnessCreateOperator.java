@@ -28,8 +28,7 @@ public class WitnessCreateOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      final WitnessCreateContract witnessCreateContract = this.contract
-          .unpack(WitnessCreateContract.class);
+      final WitnessCreateContract witnessCreateContract = unpack(WitnessCreateContract.class);
       this.createWitness(witnessCreateContract);
       ret.setStatus(fee, code.SUCCESS);
     } catch (InvalidProtocolBufferException e) {
@@ -52,14 +51,14 @@ public class WitnessCreateOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(WitnessCreateContract.class)) {
+    if (!isContract(WitnessCreateContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [WitnessCreateContract],real type[" + contract
               .getClass() + "]");
     }
     final WitnessCreateContract contract;
     try {
-      contract = this.contract.unpack(WitnessCreateContract.class);
+      contract = unpack(WitnessCreateContract.class);
     } catch (InvalidProtocolBufferException e) {
       throw new ContractValidateException(e.getMessage());
     }
@@ -99,7 +98,7 @@ public class WitnessCreateOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(WitnessCreateContract.class).getOwnerAddress();
+    return unpack(WitnessCreateContract.class).getOwnerAddress();
   }
 
   @Override
@@ -32,8 +32,7 @@ public class WitnessUpdateOperator extends AbstractOperator {
   public boolean execute(TransactionResultWrapper ret) throws ContractExeException {
     long fee = calcFee();
     try {
-      final WitnessUpdateContract witnessUpdateContract = this.contract
-          .unpack(WitnessUpdateContract.class);
+      final WitnessUpdateContract witnessUpdateContract = unpack(WitnessUpdateContract.class);
       this.updateWitness(witnessUpdateContract);
       ret.setStatus(fee, code.SUCCESS);
     } catch (final InvalidProtocolBufferException e) {
@@ -52,14 +51,14 @@ public class WitnessUpdateOperator extends AbstractOperator {
     if (this.dbManager == null) {
       throw new ContractValidateException("No dbManager!");
     }
-    if (!this.contract.is(WitnessUpdateContract.class)) {
+    if (!isContract(WitnessUpdateContract.class)) {
       throw new ContractValidateException(
           "contract type error,expected type [WitnessUpdateContract],real type[" + contract
               .getClass() + "]");
     }
     final WitnessUpdateContract contract;
     try {
-      contract = this.contract.unpack(WitnessUpdateContract.class);
+      contract = unpack(WitnessUpdateContract.class);
     } catch (InvalidProtocolBufferException e) {
       logger.debug(e.getMessage(), e);
       throw new ContractValidateException(e.getMessage());
@@ -87,7 +86,7 @@ public class WitnessUpdateOperator extends AbstractOperator {
 
   @Override
   public ByteString getOwnerAddress() throws InvalidProtocolBufferException {
-    return contract.unpack(WitnessUpdateContract.class).getOwnerAddress();
+    return unpack(WitnessUpdateContract.class).getOwnerAddress();
   }
 
   @Override
@@ -67,10 +67,17 @@ public class WitnessController {
     return this.manager.getWitnessStore().get(address.toByteArray());
   }
 
+  /**
+   * Unmodifiable; pass a copy to {@link #setActiveWitnesses(List)} to change it.
+   */
   public List<ByteString> getActiveWitnesses() {
     return this.manager.getWitnessScheduleStore().getActiveWitnesses();
   }
 
+  public WitnessSchedule getActiveSchedule() {
+    return this.manager.getWitnessScheduleStore().getActiveSchedule();
+  }
+
   public void setActiveWitnesses(List<ByteString> addresses) {
     this.manager.getWitnessScheduleStore().saveActiveWitnesses(addresses);
   }
@@ -157,7 +164,7 @@ public class WitnessController {
   }
 
   public boolean activeWitnessesContain(final Set<ByteString> localWitnesses) {
-    List<ByteString> activeWitnesses = this.getActiveWitnesses();
+    WitnessSchedule activeWitnesses = this.getActiveSchedule();
     for (ByteString witnessAddress : localWitnesses) {
       if (activeWitnesses.contains(witnessAddress)) {
         return true;
@@ -177,20 +184,18 @@ public class WitnessController {
       throw new RuntimeException("currentSlot should be positive.");
     }
 
-    int numberActiveWitness = this.getActiveWitnesses().size();
+    WitnessSchedule schedule = this.getActiveSchedule();
     int singleRepeat = this.manager.getDynamicPropertiesStore().getSingleRepeat();
-    if (numberActiveWitness <= 0) {
+    if (schedule.size() <= 0) {
       throw new RuntimeException("Active Witnesses is null.");
     }
-    int witnessIndex = (int) currentSlot % (numberActiveWitness * singleRepeat);
-    witnessIndex /= singleRepeat;
-    logger.debug("currentSlot:" + currentSlot
-        + ", witnessIndex" + witnessIndex
-        + ", currentActiveWitnesses size:" + numberActiveWitness);
 
-    final ByteString scheduledWitness = this.getActiveWitnesses().get(witnessIndex);
-    logger.info("scheduledWitness:" + ByteArray.toHexString(scheduledWitness.toByteArray())
-        + ", currentSlot:" + currentSlot);
+    final ByteString scheduledWitness = schedule.getScheduledWitness(currentSlot, singleRepeat);
+    if (logger.isInfoEnabled()) {
+      logger.info("scheduledWitness:{}, currentSlot:{}, schedule version:{}",
+          ByteArray.toHexString(scheduledWitness.toByteArray()), currentSlot,
+          schedule.getVersion());
+    }
 
     return scheduledWitness;
   }
@@ -378,7 +383,7 @@ public class WitnessController {
 
   }
   public void addWitness(ByteString address) {
-    List<ByteString> l = getActiveWitnesses();
+    List<ByteString> l = new ArrayList<>(getActiveWitnesses());
     l.add(address);
     setActiveWitnesses(l);
   }
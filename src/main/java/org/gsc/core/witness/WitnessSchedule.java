@@ -0,0 +1,47 @@
+package org.gsc.core.witness;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.ByteString;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * Immutable list of witnesses read from the witness schedule store. A new schedule, with a
+ * new version, is built only when the stored list is saved or restored by a revoke.
+ */
+public final class WitnessSchedule {
+
+  private static final AtomicLong VERSIONS = new AtomicLong();
+
+  @Getter
+  private final long version = VERSIONS.incrementAndGet();
+
+  @Getter
+  private final List<ByteString> witnesses;
+
+  private final Set<ByteString> members;
+
+  public WitnessSchedule(List<ByteString> witnesses) {
+    this.witnesses = ImmutableList.copyOf(witnesses);
+    this.members = ImmutableSet.copyOf(witnesses);
+  }
+
+  public int size() {
+    return witnesses.size();
+  }
+
+  public boolean contains(ByteString address) {
+    return members.contains(address);
+  }
+
+  /**
+   * Witness producing {@code slot}, each witness producing {@code singleRepeat} slots in a row.
+   */
+  public ByteString getScheduledWitness(long slot, int singleRepeat) {
+    int witnessIndex = (int) slot % (witnesses.size() * singleRepeat);
+    return witnesses.get(witnessIndex / singleRepeat);
+  }
+}
@@ -26,6 +26,7 @@ import org.gsc.common.utils.ByteArray;
 import org.gsc.protos.Contract.AccountCreateContract;
 import org.gsc.protos.Contract.AccountUpdateContract;
 import org.gsc.protos.Protocol.Account;
+import org.gsc.protos.Protocol.AccountOrBuilder;
 import org.gsc.protos.Protocol.Account.Frozen;
 import org.gsc.protos.Protocol.AccountType;
 import org.gsc.protos.Protocol.Vote;
@@ -34,7 +35,9 @@ import org.gsc.protos.Protocol.Vote;
 public class AccountWrapper implements ProtoWrapper<Account>, Comparable<AccountWrapper> {
 
   private Account account;
-
+  // changes not yet built into account; setters edit it in place instead of copying the
+  // message, which is built once when it is asked for
+  private Account.Builder builder;
 
   @Override
   public int compareTo(AccountWrapper otherObject) {
@@ -135,20 +138,36 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
   }
 
   public byte[] getData() {
-    return this.account.toByteArray();
+    return getInstance().toByteArray();
   }
 
   @Override
   public Account getInstance() {
+    if (this.builder != null) {
+      this.account = this.builder.build();
+      this.builder = null;
+    }
     return this.account;
   }
 
   public void setInstance(Account account) {
     this.account = account;
+    this.builder = null;
+  }
+
+  private Account.Builder builder() {
+    if (this.builder == null) {
+      this.builder = this.account.toBuilder();
+    }
+    return this.builder;
+  }
+
+  private AccountOrBuilder current() {
+    return this.builder == null ? this.account : this.builder;
   }
 
   public ByteString getAddress() {
-    return this.account.getAddress();
+    return current().getAddress();
   }
 
   public byte[] createDbKey() {
@@ -160,53 +179,53 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
   }
 
   public AccountType getType() {
-    return this.account.getType();
+    return current().getType();
   }
 
   public ByteString getAccountName() {
-    return this.account.getAccountName();
+    return current().getAccountName();
   }
 
   public long getBalance() {
-    return this.account.getBalance();
+    return current().getBalance();
   }
 
   public long getLatestOperationTime() {
-    return this.account.getLatestOprationTime();
+    return current().getLatestOprationTime();
   }
 
   public void setLatestOperationTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestOprationTime(latest_time).build();
+    builder().setLatestOprationTime(latest_time);
   }
 
   public long getLatestConsumeTime() {
-    return this.account.getLatestConsumeTime();
+    return current().getLatestConsumeTime();
   }
 
   public void setLatestConsumeTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestConsumeTime(latest_time).build();
+    builder().setLatestConsumeTime(latest_time);
   }
 
   public long getLatestConsumeFreeTime() {
-    return this.account.getLatestConsumeFreeTime();
+    return current().getLatestConsumeFreeTime();
   }
 
   public void setLatestConsumeFreeTime(long latest_time) {
-    this.account = this.account.toBuilder().setLatestConsumeFreeTime(latest_time).build();
+    builder().setLatestConsumeFreeTime(latest_time);
   }
 
   public void setBalance(long balance) {
-    this.account = this.account.toBuilder().setBalance(balance).build();
+    builder().setBalance(balance);
   }
 
   public void setAllowance(long allowance) {
-    this.account = this.account.toBuilder().setAllowance(allowance).build();
+    builder().setAllowance(allowance);
   }
 
 
   @Override
   public String toString() {
-    return this.account.toString();
+    return getInstance().toString();
   }
 
 
@@ -214,23 +233,19 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * set votes.
    */
   public void addVotes(ByteString voteAddress, long voteAdd) {
-    this.account = this.account.toBuilder()
-        .addVotes(Vote.newBuilder().setVoteAddress(voteAddress).setVoteCount(voteAdd).build())
-        .build();
+    builder().addVotes(Vote.newBuilder().setVoteAddress(voteAddress).setVoteCount(voteAdd).build());
   }
 
   public void clearVotes() {
-    this.account = this.account.toBuilder()
-        .clearVotes()
-        .build();
+    builder().clearVotes();
   }
 
   /**
    * get votes.
    */
   public List<Vote> getVotesList() {
-    if (this.account.getVotesList() != null) {
-      return this.account.getVotesList();
+    if (getInstance().getVotesList() != null) {
+      return getInstance().getVotesList();
     } else {
       return Lists.newArrayList();
     }
@@ -240,8 +255,8 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
   public long getGscPower() {
     long tp = 0;
     //long now = Time.getCurrentMillis();
-    for (int i = 0; i < account.getFrozenCount(); ++i) {
-      tp += account.getFrozen(i).getFrozenBalance();
+    for (int i = 0; i < current().getFrozenCount(); ++i) {
+      tp += current().getFrozen(i).getFrozenBalance();
     }
     return tp;
   }
@@ -250,7 +265,7 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * asset balance enough
    */
   public boolean assetBalanceEnough(ByteString name, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(name.toByteArray());
     Long currentAmount = assetMap.get(nameKey);
 
@@ -265,12 +280,12 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * reduce asset amount.
    */
   public boolean reduceAssetAmount(ByteString name, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(name.toByteArray());
     Long currentAmount = assetMap.get(nameKey);
     if (amount > 0 && null != currentAmount && amount <= currentAmount) {
-      this.account = this.account.toBuilder()
-          .putAsset(nameKey, Math.subtractExact(currentAmount, amount)).build();
+      builder()
+          .putAsset(nameKey, Math.subtractExact(currentAmount, amount));
       return true;
     }
 
@@ -281,14 +296,13 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * add asset amount.
    */
   public boolean addAssetAmount(ByteString name, long amount) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     String nameKey = ByteArray.toStr(name.toByteArray());
     Long currentAmount = assetMap.get(nameKey);
     if (currentAmount == null) {
       currentAmount = 0L;
     }
-    this.account = this.account.toBuilder().putAsset(nameKey, Math.addExact(currentAmount, amount))
-        .build();
+    builder().putAsset(nameKey, Math.addExact(currentAmount, amount));
     return true;
   }
 
@@ -296,21 +310,21 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * set account name
    */
   public void setAccountName(byte[] name) {
-    this.account = this.account.toBuilder().setAccountName(ByteString.copyFrom(name)).build();
+    builder().setAccountName(ByteString.copyFrom(name));
   }
 
   /**
    * add asset.
    */
   public boolean addAsset(String key, Long value) {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = current().getAssetMap();
     if (!assetMap.isEmpty()) {
       if (assetMap.containsKey(key)) {
         return false;
       }
     }
 
-    this.account = this.account.toBuilder().putAsset(key, value).build();
+    builder().putAsset(key, value);
 
     return true;
   }
@@ -319,7 +333,7 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
    * add asset.
    */
   public Map<String, Long> getAssetMap() {
-    Map<String, Long> assetMap = this.account.getAssetMap();
+    Map<String, Long> assetMap = getInstance().getAssetMap();
     if (assetMap.isEmpty()) {
       assetMap = Maps.newHashMap();
     }
@@ -329,16 +343,16 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
 
 
   public long getLatestAssetOperationTime(String assetName) {
-    return this.account.getLatestAssetOperationTimeOrDefault(assetName, 0);
+    return current().getLatestAssetOperationTimeOrDefault(assetName, 0);
   }
 
   public void putLatestAssetOperationTimeMap(String key, Long value) {
-    this.account = this.account.toBuilder().putLatestAssetOperationTime(key, value).build();
+    builder().putLatestAssetOperationTime(key, value);
   }
 
 
   public int getFrozenCount() {
-    return getInstance().getFrozenCount();
+    return current().getFrozenCount();
   }
 
   public List<Frozen> getFrozenList() {
@@ -354,7 +368,7 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
   }
 
   public int getFrozenSupplyCount() {
-    return getInstance().getFrozenSupplyCount();
+    return current().getFrozenSupplyCount();
   }
 
   public List<Frozen> getFrozenSupplyList() {
@@ -370,35 +384,35 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
   }
 
   public ByteString getAssetIssuedName() {
-    return getInstance().getAssetIssuedName();
+    return current().getAssetIssuedName();
   }
 
   public void setAssetIssuedName(ByteString assetIssuedName) {
-    this.account = this.account.toBuilder().setAssetIssuedName(assetIssuedName).build();
+    builder().setAssetIssuedName(assetIssuedName);
   }
 
   public long getAllowance() {
-    return getInstance().getAllowance();
+    return current().getAllowance();
   }
 
   public long getLatestWithdrawTime() {
-    return getInstance().getLatestWithdrawTime();
+    return current().getLatestWithdrawTime();
   }
 
   public boolean getIsWitness() {
-    return getInstance().getIsWitness();
+    return current().getIsWitness();
   }
 
   public void setIsWitness(boolean isWitness) {
-    this.account = this.account.toBuilder().setIsWitness(isWitness).build();
+    builder().setIsWitness(isWitness);
   }
 
   public boolean getIsCommittee() {
-    return getInstance().getIsCommittee();
+    return current().getIsCommittee();
   }
 
   public void setIsCommittee(boolean isCommittee) {
-    this.account = this.account.toBuilder().setIsCommittee(isCommittee).build();
+    builder().setIsCommittee(isCommittee);
   }
 
   //for test only
@@ -408,47 +422,43 @@ public class AccountWrapper implements ProtoWrapper<Account>, Comparable<Account
         .setExpireTime(expireTime)
         .build();
 
-    this.account = this.account.toBuilder()
-        .addFrozen(newFrozen)
-        .build();
+    builder().addFrozen(newFrozen);
   }
 
   //for test only
   public void setLatestWithdrawTime(long latestWithdrawTime) {
-    this.account = this.account.toBuilder()
-        .setLatestWithdrawTime(latestWithdrawTime)
-        .build();
+    builder().setLatestWithdrawTime(latestWithdrawTime);
   }
 
   public long getNetUsage() {
-    return this.account.getNetUsage();
+    return current().getNetUsage();
   }
 
   public void setNetUsage(long netUsage) {
-    this.account = this.account.toBuilder()
-        .setNetUsage(netUsage).build();
+    builder()
+        .setNetUsage(netUsage);
   }
 
   public long getFreeNetUsage() {
-    return this.account.getFreeNetUsage();
+    return current().getFreeNetUsage();
   }
 
   public void setFreeNetUsage(long freeNetUsage) {
-    this.account = this.account.toBuilder()
-        .setFreeNetUsage(freeNetUsage).build();
+    builder()
+        .setFreeNetUsage(freeNetUsage);
   }
 
   public long getFreeAssetNetUsage(String assetName) {
-    return this.account.getFreeAssetNetUsageOrDefault(assetName, 0);
+    return current().getFreeAssetNetUsageOrDefault(assetName, 0);
   }
 
   public Map<String, Long> getAllFreeAssetNetUsage() {
-    return this.account.getFreeAssetNetUsageMap();
+    return getInstance().getFreeAssetNetUsageMap();
   }
 
   public void putFreeAssetNetUsage(String s, long freeAssetNetUsage) {
-    this.account = this.account.toBuilder()
-        .putFreeAssetNetUsage(s, freeAssetNetUsage).build();
+    builder()
+        .putFreeAssetNetUsage(s, freeAssetNetUsage);
   }
 
 }
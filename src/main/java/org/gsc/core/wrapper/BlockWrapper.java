@@ -17,12 +17,12 @@ package org.gsc.core.wrapper;
 
 import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Vector;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
@@ -118,7 +118,12 @@ public class BlockWrapper implements ProtoWrapper<Block> {
   private BlockId blockId = new BlockId(Sha256Hash.ZERO_HASH, 0);
 
   private Block block;
+  // transactions added since the block was last built, see addTransaction
+  private Block.Builder assembly;
+  private long assemblySize;
   public boolean generatedByMyself = false;
+  // the witness signature, merkle root and transaction signatures were checked ahead of push
+  private volatile boolean verified;
   private List<TransactionWrapper> transactions = new ArrayList<>();
 
   public BlockWrapper(long number, Sha256Hash hash, long when, ByteString witnessAddress) {
@@ -176,11 +181,35 @@ public class BlockWrapper implements ProtoWrapper<Block> {
     }
   }
 
+  /**
+   * Append a transaction. Transactions are collected in a builder and the block is built once,
+   * when it is next read or changed, instead of being copied for every transaction.
+   */
   public void addTransaction(TransactionWrapper pendingGsc) {
-    this.block = this.block.toBuilder().addTransactions(pendingGsc.getInstance()).build();
+    if (assembly == null) {
+      assembly = this.block.toBuilder();
+      assemblySize = this.block.getSerializedSize();
+    }
+    assembly.addTransactions(pendingGsc.getInstance());
+    assemblySize += CodedOutputStream
+        .computeMessageSize(Block.TRANSACTIONS_FIELD_NUMBER, pendingGsc.getInstance());
     getTransactions().add(pendingGsc);
   }
 
+  /**
+   * Serialized size of the block, counted without building it while transactions are added.
+   */
+  public long getSerializedSize() {
+    return assembly == null ? this.block.getSerializedSize() : assemblySize;
+  }
+
+  private void buildAssembly() {
+    if (assembly != null) {
+      this.block = assembly.build();
+      assembly = null;
+    }
+  }
+
   public List<TransactionWrapper> getTransactions() {
     return transactions;
   }
@@ -193,6 +222,7 @@ public class BlockWrapper implements ProtoWrapper<Block> {
 
   public void sign(byte[] privateKey) {
     // TODO private_key == null
+    buildAssembly();
     ECKey ecKey = ECKey.fromPrivate(privateKey);
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
@@ -211,14 +241,21 @@ public class BlockWrapper implements ProtoWrapper<Block> {
     try {
       return Arrays
           .equals(ECKey.signatureToAddress(getRawHash().getBytes(),
-              TransactionWrapper
-                  .getBase64FromByteString(block.getBlockHeader().getWitnessSignature())),
+              block.getBlockHeader().getWitnessSignature().toByteArray()),
               block.getBlockHeader().getRawData().getWitnessAddress().toByteArray());
     } catch (SignatureException e) {
       throw new ValidateSignatureException(e.getMessage());
     }
   }
 
+  public boolean isVerified() {
+    return verified;
+  }
+
+  public void setVerified(boolean verified) {
+    this.verified = verified;
+  }
+
   public BlockId getBlockId() {
     if (blockId.equals(Sha256Hash.ZERO_HASH)) {
       blockId = new BlockId(Sha256Hash.of(this.block.getBlockHeader().getRawData().toByteArray()), getNum());
@@ -227,21 +264,21 @@ public class BlockWrapper implements ProtoWrapper<Block> {
   }
 
   public Sha256Hash calcMerkleRoot() {
-    List<Transaction> transactionsList = this.block.getTransactionsList();
-
-    if (CollectionUtils.isEmpty(transactionsList)) {
+    if (CollectionUtils.isEmpty(transactions)) {
       return Sha256Hash.ZERO_HASH;
     }
 
-    Vector<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionWrapper::new)
+    // leaf hashes are kept on the transactions, so a block is hashed once however often it is
+    // checked
+    List<Sha256Hash> ids = transactions.parallelStream()
         .map(TransactionWrapper::getMerkleHash)
-        .collect(Collectors.toCollection(Vector::new));
+        .collect(Collectors.toList());
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+    return MerkleTree.calcRoot(ids);
   }
 
   public void setMerkleRoot() {
+    buildAssembly();
     BlockHeader.raw blockHeaderRaw =
         this.block.getBlockHeader().getRawData().toBuilder()
             .setTxTrieRoot(calcMerkleRoot().getByteString()).build();
@@ -251,6 +288,7 @@ public class BlockWrapper implements ProtoWrapper<Block> {
   }
   /* only for genisis */
   public void  setWitness(String witness) {
+    buildAssembly();
     BlockHeader.raw blockHeaderRaw =
         this.block.getBlockHeader().getRawData().toBuilder().setWitnessAddress(
             ByteString.copyFrom(witness.getBytes())).build();
@@ -269,11 +307,13 @@ public class BlockWrapper implements ProtoWrapper<Block> {
 
   @Override
   public byte[] getData() {
+    buildAssembly();
     return this.block.toByteArray();
   }
 
   @Override
   public Block getInstance() {
+    buildAssembly();
     return this.block;
   }
 
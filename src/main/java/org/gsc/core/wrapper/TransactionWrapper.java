@@ -25,9 +25,12 @@ import static org.gsc.protos.Contract.WitnessUpdateContract;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
 import java.security.SignatureException;
 import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +41,7 @@ import org.gsc.common.utils.Sha256Hash;
 import org.gsc.core.exception.BadItemException;
 import org.gsc.core.exception.ValidateSignatureException;
 import org.gsc.core.Wallet;
+import org.gsc.core.wrapper.utils.SignatureCache;
 import org.gsc.db.AccountStore;
 import org.gsc.protos.Contract.AccountCreateContract;
 import org.gsc.protos.Contract.AccountUpdateContract;
@@ -55,9 +59,38 @@ import org.gsc.protos.Protocol.Transaction.Contract.ContractType;
 @Slf4j
 public class TransactionWrapper implements ProtoWrapper<Transaction> {
 
+  private static final Map<ContractType, Class<? extends Message>> CONTRACT_CLASSES =
+      new EnumMap<>(ContractType.class);
+
+  static {
+    CONTRACT_CLASSES.put(ContractType.AccountCreateContract, AccountCreateContract.class);
+    CONTRACT_CLASSES.put(ContractType.TransferContract, TransferContract.class);
+    CONTRACT_CLASSES.put(ContractType.TransferAssetContract, TransferAssetContract.class);
+    CONTRACT_CLASSES.put(ContractType.VoteAssetContract, VoteAssetContract.class);
+    CONTRACT_CLASSES.put(ContractType.VoteWitnessContract, VoteWitnessContract.class);
+    CONTRACT_CLASSES.put(ContractType.WitnessCreateContract, WitnessCreateContract.class);
+    CONTRACT_CLASSES.put(ContractType.AssetIssueContract, AssetIssueContract.class);
+    CONTRACT_CLASSES.put(ContractType.DeployContract, DeployContract.class);
+    CONTRACT_CLASSES.put(ContractType.WitnessUpdateContract, WitnessUpdateContract.class);
+    CONTRACT_CLASSES.put(ContractType.ParticipateAssetIssueContract,
+        ParticipateAssetIssueContract.class);
+    CONTRACT_CLASSES.put(ContractType.AccountUpdateContract, AccountUpdateContract.class);
+    CONTRACT_CLASSES.put(ContractType.FreezeBalanceContract, FreezeBalanceContract.class);
+    CONTRACT_CLASSES.put(ContractType.UnfreezeBalanceContract, UnfreezeBalanceContract.class);
+    CONTRACT_CLASSES.put(ContractType.UnfreezeAssetContract, UnfreezeAssetContract.class);
+    CONTRACT_CLASSES.put(ContractType.WithdrawBalanceContract, WithdrawBalanceContract.class);
+    CONTRACT_CLASSES.put(ContractType.UpdateAssetContract, UpdateAssetContract.class);
+  }
+
   private Transaction transaction;
   @Setter
   private boolean isVerified = false;
+  // derived from the transaction and cleared whenever it changes, see clearCache
+  private Sha256Hash transactionId;
+  private byte[] rawBytes;
+  private byte[] data;
+  private Sha256Hash merkleHash;
+  private Message[] contracts;
   /**
    * constructor TransactionWrapper.
    */
@@ -71,6 +104,7 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
   public TransactionWrapper(byte[] data) throws BadItemException {
     try {
       this.transaction = Transaction.parseFrom(data);
+      this.data = data;
     } catch (InvalidProtocolBufferException e) {
       throw new BadItemException("Transaction proto data parse exception");
     }
@@ -135,6 +169,7 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
 
   public void resetResult() {
     this.transaction = this.getInstance().toBuilder().clearRet().build();
+    clearCache();
   }
 
   public void setResult(TransactionResultWrapper transactionResultWrapper) {
@@ -148,6 +183,7 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
         .setRefBlockBytes(ByteString.copyFrom(ByteArray.subArray(refBlockNum, 6, 8)))
         .build();
     this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    clearCache();
   }
 
   /**
@@ -157,6 +193,7 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder().setExpiration(expiration)
         .build();
     this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    clearCache();
   }
 
   public long getExpiration() {
@@ -181,15 +218,59 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
     transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    clearCache();
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(transBytes);
+    if (merkleHash == null) {
+      // from the standard encoding, as every node gets it re-parsing the block, and not from
+      // bytes a peer sent, which the signature does not cover
+      merkleHash = Sha256Hash.of(transaction.toByteArray());
+    }
+    return merkleHash;
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(this.transaction.getRawData().toByteArray());
+    if (transactionId == null) {
+      transactionId = Sha256Hash.of(getRawBytes());
+    }
+    return transactionId;
+  }
+
+  public byte[] getRawBytes() {
+    if (rawBytes == null) {
+      rawBytes = this.transaction.getRawData().toByteArray();
+    }
+    return rawBytes;
+  }
+
+  private void clearCache() {
+    transactionId = null;
+    rawBytes = null;
+    data = null;
+    merkleHash = null;
+    contracts = null;
+  }
+
+  /**
+   * The contract at {@code index} decoded to its type, once for the transaction, so the
+   * operators and the bandwidth accounting share it; null for a type not known here.
+   */
+  public Message getContract(int index) throws InvalidProtocolBufferException {
+    Message[] decoded = contracts;
+    if (decoded == null) {
+      decoded = new Message[transaction.getRawData().getContractCount()];
+      contracts = decoded;
+    }
+    if (decoded[index] == null) {
+      Transaction.Contract contract = transaction.getRawData().getContract(index);
+      Class<? extends Message> clazz = CONTRACT_CLASSES.get(contract.getType());
+      if (clazz == null) {
+        return null;
+      }
+      decoded[index] = contract.getParameter().unpack(clazz);
+    }
+    return decoded[index];
   }
 
   /**
@@ -224,6 +305,7 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
     this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    clearCache();
   }
 
   // todo mv this static function to capsule util
@@ -344,12 +426,12 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
     }
 
     List<Transaction.Contract> listContract = this.transaction.getRawData().getContractList();
+    Sha256Hash id = getRawHash();
     for (int i = 0; i < this.transaction.getSignatureCount(); ++i) {
       try {
         Transaction.Contract contract = listContract.get(i);
         byte[] owner = getOwner(contract);
-        byte[] address = ECKey.signatureToAddress(getRawHash().getBytes(),
-            getBase64FromByteString(this.transaction.getSignature(i)));
+        byte[] address = SignatureCache.signatureToAddress(id, this.transaction.getSignature(i));
         if (!Arrays.equals(owner, address)) {
           isVerified = false;
           throw new ValidateSignatureException("sig error");
@@ -364,13 +446,28 @@ public class TransactionWrapper implements ProtoWrapper<Transaction> {
     return true;
   }
 
+  /**
+   * Whether validating the signatures needs no key recovery.
+   */
+  public boolean isSignatureCached() {
+    if (isVerified) {
+      return true;
+    }
+    Sha256Hash id = getRawHash();
+    return this.transaction.getSignatureList().stream()
+        .allMatch(sig -> SignatureCache.contains(id, sig));
+  }
+
   public Sha256Hash getTransactionId() {
     return getRawHash();
   }
 
   @Override
   public byte[] getData() {
-    return this.transaction.toByteArray();
+    if (data == null) {
+      data = this.transaction.toByteArray();
+    }
+    return data;
   }
 
   public long getSerializedSize() {
@@ -1,6 +1,7 @@
 package org.gsc.core.wrapper.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -9,6 +10,10 @@ import org.gsc.common.utils.Sha256Hash;
 
 @Getter
 public class MerkleTree {
+    private static final int LENGTH = Sha256Hash.LENGTH;
+    // levels with fewer parents than this are hashed on the calling thread
+    private static final int PARALLEL_THRESHOLD = 256;
+
     private static volatile MerkleTree instance;
     private List<Sha256Hash> hashList;
     private List<Leaf> leaves;
@@ -25,17 +30,62 @@ public class MerkleTree {
         return instance;
     }
 
+    /**
+     * Build the tree over {@code hashList} in a new instance, so trees built by concurrent
+     * callers of the shared instance stay apart.
+     */
     public MerkleTree createTree(List<Sha256Hash> hashList) {
-        this.leaves = new ArrayList<>();
-        this.hashList = hashList;
-        List<Leaf> leaves = createLeaves(hashList);
+        MerkleTree tree = new MerkleTree();
+        tree.leaves = new ArrayList<>();
+        tree.hashList = hashList;
+        List<Leaf> leaves = tree.createLeaves(hashList);
 
         while (leaves.size() > 1) {
-            leaves = createParentLeaves(leaves);
+            leaves = tree.createParentLeaves(leaves);
+        }
+
+        tree.root = leaves.get(0);
+        return tree;
+    }
+
+    /**
+     * Root hash of the tree {@link #createTree} builds over {@code hashList}, or the zero hash
+     * for no hashes. Each level is kept in one flat array and large levels are hashed in
+     * parallel; no tree is built and nothing is shared between callers.
+     */
+    public static Sha256Hash calcRoot(List<Sha256Hash> hashList) {
+        int count = hashList.size();
+        if (count == 0) {
+            return Sha256Hash.ZERO_HASH;
         }
+        byte[] level = new byte[count * LENGTH];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(hashList.get(i).getBytes(), 0, level, i * LENGTH, LENGTH);
+        }
+        while (count > 1) {
+            level = parentLevel(level, count);
+            count = (count + 1) / 2;
+        }
+        return Sha256Hash.wrap(Arrays.copyOf(level, LENGTH));
+    }
 
-        this.root = leaves.get(0);
-        return this;
+    private static byte[] parentLevel(byte[] level, int count) {
+        int parents = (count + 1) / 2;
+        byte[] next = new byte[parents * LENGTH];
+        IntStream range = IntStream.range(0, parents);
+        if (parents >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(i -> {
+            int left = 2 * i * LENGTH;
+            if (2 * i + 1 < count) {
+                byte[] hash = Sha256Hash.hash(level, left, LENGTH, level, left + LENGTH, LENGTH);
+                System.arraycopy(hash, 0, next, i * LENGTH, LENGTH);
+            } else {
+                System.arraycopy(level, left, next, i * LENGTH, LENGTH);
+            }
+        });
+        return next;
     }
 
     private List<Leaf> createParentLeaves(List<Leaf> leaves) {
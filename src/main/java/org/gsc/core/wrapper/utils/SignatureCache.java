@@ -0,0 +1,47 @@
+package org.gsc.core.wrapper.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.protobuf.ByteString;
+import java.security.SignatureException;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.crypto.ECKey;
+
+/**
+ * Addresses recovered from transaction signatures, keyed by transaction id and signature, so a
+ * transaction wrapped again, as when its block arrives or it is pushed back after a fork
+ * switch, is not recovered again. Only successful recoveries are kept.
+ */
+public class SignatureCache {
+
+  private static final long MAX_SIZE = 100_000;
+
+  private static final Cache<ByteString, byte[]> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAX_SIZE).recordStats().build();
+
+  private SignatureCache() {
+  }
+
+  /**
+   * Address of the key that made {@code signature} over the transaction {@code id}.
+   */
+  public static byte[] signatureToAddress(Sha256Hash id, ByteString signature)
+      throws SignatureException {
+    ByteString key = id.getByteString().concat(signature);
+    byte[] address = cache.getIfPresent(key);
+    if (address == null) {
+      address = ECKey.signatureToAddress(id.getBytes(), signature.toByteArray());
+      cache.put(key, address);
+    }
+    return address;
+  }
+
+  public static boolean contains(Sha256Hash id, ByteString signature) {
+    return cache.getIfPresent(id.getByteString().concat(signature)) != null;
+  }
+
+  public static CacheStats getStats() {
+    return cache.stats();
+  }
+}
@@ -54,6 +54,7 @@ import org.spongycastle.asn1.x9.X9ECParameters;
 import org.spongycastle.asn1.x9.X9IntegerConverter;
 import org.spongycastle.crypto.agreement.ECDHBasicAgreement;
 import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.ec.CustomNamedCurves;
 import org.spongycastle.crypto.engines.AESFastEngine;
 import org.spongycastle.crypto.modes.SICBlockCipher;
 import org.spongycastle.crypto.params.ECDomainParameters;
@@ -84,6 +85,9 @@ public class ECKey implements Serializable {
    */
   public static final ECDomainParameters CURVE;
   public static final ECParameterSpec CURVE_SPEC;
+  // secp256k1 with its dedicated field arithmetic and GLV endomorphism, for key recovery; the
+  // window table of its generator is computed on first use and kept on the point
+  private static final X9ECParameters RECOVERY_CURVE = CustomNamedCurves.getByName("secp256k1");
 
   /**
    * Equal to CURVE.getN().shiftRight(1), used for canonicalising the S value of a signature. ECDSA
@@ -471,6 +475,54 @@ public class ECKey implements Serializable {
         signatureBase64));
   }
 
+  /**
+   * Compute the public key that signed the given signature.
+   *
+   * @param messageHash 32-byte hash of message
+   * @param rsv 65-byte signature: r, s and the recovery byte
+   * @return 65-byte encoded public key
+   */
+  public static byte[] signatureToKeyBytes(byte[] messageHash, byte[] rsv)
+      throws SignatureException {
+    check(messageHash.length == 32, "messageHash argument has length " +
+        messageHash.length);
+    if (rsv.length < 65) {
+      throw new SignatureException("Signature truncated, expected 65 " +
+          "bytes and got " + rsv.length);
+    }
+    byte header = rsv[64];
+    if (header < 27) {
+      header += 27; //revId -> v
+    }
+    if (header < 27 || header > 34) {
+      throw new SignatureException("Header byte out of range: " + header);
+    }
+    if (header >= 31) {
+      header -= 4;
+    }
+    byte[] key = recoverPubBytes(header - 27,
+        new BigInteger(1, Arrays.copyOfRange(rsv, 0, 32)),
+        new BigInteger(1, Arrays.copyOfRange(rsv, 32, 64)),
+        messageHash);
+    if (key == null) {
+      throw new SignatureException("Could not recover public key from " +
+          "signature");
+    }
+    return key;
+  }
+
+  /**
+   * Compute the address of the key that signed the given signature.
+   *
+   * @param messageHash 32-byte hash of message
+   * @param rsv 65-byte signature: r, s and the recovery byte
+   * @return 20-byte address
+   */
+  public static byte[] signatureToAddress(byte[] messageHash, byte[] rsv)
+      throws SignatureException {
+    return computeAddress(signatureToKeyBytes(messageHash, rsv));
+  }
+
   /**
    * Compute the address of the key that signed the given signature.
    *
@@ -663,6 +715,38 @@ public class ECKey implements Serializable {
     return q.getEncoded(/* compressed */ false);
   }
 
+  /**
+   * Same recovery as {@link #recoverPubBytesFromSignature} on {@link #RECOVERY_CURVE}. The curve
+   * has cofactor 1, so every point decoded on it has order n and the nR check is left out.
+   *
+   * @return 65-byte encoded public key, or null when no key matches
+   */
+  @Nullable
+  private static byte[] recoverPubBytes(int recId, BigInteger r, BigInteger s,
+      byte[] messageHash) {
+    BigInteger n = RECOVERY_CURVE.getN();
+    ECCurve curve = RECOVERY_CURVE.getCurve();
+    BigInteger x = r.add(BigInteger.valueOf(recId / 2).multiply(n));
+    if (r.signum() == 0 || x.compareTo(curve.getField().getCharacteristic()) >= 0) {
+      return null;
+    }
+    byte[] compEnc = BigIntegers.asUnsignedByteArray(33, x);
+    compEnc[0] = (byte) ((recId & 1) == 1 ? 0x03 : 0x02);
+    ECPoint R;
+    try {
+      R = curve.decodePoint(compEnc);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    BigInteger e = new BigInteger(1, messageHash);
+    BigInteger eInv = BigInteger.ZERO.subtract(e).mod(n);
+    BigInteger rInv = r.modInverse(n);
+    BigInteger srInv = rInv.multiply(s).mod(n);
+    BigInteger eInvrInv = rInv.multiply(eInv).mod(n);
+    ECPoint q = ECAlgorithms.sumOfTwoMultiplies(RECOVERY_CURVE.getG(), eInvrInv, R, srInv);
+    return q.getEncoded(/* compressed */ false);
+  }
+
   /**
    * @param recId Which possible key to recover.
    * @param sig the R and S components of the signature, wrapped.
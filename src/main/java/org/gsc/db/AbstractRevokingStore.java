@@ -1,5 +1,6 @@
 package org.gsc.db;
 
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,6 +15,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.gsc.common.storage.BatchSourceInter;
+import org.gsc.common.storage.DbSourceInter;
 import org.gsc.common.storage.SourceInter;
 import org.gsc.common.utils.Utils;
 import org.gsc.core.exception.RevokingStoreIllegalStateException;
@@ -30,6 +33,12 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
   private int activeDialog = 0;
   private AtomicInteger maxSize = new AtomicInteger(DEFAULT_STACK_MAX_SIZE);
   private WriteOptions writeOptions = new WriteOptions().sync(true);
+  private List<DbSourceInter<byte[]>> dbs = new ArrayList<>();
+
+  @Override
+  public synchronized void add(DbSourceInter<byte[]> database) {
+    dbs.add(database);
+  }
 
   @Override
   public Dialog buildDialog() {
@@ -52,7 +61,9 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     }
 
     stack.add(new RevokingState());
-    ++activeDialog;
+    if (activeDialog++ == 0) {
+      dbs.forEach(BatchSourceInter::startBatch);
+    }
     return new Dialog(this, disableOnExit);
   }
 
@@ -117,6 +128,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     if (activeDialog == 1 && stack.size() == 1) {
       stack.pollLast();
       --activeDialog;
+      flushIfIdle();
       return;
     }
 
@@ -158,6 +170,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
 
     stack.pollLast();
     --activeDialog;
+    flushIfIdle();
   }
 
   @Override
@@ -186,6 +199,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
       disabled = false;
     }
     --activeDialog;
+    flushIfIdle();
   }
 
   @Override
@@ -195,6 +209,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     }
 
     --activeDialog;
+    flushIfIdle();
   }
 
   @Override
@@ -208,14 +223,17 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     }
 
     disabled = true;
+    dbs.forEach(BatchSourceInter::startBatch);
 
     try {
       RevokingState state = stack.peekLast();
-      state.oldValues.forEach((k, v) -> k.database.putData(k.key, v, writeOptions));
-      state.newIds.forEach(e -> e.database.deleteData(e.key, writeOptions));
-      state.removed.forEach((k, v) -> k.database.putData(k.key, v, writeOptions));
+      state.oldValues.forEach((k, v) -> k.database.putData(k.key, v));
+      state.newIds.forEach(e -> e.database.deleteData(e.key));
+      state.removed.forEach((k, v) -> k.database.putData(k.key, v));
       stack.pollLast();
     } finally {
+      // undoing a block is synced to disk, as when each row was written on its own
+      dbs.forEach(db -> db.flush(writeOptions));
       disabled = false;
     }
   }
@@ -239,6 +257,15 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     disabled = true;
   }
 
+  /**
+   * Once the outermost dialog is closed, write each store's buffered mutations in one batch.
+   */
+  private void flushIfIdle() {
+    if (activeDialog == 0) {
+      dbs.forEach(BatchSourceInter::flush);
+    }
+  }
+
   private void addIfEmpty() {
     if (stack.isEmpty()) {
       stack.add(new RevokingState());
@@ -250,6 +277,7 @@ public abstract class AbstractRevokingStore implements RevokingDatabase {
     return stack.size();
   }
 
+  @Override
   public void setMaxSize(int maxSize) {
     this.maxSize.set(maxSize);
   }
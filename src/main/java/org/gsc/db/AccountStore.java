@@ -1,5 +1,6 @@
 package org.gsc.db;
 
+import com.google.common.cache.CacheStats;
 import com.typesafe.config.ConfigObject;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -8,29 +9,63 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 import org.gsc.core.wrapper.AccountWrapper;
+import org.gsc.db.common.DecodedCache;
+import org.gsc.db.common.WriteBackBuffer;
 import org.gsc.db.common.iterator.AccountIterator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.gsc.core.Wallet;
+import org.gsc.protos.Protocol.Account;
 
 @Slf4j
 @Component
 public class AccountStore extends GscStoreWithRevoking<AccountWrapper> {
 
+  private static final long CACHE_SIZE = 100_000L;
+
   private static Map<String, byte[]> assertsAddress = new HashMap<>(); // key = name , value = address
 
+  private DecodedCache<Account> cache;
+  private WriteBackBuffer<Account> writeBack = new WriteBackBuffer<>();
+
   @Autowired
   private AccountStore(@Value("account") String dbName) {
     super(dbName);
+    cache = new DecodedCache<>(dbSource, CACHE_SIZE, data -> new AccountWrapper(data).getInstance());
   }
 
   @Override
   public AccountWrapper get(byte[] key) {
-    byte[] value = dbSource.getData(key);
-    return ArrayUtils.isEmpty(value) ? null : new AccountWrapper(value);
+    Account account = writeBack.get(key);
+    if (account == null) {
+      account = cache.get(key);
+    }
+    return account == null ? null : new AccountWrapper(account);
+  }
+
+  /**
+   * Hold the accounts put from now on until {@link #flushWriteBack()}, so an account touched
+   * by several transactions of a block is written once.
+   */
+  public void openWriteBack() {
+    writeBack.open();
+  }
+
+  public void flushWriteBack() {
+    writeBack.flush((key, account) -> put(key, new AccountWrapper(account)));
+  }
+
+  public void discardWriteBack() {
+    writeBack.discard();
+  }
+
+  /**
+   * hit, miss and eviction counts of the decoded account cache.
+   */
+  public CacheStats getCacheStats() {
+    return cache.getStats();
   }
 
   /**
@@ -40,13 +75,23 @@ public class AccountStore extends GscStoreWithRevoking<AccountWrapper> {
    */
   @Override
   public boolean has(byte[] key) {
+    if (writeBack.get(key) != null) {
+      return true;
+    }
     byte[] account = dbSource.getData(key);
     return null != account;
   }
 
   @Override
   public void put(byte[] key, AccountWrapper item) {
+    if (Objects.nonNull(key) && Objects.nonNull(item)
+        && writeBack.put(key, item.getInstance())) {
+      return;
+    }
     super.put(key, item);
+    if (Objects.nonNull(key) && Objects.nonNull(item)) {
+      cache.put(key, item.getInstance());
+    }
     if (Objects.nonNull(indexHelper)) {
       indexHelper.update(item.getInstance());
     }
@@ -78,6 +123,7 @@ public class AccountStore extends GscStoreWithRevoking<AccountWrapper> {
   @Override
   public void delete(byte[] key) {
     deleteIndex(key);
+    writeBack.remove(key);
     super.delete(key);
   }
 
@@ -9,7 +9,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.gsc.core.wrapper.AssetIssueWrapper;
 import org.gsc.config.Parameter.DatabaseConstants;
+import org.gsc.db.common.WriteBackBuffer;
 import org.gsc.db.common.iterator.AssetIssueIterator;
+import org.gsc.protos.Contract.AssetIssueContract;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -18,6 +20,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class AssetIssueStore extends GscStoreWithRevoking<AssetIssueWrapper> {
 
+  private WriteBackBuffer<AssetIssueContract> writeBack = new WriteBackBuffer<>();
+
   @Autowired
   private AssetIssueStore(@Value("asset-issue") String dbName) {
     super(dbName);
@@ -25,10 +29,29 @@ public class AssetIssueStore extends GscStoreWithRevoking<AssetIssueWrapper> {
 
   @Override
   public AssetIssueWrapper get(byte[] key) {
+    AssetIssueContract held = writeBack.get(key);
+    if (held != null) {
+      return new AssetIssueWrapper(held);
+    }
     byte[] value = dbSource.getData(key);
     return ArrayUtils.isEmpty(value) ? null : new AssetIssueWrapper(value);
   }
 
+  /**
+   * Like {@link AccountStore#openWriteBack()}.
+   */
+  public void openWriteBack() {
+    writeBack.open();
+  }
+
+  public void flushWriteBack() {
+    writeBack.flush((key, asset) -> put(key, new AssetIssueWrapper(asset)));
+  }
+
+  public void discardWriteBack() {
+    writeBack.discard();
+  }
+
   /**
    * isAssetIssusExist fun.
    *
@@ -36,12 +59,19 @@ public class AssetIssueStore extends GscStoreWithRevoking<AssetIssueWrapper> {
    */
   @Override
   public boolean has(byte[] key) {
+    if (writeBack.get(key) != null) {
+      return true;
+    }
     byte[] assetIssue = dbSource.getData(key);
     return null != assetIssue;
   }
 
   @Override
   public void put(byte[] key, AssetIssueWrapper item) {
+    if (Objects.nonNull(key) && Objects.nonNull(item)
+        && writeBack.put(key, item.getInstance())) {
+      return;
+    }
     super.put(key, item);
     if (Objects.nonNull(indexHelper)) {
       indexHelper.update(item.getInstance());
@@ -84,6 +114,7 @@ public class AssetIssueStore extends GscStoreWithRevoking<AssetIssueWrapper> {
   @Override
   public void delete(byte[] key) {
     deleteIndex(key);
+    writeBack.remove(key);
     super.delete(key);
   }
 
@@ -4,6 +4,8 @@ package org.gsc.db;
 import static org.gsc.protos.Protocol.Transaction.Contract.ContractType.TransferAssetContract;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,15 @@ public class BandwidthProcessor {
   private Manager dbManager;
   private long precision;
   private long windowSize;
+  // read once for all the transactions of a block, see forBlock; otherwise read on each use
+  private boolean blockScoped;
+  private long headSlot;
+  private long headBlockTime;
+  private long freeNetLimit;
+  private long publicNetLimit;
+  private long totalNetLimit;
+  private long transactionFee;
+  private long createAccountFee;
 
   public BandwidthProcessor(Manager manager) {
     this.dbManager = manager;
@@ -33,6 +44,56 @@ public class BandwidthProcessor {
     this.windowSize = ChainConstant.WINDOW_SIZE_MS / ChainConstant.BLOCK_PRODUCED_INTERVAL;
   }
 
+  /**
+   * A processor for the transactions of one block, which reads the head slot, the net limits
+   * and the fees once; none of them changes until the block is done. The total net weight and
+   * the public net usage do change and are still read on each use.
+   */
+  public static BandwidthProcessor forBlock(Manager manager) {
+    BandwidthProcessor processor = new BandwidthProcessor(manager);
+    DynamicPropertiesStore properties = manager.getDynamicPropertiesStore();
+    processor.headSlot = manager.getWitnessController().getHeadSlot();
+    processor.headBlockTime = manager.getHeadBlockTimeStamp();
+    processor.freeNetLimit = properties.getFreeNetLimit();
+    processor.publicNetLimit = properties.getPublicNetLimit();
+    processor.totalNetLimit = properties.getTotalNetLimit();
+    processor.transactionFee = properties.getTransactionFee();
+    processor.createAccountFee = properties.getCreateAccountFee();
+    processor.blockScoped = true;
+    return processor;
+  }
+
+  private long headSlot() {
+    return blockScoped ? headSlot : dbManager.getWitnessController().getHeadSlot();
+  }
+
+  private long headBlockTime() {
+    return blockScoped ? headBlockTime : dbManager.getHeadBlockTimeStamp();
+  }
+
+  private long freeNetLimit() {
+    return blockScoped ? freeNetLimit : dbManager.getDynamicPropertiesStore().getFreeNetLimit();
+  }
+
+  private long publicNetLimit() {
+    return blockScoped ? publicNetLimit
+        : dbManager.getDynamicPropertiesStore().getPublicNetLimit();
+  }
+
+  private long totalNetLimit() {
+    return blockScoped ? totalNetLimit : dbManager.getDynamicPropertiesStore().getTotalNetLimit();
+  }
+
+  private long transactionFee() {
+    return blockScoped ? transactionFee
+        : dbManager.getDynamicPropertiesStore().getTransactionFee();
+  }
+
+  private long createAccountFee() {
+    return blockScoped ? createAccountFee
+        : dbManager.getDynamicPropertiesStore().getCreateAccountFee();
+  }
+
   private long divideCeil(long numerator, long denominator) {
     return (numerator / denominator) + ((numerator % denominator) > 0 ? 1 : 0);
   }
@@ -85,7 +146,14 @@ public class BandwidthProcessor {
     List<Contract> contracts =
         trx.getInstance().getRawData().getContractList();
 
-    for (Contract contract : contracts) {
+    for (int i = 0; i < contracts.size(); i++) {
+      Contract contract = contracts.get(i);
+      Message decoded;
+      try {
+        decoded = trx.getContract(i);
+      } catch (InvalidProtocolBufferException e) {
+        decoded = null;
+      }
       long bytes = trx.getSerializedSize();
       logger.debug("trxId {},bandwidth cost :{}", trx.getTransactionId(), bytes);
       byte[] address = TransactionWrapper.getOwner(contract);
@@ -93,15 +161,15 @@ public class BandwidthProcessor {
       if (accountWrapper == null) {
         throw new ContractValidateException("account not exists");
       }
-      long now = dbManager.getWitnessController().getHeadSlot();
+      long now = headSlot();
 
-      if (contractCreateNewAccount(contract)) {
+      if (contractCreateNewAccount(contract, decoded)) {
         consumeForCreateNewAccount(accountWrapper, bytes, now, ret);
         continue;
       }
 
       if (contract.getType() == TransferAssetContract) {
-        if (useAssetAccountNet(contract, accountWrapper, now, bytes)) {
+        if (useAssetAccountNet(contract, decoded, accountWrapper, now, bytes)) {
           continue;
         }
       }
@@ -125,7 +193,7 @@ public class BandwidthProcessor {
 
   private boolean consumeFee(AccountWrapper accountWrapper, long fee) {
     try {
-      long latestOperationTime = dbManager.getHeadBlockTimeStamp();
+      long latestOperationTime = headBlockTime();
       accountWrapper.setLatestOperationTime(latestOperationTime);
       dbManager.adjustBalance(accountWrapper, -fee);
       return true;
@@ -136,7 +204,7 @@ public class BandwidthProcessor {
 
   private boolean useTransactionFee(AccountWrapper accountWrapper, long bytes,
                                     TransactionResultWrapper ret) {
-    long fee = dbManager.getDynamicPropertiesStore().getTransactionFee() * bytes;
+    long fee = transactionFee() * bytes;
     if (consumeFee(accountWrapper, fee)) {
       ret.addFee(fee);
       dbManager.getDynamicPropertiesStore().addTotalTransactionCost(fee);
@@ -169,7 +237,7 @@ public class BandwidthProcessor {
 
     if (bytes <= (netLimit - newNetUsage)) {
       latestConsumeTime = now;
-      long latestOperationTime = dbManager.getHeadBlockTimeStamp();
+      long latestOperationTime = headBlockTime();
       newNetUsage = increase(newNetUsage, bytes, latestConsumeTime, now);
       accountWrapper.setLatestConsumeTime(latestConsumeTime);
       accountWrapper.setLatestOperationTime(latestOperationTime);
@@ -182,7 +250,7 @@ public class BandwidthProcessor {
 
   public boolean consumeFeeForCreateNewAccount(AccountWrapper accountWrapper,
       TransactionResultWrapper ret) {
-    long fee = dbManager.getDynamicPropertiesStore().getCreateAccountFee();
+    long fee = createAccountFee();
     if (consumeFee(accountWrapper, fee)) {
       ret.addFee(fee);
       dbManager.getDynamicPropertiesStore().addTotalCreateAccountCost(fee);
@@ -193,26 +261,21 @@ public class BandwidthProcessor {
   }
 
   public boolean contractCreateNewAccount(Contract contract) {
+    return contractCreateNewAccount(contract, null);
+  }
+
+  private boolean contractCreateNewAccount(Contract contract, Message decoded) {
     AccountWrapper toAccount;
     switch (contract.getType()) {
       case AccountCreateContract:
         return true;
       case TransferContract:
-        TransferContract transferContract;
-        try {
-          transferContract = contract.getParameter().unpack(TransferContract.class);
-        } catch (Exception ex) {
-          throw new RuntimeException(ex.getMessage());
-        }
+        TransferContract transferContract = unpack(contract, decoded, TransferContract.class);
         toAccount = dbManager.getAccountStore().get(transferContract.getToAddress().toByteArray());
         return toAccount == null;
       case TransferAssetContract:
-        TransferAssetContract transferAssetContract;
-        try {
-          transferAssetContract = contract.getParameter().unpack(TransferAssetContract.class);
-        } catch (Exception ex) {
-          throw new RuntimeException(ex.getMessage());
-        }
+        TransferAssetContract transferAssetContract =
+            unpack(contract, decoded, TransferAssetContract.class);
         toAccount = dbManager.getAccountStore()
             .get(transferAssetContract.getToAddress().toByteArray());
         return toAccount == null;
@@ -222,16 +285,26 @@ public class BandwidthProcessor {
   }
 
 
-  private boolean useAssetAccountNet(Contract contract, AccountWrapper accountWrapper, long now,
-                                     long bytes)
-      throws ContractValidateException {
-
-    ByteString assetName;
+  /**
+   * The contract as its transaction decoded it, or decoded here when it was not.
+   */
+  private static <T extends Message> T unpack(Contract contract, Message decoded,
+      Class<T> clazz) {
+    if (clazz.isInstance(decoded)) {
+      return clazz.cast(decoded);
+    }
     try {
-      assetName = contract.getParameter().unpack(TransferAssetContract.class).getAssetName();
+      return contract.getParameter().unpack(clazz);
     } catch (Exception ex) {
       throw new RuntimeException(ex.getMessage());
     }
+  }
+
+  private boolean useAssetAccountNet(Contract contract, Message decoded,
+                                     AccountWrapper accountWrapper, long now, long bytes)
+      throws ContractValidateException {
+
+    ByteString assetName = unpack(contract, decoded, TransferAssetContract.class).getAssetName();
     String assetNameString = ByteArray.toStr(assetName.toByteArray());
     AssetIssueWrapper assetIssueWrapper
         = dbManager.getAssetIssueStore().get(assetName.toByteArray());
@@ -287,7 +360,7 @@ public class BandwidthProcessor {
     latestConsumeTime = now;
     latestAssetOperationTime = now;
     publicLatestFreeNetTime = now;
-    long latestOperationTime = dbManager.getHeadBlockTimeStamp();
+    long latestOperationTime = headBlockTime();
     newIssuerNetUsage = increase(newIssuerNetUsage, bytes, latestConsumeTime, now);
     newFreeAssetNetUsage = increase(newFreeAssetNetUsage,
         bytes, latestAssetOperationTime, now);
@@ -319,7 +392,7 @@ public class BandwidthProcessor {
       return 0;
     }
     long netWeight = frozeBalance / 1000_000L;
-    long totalNetLimit = dbManager.getDynamicPropertiesStore().getTotalNetLimit();
+    long totalNetLimit = totalNetLimit();
     long totalNetWeight = dbManager.getDynamicPropertiesStore().getTotalNetWeight();
     assert totalNetWeight > 0;
     return (long) (netWeight * ((double) totalNetLimit / totalNetWeight));
@@ -339,7 +412,7 @@ public class BandwidthProcessor {
     }
 
     latestConsumeTime = now;
-    long latestOperationTime = dbManager.getHeadBlockTimeStamp();
+    long latestOperationTime = headBlockTime();
     newNetUsage = increase(newNetUsage, bytes, latestConsumeTime, now);
     accountWrapper.setNetUsage(newNetUsage);
     accountWrapper.setLatestOperationTime(latestOperationTime);
@@ -351,7 +424,7 @@ public class BandwidthProcessor {
 
   private boolean useFreeNet(AccountWrapper accountWrapper, long bytes, long now) {
 
-    long freeNetLimit = dbManager.getDynamicPropertiesStore().getFreeNetLimit();
+    long freeNetLimit = freeNetLimit();
     long freeNetUsage = accountWrapper.getFreeNetUsage();
     long latestConsumeFreeTime = accountWrapper.getLatestConsumeFreeTime();
     long newFreeNetUsage = increase(freeNetUsage, 0, latestConsumeFreeTime, now);
@@ -361,7 +434,7 @@ public class BandwidthProcessor {
       return false;
     }
 
-    long publicNetLimit = dbManager.getDynamicPropertiesStore().getPublicNetLimit();
+    long publicNetLimit = publicNetLimit();
     long publicNetUsage = dbManager.getDynamicPropertiesStore().getPublicNetUsage();
     long publicNetTime = dbManager.getDynamicPropertiesStore().getPublicNetTime();
 
@@ -373,7 +446,7 @@ public class BandwidthProcessor {
     }
 
     latestConsumeFreeTime = now;
-    long latestOperationTime = dbManager.getHeadBlockTimeStamp();
+    long latestOperationTime = headBlockTime();
     publicNetTime = now;
     newFreeNetUsage = increase(newFreeNetUsage, bytes, latestConsumeFreeTime, now);
     newPublicNetUsage = increase(newPublicNetUsage, bytes, publicNetTime, now);
@@ -0,0 +1,91 @@
+package org.gsc.db;
+
+import com.google.common.primitives.Longs;
+import java.util.Arrays;
+
+/**
+ * Ring of one bit per recent block slot, set if the slot produced a block. Stored as the
+ * big-endian words of the bitset.
+ */
+public final class BlockFilledSlots {
+
+  private final int size;
+  private final long[] words;
+
+  private BlockFilledSlots(int size, long[] words) {
+    this.size = size;
+    this.words = words;
+  }
+
+  public static BlockFilledSlots allFilled(int size) {
+    BlockFilledSlots slots = new BlockFilledSlots(size, new long[(size + 63) >>> 6]);
+    for (int i = 0; i < size; i++) {
+      slots.words[i >>> 6] |= 1L << i;
+    }
+    return slots;
+  }
+
+  public static BlockFilledSlots fromBytes(int size, byte[] data) {
+    long[] words = new long[(size + 63) >>> 6];
+    for (int i = 0; i < words.length && (i + 1) * Long.BYTES <= data.length; i++) {
+      words[i] = Longs.fromByteArray(
+          Arrays.copyOfRange(data, i * Long.BYTES, (i + 1) * Long.BYTES));
+    }
+    return new BlockFilledSlots(size, words);
+  }
+
+  /**
+   * Parse the legacy format, one '0' or '1' character per slot.
+   */
+  public static BlockFilledSlots fromDigits(String digits) {
+    BlockFilledSlots slots = new BlockFilledSlots(digits.length(),
+        new long[(digits.length() + 63) >>> 6]);
+    for (int i = 0; i < digits.length(); i++) {
+      if (digits.charAt(i) != '0') {
+        slots.words[i >>> 6] |= 1L << i;
+      }
+    }
+    return slots;
+  }
+
+  public byte[] toBytes() {
+    byte[] data = new byte[words.length * Long.BYTES];
+    for (int i = 0; i < words.length; i++) {
+      System.arraycopy(Longs.toByteArray(words[i]), 0, data, i * Long.BYTES, Long.BYTES);
+    }
+    return data;
+  }
+
+  /**
+   * A copy with the slot at {@code index} set to {@code filled}.
+   */
+  public BlockFilledSlots with(int index, boolean filled) {
+    long[] next = words.clone();
+    if (filled) {
+      next[index >>> 6] |= 1L << index;
+    } else {
+      next[index >>> 6] &= ~(1L << index);
+    }
+    return new BlockFilledSlots(size, next);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int filledCount() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  public int[] toIntArray() {
+    int[] slots = new int[size];
+    for (int i = 0; i < size; i++) {
+      slots[i] = (int) (words[i >>> 6] >>> i & 1);
+    }
+    return slots;
+  }
+}
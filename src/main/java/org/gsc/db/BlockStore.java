@@ -1,16 +1,19 @@
 package org.gsc.db;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.gsc.common.utils.Sha256Hash;
 import org.gsc.core.wrapper.BlockWrapper;
 import org.gsc.core.wrapper.BlockWrapper.BlockId;
 import org.gsc.db.common.iterator.BlockIterator;
+import org.gsc.db.common.iterator.RangeCursor;
 import org.gsc.core.exception.BadItemException;
 import org.gsc.core.exception.ItemNotFoundException;
 import org.gsc.core.exception.StoreException;
@@ -46,34 +49,37 @@ public class BlockStore extends GscStoreWithRevoking<BlockWrapper> {
     return new BlockWrapper(value);
   }
 
+  /**
+   * Up to {@code limit} blocks from {@code startNumber} on, in block-number order.
+   */
   public List<BlockWrapper> getLimitNumber(long startNumber, long limit) {
     BlockId startBlockId = new BlockId(Sha256Hash.ZERO_HASH, startNumber);
-    return dbSource.getValuesNext(startBlockId.getBytes(), limit)
-        .stream().map(bytes -> {
-          try {
-            return new BlockWrapper(bytes);
-          } catch (BadItemException e) {
-            e.printStackTrace();
-          }
-          return null;
-        })
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+    return decode(dbSource.scan(startBlockId.getBytes(), null, false, limit));
   }
 
+  /**
+   * The latest {@code getNum} blocks, in block-number order.
+   */
   public List<BlockWrapper> getBlockByLatestNum(long getNum) {
+    List<BlockWrapper> blocks = decode(dbSource.scan(null, null, true, getNum));
+    Collections.reverse(blocks);
+    return blocks;
+  }
 
-    return dbSource.getlatestValues(getNum)
-        .stream().map(bytes -> {
-          try {
-            return new BlockWrapper(bytes);
-          } catch (BadItemException e) {
-            e.printStackTrace();
-          }
-          return null;
-        })
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  private List<BlockWrapper> decode(RangeCursor cursor) {
+    List<BlockWrapper> blocks = new ArrayList<>();
+    try (RangeCursor entries = cursor) {
+      entries.forEachRemaining(entry -> {
+        try {
+          blocks.add(new BlockWrapper(entry.getValue()));
+        } catch (BadItemException e) {
+          logger.error(e.getMessage(), e);
+        }
+      });
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return blocks;
   }
 
   @Override
@@ -2,18 +2,23 @@ package org.gsc.db;
 
 import com.google.protobuf.ByteString;
 import java.util.Arrays;
-import java.util.Optional;
-import java.util.stream.IntStream;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.gsc.common.utils.ByteArray;
 import org.gsc.common.utils.Sha256Hash;
 import org.gsc.core.wrapper.BytesWrapper;
 import org.gsc.config.args.Args;
+import org.gsc.db.common.DecodedCache;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Chain properties, each read decoded once and held typed in memory. Saves write through to
+ * leveldb, with undo entries like any other store, and to the memory; revoke and pop drop the
+ * rows they restore from memory, so the next read decodes the restored value.
+ */
 @Slf4j
 @Component
 public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
@@ -33,8 +38,11 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
   private static final byte[] LATEST_SOLIDIFIED_BLOCK_NUM = "LATEST_SOLIDIFIED_BLOCK_NUM"
       .getBytes();
 
+  // legacy format, one digit per slot, replaced by BLOCK_FILLED_SLOTS_BITS
   private static final byte[] BLOCK_FILLED_SLOTS = "BLOCK_FILLED_SLOTS".getBytes();
 
+  private static final byte[] BLOCK_FILLED_SLOTS_BITS = "BLOCK_FILLED_SLOTS_BITS".getBytes();
+
   private static final byte[] BLOCK_FILLED_SLOTS_INDEX = "BLOCK_FILLED_SLOTS_INDEX".getBytes();
 
   private static final byte[] NEXT_MAINTENANCE_TIME = "NEXT_MAINTENANCE_TIME".getBytes();
@@ -87,9 +95,20 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
 
   private static final byte[] TOTAL_CREATE_WITNESS_COST = "TOTAL_CREATE_WITNESS_FEE".getBytes();
 
+  private static final long CACHE_SIZE = 256;
+
+  private DecodedCache<Object> properties;
+
   @Autowired
   private DynamicPropertiesStore(@Value("properties") String dbName) {
     super(dbName);
+    properties = new DecodedCache<>(dbSource, CACHE_SIZE);
+    // the ring is decoded with the slot number, so a new number, saved or revoked, redecodes it
+    dbSource.addChangeListener(key -> {
+      if (key == null || Arrays.equals(key, BLOCK_FILLED_SLOTS_NUMBER)) {
+        properties.invalidate(BLOCK_FILLED_SLOTS_BITS);
+      }
+    });
     try {
       this.getMaintenanceTimeInterval();
     } catch (IllegalArgumentException e) {
@@ -282,11 +301,15 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
     }
 
     try {
-      this.getBlockFilledSlots();
+      this.getBlockFilledSlotsRing();
     } catch (IllegalArgumentException e) {
-      int[] blockFilledSlots = new int[getBlockFilledSlotsNumber()];
-      Arrays.fill(blockFilledSlots, 1);
-      this.saveBlockFilledSlots(blockFilledSlots);
+      String digits = ByteArray.toStr(this.dbSource.getData(BLOCK_FILLED_SLOTS));
+      this.saveBlockFilledSlots(digits == null
+          ? BlockFilledSlots.allFilled(getBlockFilledSlotsNumber())
+          : BlockFilledSlots.fromDigits(digits));
+      if (digits != null) {
+        this.delete(BLOCK_FILLED_SLOTS);
+      }
     }
 
     try {
@@ -314,402 +337,313 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
     instance = null;
   }
 
-  public String intArrayToString(int[] a) {
-    StringBuilder sb = new StringBuilder();
-    for (int i : a) {
-      sb.append(i);
+  private <T> T getProperty(byte[] key, Function<byte[], T> decoder, String notFound) {
+    T value = properties.get(key, decoder);
+    if (value == null) {
+      throw new IllegalArgumentException(notFound);
     }
-    return sb.toString();
+    return value;
   }
 
-  public int[] stringToIntArray(String s) {
-    int length = s.length();
-    int[] result = new int[length];
-    for (int i = 0; i < length; ++i) {
-      result[i] = Integer.parseInt(s.substring(i, i + 1));
-    }
-    return result;
+  /**
+   * Write the row and keep it decoded with the decoder its getter reads it with.
+   */
+  private <T> void saveProperty(byte[] key, byte[] data, Function<byte[], T> decoder) {
+    this.put(key, new BytesWrapper(data));
+    properties.put(key, decoder.apply(data));
+  }
+
+  private static double toDouble(byte[] data) {
+    return Double.parseDouble(ByteArray.toStr(data));
+  }
+
+  private BlockFilledSlots toBlockFilledSlots(byte[] data) {
+    return BlockFilledSlots.fromBytes(getBlockFilledSlotsNumber(), data);
   }
 
   public void saveMaintenanceTimeInterval(long maintenanceTimeInterval) {
     logger.debug("MaintenanceTimeInterval:" + maintenanceTimeInterval);
-    this.put(MAINTENANCE_TIME_INTERVAL,
-        new BytesWrapper(ByteArray.fromObject(maintenanceTimeInterval)));
+    saveProperty(MAINTENANCE_TIME_INTERVAL, ByteArray.fromObject(maintenanceTimeInterval),
+        ByteArray::toLong);
   }
 
   public long getMaintenanceTimeInterval() {
-    return Optional.ofNullable(this.dbSource.getData(MAINTENANCE_TIME_INTERVAL))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAINTENANCE_TIME_INTERVAL"));
+    return getProperty(MAINTENANCE_TIME_INTERVAL, ByteArray::toLong,
+        "not found MAINTENANCE_TIME_INTERVAL");
   }
 
   public void saveVoteRewardRate(double voteRewardRate) {
     logger.debug("VoteRewardRate:" + voteRewardRate);
-    this.put(VOTE_REWARD_RATE,
-        new BytesWrapper(ByteArray.fromString(Double.toString(voteRewardRate))));
+    saveProperty(VOTE_REWARD_RATE, ByteArray.fromString(Double.toString(voteRewardRate)),
+        DynamicPropertiesStore::toDouble);
   }
 
   public double getVoteRewardRate() {
-    return Optional.ofNullable(this.dbSource.getData(VOTE_REWARD_RATE))
-        .map(ByteArray::toStr)
-        .map(Double::parseDouble)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found VOTE_REWARD_RATE"));
+    return getProperty(VOTE_REWARD_RATE, DynamicPropertiesStore::toDouble,
+        "not found VOTE_REWARD_RATE");
   }
 
   public void saveSingleRepeat(int singleRepeat) {
     logger.debug("SingleRepeat:" + singleRepeat);
-    this.put(SINGLE_REPEAT,
-        new BytesWrapper(ByteArray.fromInt(singleRepeat)));
+    saveProperty(SINGLE_REPEAT, ByteArray.fromInt(singleRepeat), ByteArray::toInt);
   }
 
   public int getSingleRepeat() {
-    return Optional.ofNullable(this.dbSource.getData(SINGLE_REPEAT))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found SINGLE_REPEAT"));
+    return getProperty(SINGLE_REPEAT, ByteArray::toInt, "not found SINGLE_REPEAT");
   }
 
   public void saveBlockFilledSlotsIndex(int blockFilledSlotsIndex) {
     logger.debug("blockFilledSlotsIndex:" + blockFilledSlotsIndex);
-    this.put(BLOCK_FILLED_SLOTS_INDEX,
-        new BytesWrapper(ByteArray.fromInt(blockFilledSlotsIndex)));
+    saveProperty(BLOCK_FILLED_SLOTS_INDEX, ByteArray.fromInt(blockFilledSlotsIndex),
+        ByteArray::toInt);
   }
 
   public int getBlockFilledSlotsIndex() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS_INDEX))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_INDEX"));
+    return getProperty(BLOCK_FILLED_SLOTS_INDEX, ByteArray::toInt,
+        "not found BLOCK_FILLED_SLOTS_INDEX");
   }
 
   public void saveMaxFrozenNumber(int maxFrozenNumber) {
     logger.debug("MAX_FROZEN_NUMBER:" + maxFrozenNumber);
-    this.put(MAX_FROZEN_NUMBER,
-        new BytesWrapper(ByteArray.fromInt(maxFrozenNumber)));
+    saveProperty(MAX_FROZEN_NUMBER, ByteArray.fromInt(maxFrozenNumber), ByteArray::toInt);
   }
 
   public int getMaxFrozenNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_NUMBER))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_NUMBER"));
+    return getProperty(MAX_FROZEN_NUMBER, ByteArray::toInt, "not found MAX_FROZEN_NUMBER");
   }
 
   public void saveMaxFrozenTime(int maxFrozenTime) {
     logger.debug("MAX_FROZEN_NUMBER:" + maxFrozenTime);
-    this.put(MAX_FROZEN_TIME,
-        new BytesWrapper(ByteArray.fromInt(maxFrozenTime)));
+    saveProperty(MAX_FROZEN_TIME, ByteArray.fromInt(maxFrozenTime), ByteArray::toInt);
   }
 
   public int getMaxFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_TIME))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_TIME"));
+    return getProperty(MAX_FROZEN_TIME, ByteArray::toInt, "not found MAX_FROZEN_TIME");
   }
 
   public void saveMinFrozenTime(int minFrozenTime) {
     logger.debug("MIN_FROZEN_NUMBER:" + minFrozenTime);
-    this.put(MIN_FROZEN_TIME,
-        new BytesWrapper(ByteArray.fromInt(minFrozenTime)));
+    saveProperty(MIN_FROZEN_TIME, ByteArray.fromInt(minFrozenTime), ByteArray::toInt);
   }
 
   public int getMinFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(MIN_FROZEN_TIME))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MIN_FROZEN_TIME"));
+    return getProperty(MIN_FROZEN_TIME, ByteArray::toInt, "not found MIN_FROZEN_TIME");
   }
 
   public void saveMaxFrozenSupplyNumber(int maxFrozenSupplyNumber) {
     logger.debug("MAX_FROZEN_SUPPLY_NUMBER:" + maxFrozenSupplyNumber);
-    this.put(MAX_FROZEN_SUPPLY_NUMBER,
-        new BytesWrapper(ByteArray.fromInt(maxFrozenSupplyNumber)));
+    saveProperty(MAX_FROZEN_SUPPLY_NUMBER, ByteArray.fromInt(maxFrozenSupplyNumber),
+        ByteArray::toInt);
   }
 
   public int getMaxFrozenSupplyNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_SUPPLY_NUMBER))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_NUMBER"));
+    return getProperty(MAX_FROZEN_SUPPLY_NUMBER, ByteArray::toInt,
+        "not found MAX_FROZEN_SUPPLY_NUMBER");
   }
 
   public void saveMaxFrozenSupplyTime(int maxFrozenSupplyTime) {
     logger.debug("MAX_FROZEN_SUPPLY_NUMBER:" + maxFrozenSupplyTime);
-    this.put(MAX_FROZEN_SUPPLY_TIME,
-        new BytesWrapper(ByteArray.fromInt(maxFrozenSupplyTime)));
+    saveProperty(MAX_FROZEN_SUPPLY_TIME, ByteArray.fromInt(maxFrozenSupplyTime), ByteArray::toInt);
   }
 
   public int getMaxFrozenSupplyTime() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_FROZEN_SUPPLY_TIME))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_TIME"));
+    return getProperty(MAX_FROZEN_SUPPLY_TIME, ByteArray::toInt,
+        "not found MAX_FROZEN_SUPPLY_TIME");
   }
 
   public void saveMinFrozenSupplyTime(int minFrozenSupplyTime) {
     logger.debug("MIN_FROZEN_SUPPLY_NUMBER:" + minFrozenSupplyTime);
-    this.put(MIN_FROZEN_SUPPLY_TIME,
-        new BytesWrapper(ByteArray.fromInt(minFrozenSupplyTime)));
+    saveProperty(MIN_FROZEN_SUPPLY_TIME, ByteArray.fromInt(minFrozenSupplyTime), ByteArray::toInt);
   }
 
   public int getMinFrozenSupplyTime() {
-    return Optional.ofNullable(this.dbSource.getData(MIN_FROZEN_SUPPLY_TIME))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MIN_FROZEN_SUPPLY_TIME"));
+    return getProperty(MIN_FROZEN_SUPPLY_TIME, ByteArray::toInt,
+        "not found MIN_FROZEN_SUPPLY_TIME");
   }
 
   public void saveWitnessAllowanceFrozenTime(int witnessAllowanceFrozenTime) {
     logger.debug("WITNESS_ALLOWANCE_FROZEN_TIME:" + witnessAllowanceFrozenTime);
-    this.put(WITNESS_ALLOWANCE_FROZEN_TIME,
-        new BytesWrapper(ByteArray.fromInt(witnessAllowanceFrozenTime)));
+    saveProperty(WITNESS_ALLOWANCE_FROZEN_TIME, ByteArray.fromInt(witnessAllowanceFrozenTime),
+        ByteArray::toInt);
   }
 
   public int getWitnessAllowanceFrozenTime() {
-    return Optional.ofNullable(this.dbSource.getData(WITNESS_ALLOWANCE_FROZEN_TIME))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found WITNESS_ALLOWANCE_FROZEN_TIME"));
+    return getProperty(WITNESS_ALLOWANCE_FROZEN_TIME, ByteArray::toInt,
+        "not found WITNESS_ALLOWANCE_FROZEN_TIME");
   }
 
   public void saveAccountUpgradeCost(long accountUpgradeCost) {
     logger.debug("ACCOUNT_UPGRADE_COST:" + accountUpgradeCost);
-    this.put(ACCOUNT_UPGRADE_COST,
-        new BytesWrapper(ByteArray.fromLong(accountUpgradeCost)));
+    saveProperty(ACCOUNT_UPGRADE_COST, ByteArray.fromLong(accountUpgradeCost), ByteArray::toLong);
   }
 
   public long getAccountUpgradeCost() {
-    return Optional.ofNullable(this.dbSource.getData(ACCOUNT_UPGRADE_COST))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ACCOUNT_UPGRADE_COST"));
+    return getProperty(ACCOUNT_UPGRADE_COST, ByteArray::toLong, "not found ACCOUNT_UPGRADE_COST");
   }
 
   public void saveNonExistentAccountTransferLimit(long limit) {
     logger.debug("NON_EXISTENT_ACCOUNT_TRANSFER_MIN:" + limit);
-    this.put(NON_EXISTENT_ACCOUNT_TRANSFER_MIN,
-        new BytesWrapper(ByteArray.fromLong(limit)));
+    saveProperty(NON_EXISTENT_ACCOUNT_TRANSFER_MIN, ByteArray.fromLong(limit), ByteArray::toLong);
   }
 
   public long getNonExistentAccountTransferMin() {
-    return Optional.ofNullable(this.dbSource.getData(NON_EXISTENT_ACCOUNT_TRANSFER_MIN))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found NON_EXISTENT_ACCOUNT_TRANSFER_MIN"));
+    return getProperty(NON_EXISTENT_ACCOUNT_TRANSFER_MIN, ByteArray::toLong,
+        "not found NON_EXISTENT_ACCOUNT_TRANSFER_MIN");
   }
 
 
   public void savePublicNetUsage(long publicNetUsage) {
-    this.put(PUBLIC_NET_USAGE,
-        new BytesWrapper(ByteArray.fromLong(publicNetUsage)));
+    saveProperty(PUBLIC_NET_USAGE, ByteArray.fromLong(publicNetUsage), ByteArray::toLong);
   }
 
   public long getPublicNetUsage() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_USAGE))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_USAGE"));
+    return getProperty(PUBLIC_NET_USAGE, ByteArray::toLong, "not found PUBLIC_NET_USAGE");
   }
 
   public void savePublicNetLimit(long publicNetLimit) {
-    this.put(PUBLIC_NET_LIMIT,
-        new BytesWrapper(ByteArray.fromLong(publicNetLimit)));
+    saveProperty(PUBLIC_NET_LIMIT, ByteArray.fromLong(publicNetLimit), ByteArray::toLong);
   }
 
   public long getPublicNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_LIMIT))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_LIMIT"));
+    return getProperty(PUBLIC_NET_LIMIT, ByteArray::toLong, "not found PUBLIC_NET_LIMIT");
   }
 
   public void savePublicNetTime(long publicNetTime) {
-    this.put(PUBLIC_NET_TIME,
-        new BytesWrapper(ByteArray.fromLong(publicNetTime)));
+    saveProperty(PUBLIC_NET_TIME, ByteArray.fromLong(publicNetTime), ByteArray::toLong);
   }
 
   public long getPublicNetTime() {
-    return Optional.ofNullable(this.dbSource.getData(PUBLIC_NET_TIME))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_TIME"));
+    return getProperty(PUBLIC_NET_TIME, ByteArray::toLong, "not found PUBLIC_NET_TIME");
   }
 
   public void saveFreeNetLimit(long freeNetLimit) {
-    this.put(FREE_NET_LIMIT,
-        new BytesWrapper(ByteArray.fromLong(freeNetLimit)));
+    saveProperty(FREE_NET_LIMIT, ByteArray.fromLong(freeNetLimit), ByteArray::toLong);
   }
 
   public long getFreeNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(FREE_NET_LIMIT))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found FREE_NET_LIMIT"));
+    return getProperty(FREE_NET_LIMIT, ByteArray::toLong, "not found FREE_NET_LIMIT");
   }
 
   public void saveTotalNetWeight(long totalNetWeight) {
-    this.put(TOTAL_NET_WEIGHT,
-        new BytesWrapper(ByteArray.fromLong(totalNetWeight)));
+    saveProperty(TOTAL_NET_WEIGHT, ByteArray.fromLong(totalNetWeight), ByteArray::toLong);
   }
 
   public long getTotalNetWeight() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_NET_WEIGHT))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_NET_WEIGHT"));
+    return getProperty(TOTAL_NET_WEIGHT, ByteArray::toLong, "not found TOTAL_NET_WEIGHT");
   }
 
   public void saveTotalNetLimit(long totalNetLimit) {
-    this.put(TOTAL_NET_LIMIT,
-        new BytesWrapper(ByteArray.fromLong(totalNetLimit)));
+    saveProperty(TOTAL_NET_LIMIT, ByteArray.fromLong(totalNetLimit), ByteArray::toLong);
   }
 
   public long getTotalNetLimit() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_NET_LIMIT))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_NET_LIMIT"));
+    return getProperty(TOTAL_NET_LIMIT, ByteArray::toLong, "not found TOTAL_NET_LIMIT");
   }
 
   public void saveBlockNetUsage(long blockNetUsage) {
-    this.put(BLOCK_NET_USAGE,
-        new BytesWrapper(ByteArray.fromLong(blockNetUsage)));
+    saveProperty(BLOCK_NET_USAGE, ByteArray.fromLong(blockNetUsage), ByteArray::toLong);
   }
 
   public long getBlockNetUsage() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_NET_USAGE))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found BLOCK_NET_USAGE"));
+    return getProperty(BLOCK_NET_USAGE, ByteArray::toLong, "not found BLOCK_NET_USAGE");
   }
 
   public void saveCreateAccountFee(long blockNetUsage) {
-    this.put(CREATE_ACCOUNT_FEE,
-        new BytesWrapper(ByteArray.fromLong(blockNetUsage)));
+    saveProperty(CREATE_ACCOUNT_FEE, ByteArray.fromLong(blockNetUsage), ByteArray::toLong);
   }
 
   public long getCreateAccountFee() {
-    return Optional.ofNullable(this.dbSource.getData(CREATE_ACCOUNT_FEE))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found CREATE_ACCOUNT_FEE"));
+    return getProperty(CREATE_ACCOUNT_FEE, ByteArray::toLong, "not found CREATE_ACCOUNT_FEE");
   }
 
 
   public void saveTransactionFee(long blockNetUsage) {
-    this.put(TRANSACTION_FEE,
-        new BytesWrapper(ByteArray.fromLong(blockNetUsage)));
+    saveProperty(TRANSACTION_FEE, ByteArray.fromLong(blockNetUsage), ByteArray::toLong);
   }
 
   public long getTransactionFee() {
-    return Optional.ofNullable(this.dbSource.getData(TRANSACTION_FEE))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TRANSACTION_FEE"));
+    return getProperty(TRANSACTION_FEE, ByteArray::toLong, "not found TRANSACTION_FEE");
   }
 
   public void saveTotalTransactionCost(long value) {
-    this.put(TOTAL_TRANSACTION_COST,
-        new BytesWrapper(ByteArray.fromLong(value)));
+    saveProperty(TOTAL_TRANSACTION_COST, ByteArray.fromLong(value), ByteArray::toLong);
   }
 
   public long getTotalTransactionCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_TRANSACTION_COST))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_TRANSACTION_COST"));
+    return getProperty(TOTAL_TRANSACTION_COST, ByteArray::toLong,
+        "not found TOTAL_TRANSACTION_COST");
   }
 
   public void saveTotalCreateAccountFee(long value) {
-    this.put(TOTAL_CREATE_ACCOUNT_COST,
-        new BytesWrapper(ByteArray.fromLong(value)));
+    saveProperty(TOTAL_CREATE_ACCOUNT_COST, ByteArray.fromLong(value), ByteArray::toLong);
   }
 
   public long getTotalCreateAccountCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_CREATE_ACCOUNT_COST))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_CREATE_ACCOUNT_COST"));
+    return getProperty(TOTAL_CREATE_ACCOUNT_COST, ByteArray::toLong,
+        "not found TOTAL_CREATE_ACCOUNT_COST");
   }
 
   public void saveTotalCreateWitnessFee(long value) {
-    this.put(TOTAL_CREATE_WITNESS_COST,
-        new BytesWrapper(ByteArray.fromLong(value)));
+    saveProperty(TOTAL_CREATE_WITNESS_COST, ByteArray.fromLong(value), ByteArray::toLong);
   }
 
   public long getTotalCreateWitnessCost() {
-    return Optional.ofNullable(this.dbSource.getData(TOTAL_CREATE_WITNESS_COST))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_CREATE_WITNESS_COST"));
+    return getProperty(TOTAL_CREATE_WITNESS_COST, ByteArray::toLong,
+        "not found TOTAL_CREATE_WITNESS_COST");
+  }
+
+  public void saveBlockFilledSlots(BlockFilledSlots blockFilledSlots) {
+    saveProperty(BLOCK_FILLED_SLOTS_BITS, blockFilledSlots.toBytes(), this::toBlockFilledSlots);
   }
 
-  public void saveBlockFilledSlots(int[] blockFilledSlots) {
-    logger.debug("blockFilledSlots:" + intArrayToString(blockFilledSlots));
-    this.put(BLOCK_FILLED_SLOTS,
-        new BytesWrapper(ByteArray.fromString(intArrayToString(blockFilledSlots))));
+  public BlockFilledSlots getBlockFilledSlotsRing() {
+    return getProperty(BLOCK_FILLED_SLOTS_BITS, this::toBlockFilledSlots,
+        "not found BLOCK_FILLED_SLOTS_BITS");
   }
 
   public int[] getBlockFilledSlots() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS))
-        .map(ByteArray::toStr)
-        .map(this::stringToIntArray)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest SOLIDIFIED_BLOCK_NUM timestamp"));
+    return getBlockFilledSlotsRing().toIntArray();
   }
 
   public int getBlockFilledSlotsNumber() {
-    return Optional.ofNullable(this.dbSource.getData(BLOCK_FILLED_SLOTS_NUMBER))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_NUMBER"));
+    return getProperty(BLOCK_FILLED_SLOTS_NUMBER, ByteArray::toInt,
+        "not found BLOCK_FILLED_SLOTS_NUMBER");
   }
 
   public void saveBlockFilledSlotsNumber(int blockFilledSlotsNumber) {
     logger.debug("blockFilledSlotsNumber:" + blockFilledSlotsNumber);
-    this.put(BLOCK_FILLED_SLOTS_NUMBER,
-        new BytesWrapper(ByteArray.fromInt(blockFilledSlotsNumber)));
+    saveProperty(BLOCK_FILLED_SLOTS_NUMBER, ByteArray.fromInt(blockFilledSlotsNumber),
+        ByteArray::toInt);
   }
 
   public int getMaxVoteNumber() {
-    return Optional.ofNullable(this.dbSource.getData(MAX_VOTE_NUMBER))
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_VOTE_NUMBER"));
+    return getProperty(MAX_VOTE_NUMBER, ByteArray::toInt, "not found MAX_VOTE_NUMBER");
   }
 
   public void saveMaxVoteNumber(int maxVoteNumber) {
     logger.debug("MAX_VOTE_NUMBER:" + maxVoteNumber);
-    this.put(MAX_VOTE_NUMBER,
-        new BytesWrapper(ByteArray.fromInt(maxVoteNumber)));
+    saveProperty(MAX_VOTE_NUMBER, ByteArray.fromInt(maxVoteNumber), ByteArray::toInt);
   }
 
   public void applyBlock(boolean fillBlock) {
-    int[] blockFilledSlots = getBlockFilledSlots();
+    BlockFilledSlots blockFilledSlots = getBlockFilledSlotsRing();
     int blockFilledSlotsIndex = getBlockFilledSlotsIndex();
-    blockFilledSlots[blockFilledSlotsIndex] = fillBlock ? 1 : 0;
     saveBlockFilledSlotsIndex((blockFilledSlotsIndex + 1) % getBlockFilledSlotsNumber());
-    saveBlockFilledSlots(blockFilledSlots);
+    saveBlockFilledSlots(blockFilledSlots.with(blockFilledSlotsIndex, fillBlock));
   }
 
   public int calculateFilledSlotsCount() {
-    int[] blockFilledSlots = getBlockFilledSlots();
-    return 100 * IntStream.of(blockFilledSlots).sum() / getBlockFilledSlotsNumber();
+    return 100 * getBlockFilledSlotsRing().filledCount() / getBlockFilledSlotsNumber();
   }
 
   public void saveLatestSolidifiedBlockNum(long number) {
-    this.put(LATEST_SOLIDIFIED_BLOCK_NUM, new BytesWrapper(ByteArray.fromLong(number)));
+    saveProperty(LATEST_SOLIDIFIED_BLOCK_NUM, ByteArray.fromLong(number), ByteArray::toLong);
   }
 
 
   public long getLatestSolidifiedBlockNum() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_SOLIDIFIED_BLOCK_NUM))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest SOLIDIFIED_BLOCK_NUM timestamp"));
+    return getProperty(LATEST_SOLIDIFIED_BLOCK_NUM, ByteArray::toLong,
+        "not found latest SOLIDIFIED_BLOCK_NUM timestamp");
     //return ByteArray.toLong(this.dbSource.getData(this.SOLIDIFIED_THRESHOLD));
   }
 
@@ -717,24 +651,20 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
    * get timestamp of creating global latest block.
    */
   public long getLatestBlockHeaderTimestamp() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_TIMESTAMP))
-        .map(ByteArray::toLong)
-        .orElseThrow(() -> new IllegalArgumentException("not found latest block header timestamp"));
+    return getProperty(LATEST_BLOCK_HEADER_TIMESTAMP, ByteArray::toLong,
+        "not found latest block header timestamp");
   }
 
   /**
    * get number of global latest block.
    */
   public long getLatestBlockHeaderNumber() {
-    return Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_NUMBER))
-        .map(ByteArray::toLong)
-        .orElseThrow(() -> new IllegalArgumentException("not found latest block header number"));
+    return getProperty(LATEST_BLOCK_HEADER_NUMBER, ByteArray::toLong,
+        "not found latest block header number");
   }
 
   public int getStateFlag() {
-    return Optional.ofNullable(this.dbSource.getData(STATE_FLAG))
-        .map(ByteArray::toInt)
-        .orElseThrow(() -> new IllegalArgumentException("not found maintenance flag"));
+    return getProperty(STATE_FLAG, ByteArray::toInt, "not found maintenance flag");
   }
 
   /**
@@ -743,8 +673,8 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
 
   public Sha256Hash getLatestBlockHeaderHash() {
 
-    byte[] blockHash = Optional.ofNullable(this.dbSource.getData(LATEST_BLOCK_HEADER_HASH))
-        .orElseThrow(() -> new IllegalArgumentException("not found block hash"));
+    byte[] blockHash = getProperty(LATEST_BLOCK_HEADER_HASH, Function.identity(),
+        "not found block hash");
     return Sha256Hash.wrap(blockHash);
   }
 
@@ -753,7 +683,7 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
    */
   public void saveLatestBlockHeaderTimestamp(long t) {
     logger.info("update latest block header timestamp = {}", t);
-    this.put(LATEST_BLOCK_HEADER_TIMESTAMP, new BytesWrapper(ByteArray.fromLong(t)));
+    saveProperty(LATEST_BLOCK_HEADER_TIMESTAMP, ByteArray.fromLong(t), ByteArray::toLong);
   }
 
   /**
@@ -761,7 +691,7 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
    */
   public void saveLatestBlockHeaderNumber(long n) {
     logger.info("update latest block header number = {}", n);
-    this.put(LATEST_BLOCK_HEADER_NUMBER, new BytesWrapper(ByteArray.fromLong(n)));
+    saveProperty(LATEST_BLOCK_HEADER_NUMBER, ByteArray.fromLong(n), ByteArray::toLong);
   }
 
   /**
@@ -769,20 +699,17 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
    */
   public void saveLatestBlockHeaderHash(ByteString h) {
     logger.info("update latest block header id = {}", ByteArray.toHexString(h.toByteArray()));
-    this.put(LATEST_BLOCK_HEADER_HASH, new BytesWrapper(h.toByteArray()));
+    saveProperty(LATEST_BLOCK_HEADER_HASH, h.toByteArray(), Function.identity());
   }
 
   public void saveStateFlag(int n) {
     logger.info("update state flag = {}", n);
-    this.put(STATE_FLAG, new BytesWrapper(ByteArray.fromInt(n)));
+    saveProperty(STATE_FLAG, ByteArray.fromInt(n), ByteArray::toInt);
   }
 
 
   public long getNextMaintenanceTime() {
-    return Optional.ofNullable(this.dbSource.getData(NEXT_MAINTENANCE_TIME))
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found NEXT_MAINTENANCE_TIME"));
+    return getProperty(NEXT_MAINTENANCE_TIME, ByteArray::toLong, "not found NEXT_MAINTENANCE_TIME");
   }
 
   public long getMaintenanceSkipSlots() {
@@ -790,8 +717,7 @@ public class DynamicPropertiesStore extends GscStoreWithRevoking<BytesWrapper> {
   }
 
   private void saveNextMaintenanceTime(long nextMaintenanceTime) {
-    this.put(NEXT_MAINTENANCE_TIME,
-        new BytesWrapper(ByteArray.fromLong(nextMaintenanceTime)));
+    saveProperty(NEXT_MAINTENANCE_TIME, ByteArray.fromLong(nextMaintenanceTime), ByteArray::toLong);
   }
 
 
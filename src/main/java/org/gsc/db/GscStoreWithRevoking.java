@@ -19,6 +19,7 @@ public abstract class GscStoreWithRevoking<T extends ProtoWrapper> extends GscDa
   protected GscStoreWithRevoking(String dbName, RevokingDatabase revokingDatabase) {
     super(dbName);
     this.revokingDatabase = revokingDatabase;
+    revokingDatabase.add(dbSource);
   }
 
   @Override
@@ -41,7 +42,8 @@ public abstract class GscStoreWithRevoking<T extends ProtoWrapper> extends GscDa
 
   @Override
   public void delete(byte[] key) {
-    onDelete(key);
+    byte[] value = dbSource.getData(key);
+    onDelete(key, value);
     dbSource.deleteData(key);
   }
 
@@ -62,9 +64,8 @@ public abstract class GscStoreWithRevoking<T extends ProtoWrapper> extends GscDa
   /**
    * This should be called just before an object is removed.
    */
-  private void onDelete(byte[] key) {
-    byte[] value;
-    if (Objects.nonNull(value = dbSource.getData(key))) {
+  private void onDelete(byte[] key, byte[] value) {
+    if (Objects.nonNull(value)) {
       revokingDatabase.onRemove(new RevokingTuple(dbSource, key), value);
     }
   }
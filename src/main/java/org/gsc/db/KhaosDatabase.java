@@ -1,16 +1,13 @@
 package org.gsc.db;
 
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 import javafx.util.Pair;
 import lombok.Getter;
@@ -25,6 +22,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Tree of the unsolidified blocks. Each block links to its parent, its children and a skip
+ * ancestor, so the common ancestor of two forks is found in a logarithmic number of steps.
+ * Blocks are indexed by number, which keeps the head and the pruning below the solidified
+ * block cheap.
+ */
 @Component
 public class KhaosDatabase extends GscDatabase {
 
@@ -42,17 +45,55 @@ public class KhaosDatabase extends GscDatabase {
 
     @Getter
     BlockWrapper blk;
-    Reference<KhaosBlock> parent = new WeakReference<>(null);
+    KhaosBlock parent;
+    List<KhaosBlock> children = new ArrayList<>();
+    // an ancestor further back than the parent, see skipNum
+    KhaosBlock skip;
+    // set once the block has left its store
+    boolean removed;
     BlockId id;
     Boolean invalid;
     long num;
 
     public KhaosBlock getParent() {
-      return parent == null ? null : parent.get();
+      return parent;
     }
 
     public void setParent(KhaosBlock parent) {
-      this.parent = new WeakReference<>(parent);
+      if (this.parent != null) {
+        this.parent.children.remove(this);
+      }
+      this.parent = parent;
+      if (parent != null) {
+        parent.children.add(this);
+      }
+    }
+
+    /**
+     * The ancestor numbered {@code target}, or null if it is not linked to this block.
+     */
+    KhaosBlock getAncestor(long target) {
+      KhaosBlock walk = this;
+      while (walk != null && walk.num > target) {
+        if (walk.skip != null && !walk.skip.removed && walk.skip.num >= target) {
+          walk = walk.skip;
+        } else {
+          walk = walk.parent;
+        }
+      }
+      return walk;
+    }
+
+    /**
+     * Drop the links of a block that left its store, so it does not keep its ancestors
+     * reachable.
+     */
+    void detach() {
+      removed = true;
+      children.forEach(child -> child.parent = null);
+      children.clear();
+      setParent(null);
+      skip = null;
     }
 
     @Override
@@ -80,24 +121,7 @@ public class KhaosDatabase extends GscDatabase {
     // private HashMap<Sha256Hash, KhaosBlock> parentHashKblkMap = new HashMap<>();
     private int maxCapcity = 1024;
 
-    private LinkedHashMap<Long, ArrayList<KhaosBlock>> numKblkMap =
-        new LinkedHashMap<Long, ArrayList<KhaosBlock>>() {
-
-          @Override
-          protected boolean removeEldestEntry(Map.Entry<Long, ArrayList<KhaosBlock>> entry) {
-            long minNum = Long.max(0L, head.num - maxCapcity);
-            Map<Long, ArrayList<KhaosBlock>> minNumMap = numKblkMap.entrySet().stream()
-                .filter(e -> e.getKey() < minNum)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-            minNumMap.forEach((k, v) -> {
-              numKblkMap.remove(k);
-              v.forEach(b -> hashKblkMap.remove(b.id));
-            });
-
-            return false;
-          }
-        };
+    private TreeMap<Long, ArrayList<KhaosBlock>> numKblkMap = new TreeMap<>();
 
     public void setMaxCapcity(int maxCapcity) {
       this.maxCapcity = maxCapcity;
@@ -106,6 +130,29 @@ public class KhaosDatabase extends GscDatabase {
     public void insert(KhaosBlock block) {
       hashKblkMap.put(block.id, block);
       numKblkMap.computeIfAbsent(block.num, listBlk -> new ArrayList<>()).add(block);
+      prune();
+    }
+
+    /**
+     * Drop the blocks more than maxCapcity below the head, a bound for when the solidified
+     * block does not move.
+     */
+    private void prune() {
+      if (head != null) {
+        pruneBelow(head.num - maxCapcity);
+      }
+    }
+
+    /**
+     * Drop the blocks numbered below {@code num}.
+     */
+    void pruneBelow(long num) {
+      NavigableMap<Long, ArrayList<KhaosBlock>> below = numKblkMap.headMap(num, false);
+      below.values().forEach(listBlk -> listBlk.forEach(b -> {
+        hashKblkMap.remove(b.id);
+        b.detach();
+      }));
+      below.clear();
     }
 
     public boolean remove(Sha256Hash hash) {
@@ -124,11 +171,27 @@ public class KhaosDatabase extends GscDatabase {
         }
 
         this.hashKblkMap.remove(hash);
+        block.detach();
         return true;
       }
       return false;
     }
 
+    /**
+     * A block with the highest number, or null if the store is empty.
+     */
+    KhaosBlock getHighest() {
+      Map.Entry<Long, ArrayList<KhaosBlock>> highest = numKblkMap.lastEntry();
+      return highest == null ? null : highest.getValue().get(0);
+    }
+
+    /**
+     * The lowest block number in the store, or Long.MAX_VALUE if it is empty.
+     */
+    long getLowestNum() {
+      return numKblkMap.isEmpty() ? Long.MAX_VALUE : numKblkMap.firstKey();
+    }
+
     public List<KhaosBlock> getBlockByNum(Long num) {
       return numKblkMap.get(num);
     }
@@ -145,6 +208,9 @@ public class KhaosDatabase extends GscDatabase {
 
   private KhaosBlock head;
 
+  // number of the block the tree was started from, the origin of the skip numbers
+  private long baseNum;
+
   @Getter
   private KhaosStore miniStore = new KhaosStore();
 
@@ -176,23 +242,73 @@ public class KhaosDatabase extends GscDatabase {
 
   void start(BlockWrapper blk) {
     this.head = new KhaosBlock(blk);
+    this.baseNum = blk.getNum();
     miniStore.insert(this.head);
   }
 
+  /**
+   * Number of the skip ancestor of block {@code num}: the skip list of a block chain, with
+   * heights counted from the start block.
+   */
+  private long skipNum(long num) {
+    long height = num - baseNum;
+    if (height < 2) {
+      return baseNum;
+    }
+    long skipHeight = (height & 1) == 0
+        ? invertLowestOne(height)
+        : invertLowestOne(invertLowestOne(height - 1)) + 1;
+    return baseNum + skipHeight;
+  }
+
+  private static long invertLowestOne(long n) {
+    return n & (n - 1);
+  }
+
+  private void linkParent(KhaosBlock block, KhaosBlock parent) {
+    block.setParent(parent);
+    long target = Long.max(skipNum(block.num), miniStore.getLowestNum());
+    block.skip = target < parent.num ? parent.getAncestor(target) : null;
+  }
+
+  /**
+   * The most recent block both blocks descend from, or null if they share none in the store.
+   */
+  KhaosBlock getCommonAncestor(KhaosBlock kblk1, KhaosBlock kblk2) {
+    if (kblk1.num > kblk2.num) {
+      kblk1 = kblk1.getAncestor(kblk2.num);
+    } else if (kblk2.num > kblk1.num) {
+      kblk2 = kblk2.getAncestor(kblk1.num);
+    }
+
+    while (kblk1 != null && kblk2 != null && kblk1 != kblk2) {
+      KhaosBlock skip1 = kblk1.skip;
+      KhaosBlock skip2 = kblk2.skip;
+      if (skip1 != null && skip2 != null && skip1 != skip2 && skip1.num == skip2.num
+          && !skip1.removed && !skip2.removed) {
+        kblk1 = skip1;
+        kblk2 = skip2;
+      } else {
+        kblk1 = kblk1.parent;
+        kblk2 = kblk2.parent;
+      }
+    }
+    return kblk1 == null || kblk2 == null || kblk1.removed ? null : kblk1;
+  }
+
   void setHead(KhaosBlock blk) {
     this.head = blk;
   }
 
-  void removeBlk(Sha256Hash hash) {
+  public void removeBlk(Sha256Hash hash) {
     if (!miniStore.remove(hash)) {
       miniUnlinkedStore.remove(hash);
     }
 
-    head = miniStore.numKblkMap.entrySet().stream()
-        .max(Comparator.comparingLong(Map.Entry::getKey))
-        .map(Map.Entry::getValue)
-        .map(list -> list.get(0))
-        .orElseThrow(() -> new RuntimeException("khaosDB head should not be null."));
+    head = miniStore.getHighest();
+    if (head == null) {
+      throw new RuntimeException("khaosDB head should not be null.");
+    }
   }
 
   /**
@@ -230,7 +346,7 @@ public class KhaosDatabase extends GscDatabase {
           throw new BadNumberBlockException(
               "parent number :" + kblock.num + ",block number :" + blk.getNum());
         }
-        block.setParent(kblock);
+        linkParent(block, kblock);
       } else {
         miniUnlinkedStore.insert(block);
         throw new UnLinkedBlockException();
@@ -261,6 +377,14 @@ public class KhaosDatabase extends GscDatabase {
     return false;
   }
 
+  /**
+   * Drop the blocks below the solidified block, which no fork can reach back past.
+   */
+  public void pruneBelow(long solidifiedNum) {
+    miniStore.pruneBelow(solidifiedNum);
+    miniUnlinkedStore.pruneBelow(solidifiedNum);
+  }
+
   public void setMaxSize(int maxSize) {
     miniUnlinkedStore.setMaxCapcity(maxSize);
     miniStore.setMaxCapcity(maxSize);
@@ -278,32 +402,23 @@ public class KhaosDatabase extends GscDatabase {
     KhaosBlock kblk2 = miniStore.getByHash(block2);
     checkNull(kblk2);
 
-    while (kblk1.num > kblk2.num) {
-      list1.add(kblk1);
-      kblk1 = kblk1.getParent();
-      checkNull(kblk1);
-      checkNull(miniStore.getByHash(kblk1.id));
-    }
+    KhaosBlock common = getCommonAncestor(kblk1, kblk2);
+    checkNull(common);
+    collectBranch(kblk1, common, list1);
+    collectBranch(kblk2, common, list2);
 
-    while (kblk2.num > kblk1.num) {
-      list2.add(kblk2);
-      kblk2 = kblk2.getParent();
-      checkNull(kblk2);
-      checkNull(miniStore.getByHash(kblk2.id));
-    }
+    return new Pair<>(list1, list2);
+  }
 
-    while (!Objects.equals(kblk1, kblk2)) {
-      list1.add(kblk1);
-      list2.add(kblk2);
-      kblk1 = kblk1.getParent();
-      checkNull(kblk1);
-      checkNull(miniStore.getByHash(kblk1.id));
-      kblk2 = kblk2.getParent();
-      checkNull(kblk2);
-      checkNull(miniStore.getByHash(kblk2.id));
+  private void collectBranch(KhaosBlock from, KhaosBlock to, LinkedList<KhaosBlock> branch)
+      throws NonCommonBlockException {
+    for (KhaosBlock kblk = from; kblk != to; kblk = kblk.getParent()) {
+      checkNull(kblk);
+      if (kblk.removed) {
+        throw new NonCommonBlockException();
+      }
+      branch.add(kblk);
     }
-
-    return new Pair<>(list1, list2);
   }
 
   private void checkNull(Object o) throws NonCommonBlockException {
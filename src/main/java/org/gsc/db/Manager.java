@@ -134,10 +134,33 @@ public class Manager {
 
   private ExecutorService validateSignService;
 
+  private ParallelTransactionExecutor transactionExecutor;
+
+  @Getter
+  private final StateLock stateLock = new StateLock();
+
+  private TransactionAdmissionQueue admissionQueue;
+
+  // set while the transactions of a block are processed, see processBlock
+  private volatile BandwidthProcessor blockBandwidthProcessor;
+
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder
       .newBuilder().maximumSize(100_000).recordStats().build();
 
+  @Getter
+  private RecentTransactionFilter recentTransactionFilter = new RecentTransactionFilter();
+
+  @Getter
+  private SolidifiedBlockTracker solidifiedBlockTracker;
+
+  // id of the latest solidified block, looked up again only when the number moves
+  private volatile BlockId solidBlockId;
+
+  // set by updateDynamicProperties; checked against the stored head id, so a head revoked by
+  // a fork switch or a failed block is loaded again from the block store
+  private volatile BlockWrapper headBlock;
+
   public WitnessStore getWitnessStore() {
     return this.witnessStore;
   }
@@ -166,7 +189,7 @@ public class Manager {
     return this.votesStore;
   }
 
-  public List<TransactionWrapper> getPendingTransactions() {
+  public PendingTransactionPool getPendingTransactions() {
     return this.pendingTransactions;
   }
 
@@ -175,7 +198,7 @@ public class Manager {
   }
 
   // transactions cache
-  private List<TransactionWrapper> pendingTransactions;
+  private PendingTransactionPool pendingTransactions;
 
   // transactions popped
   private List<TransactionWrapper> popedTransactions =
@@ -188,15 +211,23 @@ public class Manager {
 
   // for test only
   public void addWitness(final ByteString address) {
-    List<ByteString> witnessAddresses = witnessController.getActiveWitnesses();
+    List<ByteString> witnessAddresses = new ArrayList<>(witnessController.getActiveWitnesses());
     witnessAddresses.add(address);
     witnessController.setActiveWitnesses(witnessAddresses);
   }
 
   public BlockWrapper getHead() throws HeaderNotFound {
+    BlockWrapper head = headBlock;
+    if (head != null
+        && head.getNum() == getDynamicPropertiesStore().getLatestBlockHeaderNumber()
+        && head.getBlockId().equals(getDynamicPropertiesStore().getLatestBlockHeaderHash())) {
+      return head;
+    }
+
     List<BlockWrapper> blocks = getBlockStore().getBlockByLatestNum(1);
     if (CollectionUtils.isNotEmpty(blocks)) {
-      return blocks.get(0);
+      headBlock = blocks.get(0);
+      return headBlock;
     } else {
       logger.info("Header block Not Found");
       throw new HeaderNotFound("Header block Not Found");
@@ -252,7 +283,9 @@ public class Manager {
     revokingStore = RevokingStore.getInstance();
     revokingStore.disable();
     this.setWitnessController(WitnessController.createInstance(this));
-    this.pendingTransactions = Collections.synchronizedList(Lists.newArrayList());
+    this.solidifiedBlockTracker = new SolidifiedBlockTracker(witnessStore, witnessScheduleStore);
+    this.pendingTransactions = new PendingTransactionPool(NodeConstant.MAX_TRANSACTION_PENDING,
+        NodeConstant.MAX_TRANSACTION_PENDING_BYTES);
     this.initGenesis();
     try {
       this.khaosDb.start(getBlockById(getDynamicPropertiesStore().getLatestBlockHeaderHash()));
@@ -274,9 +307,40 @@ public class Manager {
       System.exit(1);
     }
     revokingStore.enable();
+    this.initRecentTransactionFilter();
 
     validateSignService = Executors
         .newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    transactionExecutor = new ParallelTransactionExecutor(this,
+        Args.getInstance().getApplyThreadNum());
+    admissionQueue = new TransactionAdmissionQueue(this, NodeConstant.MAX_TRANSACTION_PENDING);
+  }
+
+  /**
+   * Put the transactions of the blocks that may still hold unexpired ones into the filter,
+   * walking back from the head in the background.
+   */
+  private void initRecentTransactionFilter() {
+    long headNum = getDynamicPropertiesStore().getLatestBlockHeaderNumber();
+    long solidNum = getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
+    Thread rebuild = new Thread(() -> {
+      try {
+        long since = getBlockByNum(solidNum).getTimeStamp() - Constant.MAXIMUM_TIME_UNTIL_EXPIRATION;
+        for (long num = headNum; num > 0; num--) {
+          BlockWrapper block = getBlockByNum(num);
+          if (block.getTimeStamp() <= since) {
+            break;
+          }
+          block.getTransactions().forEach(trx -> recentTransactionFilter
+              .put(trx.getTransactionId().getBytes(), trx.getExpiration()));
+        }
+        recentTransactionFilter.setReady();
+      } catch (ItemNotFoundException | BadItemException e) {
+        logger.warn("recent transaction filter disabled: " + e.getMessage());
+      }
+    }, "recent-trx-filter");
+    rebuild.setDaemon(true);
+    rebuild.start();
   }
 
   public BlockId getGenesisBlockId() {
@@ -422,29 +486,28 @@ public class Manager {
   }
 
   void validateTapos(TransactionWrapper transactionWrapper) throws TaposException {
-    byte[] refBlockHash = transactionWrapper.getInstance()
-        .getRawData().getRefBlockHash().toByteArray();
-    byte[] refBlockNumBytes = transactionWrapper.getInstance()
-        .getRawData().getRefBlockBytes().toByteArray();
-    try {
-      byte[] blockHash = this.recentBlockStore.get(refBlockNumBytes).getData();
-      if (Arrays.equals(blockHash, refBlockHash)) {
-        return;
-      } else {
-        String str = String.format(
-            "Tapos failed, different block hash, %s, %s , recent block %s, solid block %s head block %s",
-            ByteArray.toLong(refBlockNumBytes), Hex.toHexString(refBlockHash),
-            Hex.toHexString(blockHash),
-            getSolidBlockId().getString(), getHeadBlockId().getString()).toString();
-        logger.info(str);
-        throw new TaposException(str);
+    ByteString refBlockHash = transactionWrapper.getInstance().getRawData().getRefBlockHash();
+    ByteString refBlockNumBytes = transactionWrapper.getInstance().getRawData().getRefBlockBytes();
+    TaposRing taposRing = this.recentBlockStore.getTaposRing();
+    if (taposRing.matches(refBlockNumBytes, refBlockHash)) {
+      return;
+    }
 
-      }
-    } catch (ItemNotFoundException e) {
+    if (taposRing.contains(refBlockNumBytes)) {
+      String str = String.format(
+          "Tapos failed, different block hash, %s, %s , recent block %s, solid block %s head block %s",
+          ByteArray.toLong(refBlockNumBytes.toByteArray()),
+          Hex.toHexString(refBlockHash.toByteArray()),
+          Hex.toHexString(this.recentBlockStore.getDbSource().getData(refBlockNumBytes.toByteArray())),
+          getSolidBlockId().getString(), getHeadBlockId().getString());
+      logger.info(str);
+      throw new TaposException(str);
+    } else {
       String str = String.
           format("Tapos failed, block not found, ref block %s, %s , solid block %s head block %s",
-              ByteArray.toLong(refBlockNumBytes), Hex.toHexString(refBlockHash),
-              getSolidBlockId().getString(), getHeadBlockId().getString()).toString();
+              ByteArray.toLong(refBlockNumBytes.toByteArray()),
+              Hex.toHexString(refBlockHash.toByteArray()),
+              getSolidBlockId().getString(), getHeadBlockId().getString());
       logger.info(str);
       throw new TaposException(str);
     }
@@ -467,6 +530,10 @@ public class Manager {
   }
 
   void validateDup(TransactionWrapper transactionWrapper) throws DupTransactionException {
+    if (!recentTransactionFilter.mightContain(transactionWrapper.getTransactionId().getBytes(),
+        transactionWrapper.getExpiration())) {
+      return;
+    }
     try {
       if (getTransactionStore().get(transactionWrapper.getTransactionId().getBytes()) != null) {
         logger.debug(ByteArray.toHexString(transactionWrapper.getTransactionId().getBytes()));
@@ -478,6 +545,22 @@ public class Manager {
     }
   }
 
+  /**
+   * Check the signature of a received transaction on the calling thread, then hand it to the
+   * state writer and wait for it to be pushed.
+   *
+   * @return false when the node is too busy to take it
+   */
+  public boolean admitTransaction(final TransactionWrapper trx)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, DupTransactionException, TaposException,
+      TooBigTransactionException, TransactionExpirationException {
+    if (!trx.validateSignature()) {
+      throw new ValidateSignatureException("trans sig validate failed");
+    }
+    return admissionQueue.admit(trx);
+  }
+
   /**
    * push transaction into db.
    */
@@ -491,7 +574,13 @@ public class Manager {
     }
 
     //validateFreq(trx);
-    synchronized (this) {
+    stateLock.lock();
+    try {
+      if (!pendingTransactions.hasRoom(trx)) {
+        logger.debug("pending transaction pool is full, {}", pendingTransactions);
+        return false;
+      }
+
       if (!dialog.valid()) {
         dialog.setValue(revokingStore.buildDialog());
       }
@@ -501,6 +590,8 @@ public class Manager {
         pendingTransactions.add(trx);
         tmpDialog.merge();
       }
+    } finally {
+      stateLock.unlock();
     }
     return true;
   }
@@ -508,7 +599,10 @@ public class Manager {
 
   public void consumeBandwidth(TransactionWrapper trx, TransactionResultWrapper ret)
       throws ContractValidateException, AccountResourceInsufficientException {
-    BandwidthProcessor processor = new BandwidthProcessor(this);
+    BandwidthProcessor processor = blockBandwidthProcessor;
+    if (processor == null) {
+      processor = new BandwidthProcessor(this);
+    }
     processor.consumeBandwidth(trx, ret);
   }
 
@@ -650,13 +744,26 @@ public class Manager {
 
   // TODO: if error need to rollback.
 
-  private synchronized void filterPendingTrx(List<TransactionWrapper> listTrx) {
+  private void filterPendingTrx(List<TransactionWrapper> listTrx) {
   }
 
   /**
    * save a block.
    */
-  public synchronized void pushBlock(final BlockWrapper block)
+  public void pushBlock(final BlockWrapper block)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException,
+      TaposException, TooBigTransactionException, DupTransactionException, TransactionExpirationException,
+      BadNumberBlockException, BadBlockException, NonCommonBlockException {
+    stateLock.lock();
+    try {
+      pushBlockLocked(block);
+    } finally {
+      stateLock.unlock();
+    }
+  }
+
+  private void pushBlockLocked(final BlockWrapper block)
       throws ValidateSignatureException, ContractValidateException, ContractExeException,
       UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException,
       TaposException, TooBigTransactionException, DupTransactionException, TransactionExpirationException,
@@ -664,7 +771,7 @@ public class Manager {
 
     try (PendingManager pm = new PendingManager(this)) {
 
-      if (!block.generatedByMyself) {
+      if (!block.generatedByMyself && !block.isVerified()) {
         if (!block.validateSignature()) {
           logger.warn("The signature is not validated.");
           throw new BadBlockException("The signature is not validated");
@@ -782,13 +889,13 @@ public class Manager {
 
     this.dynamicPropertiesStore.saveLatestBlockHeaderNumber(block.getNum());
     this.dynamicPropertiesStore.saveLatestBlockHeaderTimestamp(block.getTimeStamp());
+    headBlock = block;
 
-    ((AbstractRevokingStore) revokingStore)
-        .setMaxSize(
-            (int)
-                (dynamicPropertiesStore.getLatestBlockHeaderNumber()
-                    - dynamicPropertiesStore.getLatestSolidifiedBlockNum()
-                    + 1));
+    revokingStore.setMaxSize(
+        (int)
+            (dynamicPropertiesStore.getLatestBlockHeaderNumber()
+                - dynamicPropertiesStore.getLatestSolidifiedBlockNum()
+                + 1));
     khaosDb.setMaxSize((int)
         (dynamicPropertiesStore.getLatestBlockHeaderNumber()
             - dynamicPropertiesStore.getLatestSolidifiedBlockNum()
@@ -877,6 +984,18 @@ public class Manager {
       throws ValidateSignatureException, ContractValidateException, ContractExeException,
       AccountResourceInsufficientException, TransactionExpirationException, TooBigTransactionException,
       DupTransactionException, TaposException {
+    return processTransaction(trxCap, null);
+  }
+
+  /**
+   * Process transaction, consuming its bandwidth within {@code turn} when the transactions of a
+   * block are applied in parallel.
+   */
+  public boolean processTransaction(final TransactionWrapper trxCap,
+      final ParallelTransactionExecutor.BandwidthTurn turn)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException, TooBigTransactionException,
+      DupTransactionException, TaposException {
 
     if (trxCap == null) {
       return false;
@@ -898,7 +1017,16 @@ public class Manager {
     final List<Operator> actuatorList = OperatorFactory.createActuator(trxCap, this);
     TransactionResultWrapper ret = new TransactionResultWrapper();
 
-    consumeBandwidth(trxCap, ret);
+    if (turn == null) {
+      consumeBandwidth(trxCap, ret);
+    } else {
+      turn.take();
+      try {
+        consumeBandwidth(trxCap, ret);
+      } finally {
+        turn.pass();
+      }
+    }
 
     for (Operator act : actuatorList) {
       act.validate();
@@ -907,6 +1035,7 @@ public class Manager {
     trxCap.setResult(ret);
 
     transactionStore.put(trxCap.getTransactionId().getBytes(), trxCap);
+    recentTransactionFilter.put(trxCap.getTransactionId().getBytes(), trxCap.getExpiration());
     if (Args.getInstance().isSolidityNode()) {
       TransactionInfoWrapper transactionInfoWrapper = new TransactionInfoWrapper();
       transactionInfoWrapper.setId(trxCap.getTransactionId().getBytes());
@@ -930,7 +1059,19 @@ public class Manager {
   /**
    * Generate a block.
    */
-  public synchronized BlockWrapper generateBlock(
+  public BlockWrapper generateBlock(
+          final WitnessWrapper witnessWrapper, final long when, final byte[] privateKey)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException {
+    stateLock.lock();
+    try {
+      return generateBlockLocked(witnessWrapper, when, privateKey);
+    } finally {
+      stateLock.unlock();
+    }
+  }
+
+  private BlockWrapper generateBlockLocked(
           final WitnessWrapper witnessWrapper, final long when, final byte[] privateKey)
       throws ValidateSignatureException, ContractValidateException, ContractExeException,
       UnLinkedBlockException, ValidateScheduleException, AccountResourceInsufficientException {
@@ -950,16 +1091,17 @@ public class Manager {
         new BlockWrapper(number + 1, preHash, when, witnessWrapper.getAddress());
     dialog.reset();
     dialog.setValue(revokingStore.buildDialog());
-    Iterator iterator = pendingTransactions.iterator();
+    pendingTransactions.evictExpired(timestamp);
+    Iterator<TransactionWrapper> iterator = pendingTransactions.snapshot().iterator();
     while (iterator.hasNext()) {
-      TransactionWrapper trx = (TransactionWrapper) iterator.next();
+      TransactionWrapper trx = iterator.next();
       if (DateTime.now().getMillis() - when
           > ChainConstant.BLOCK_PRODUCED_INTERVAL * 0.5 * ChainConstant.BLOCK_PRODUCED_TIME_OUT) {
         logger.warn("Processing transaction time exceeds the 50% producing time。");
         break;
       }
       // check the block size
-      if ((blockWrapper.getInstance().getSerializedSize() + trx.getSerializedSize() + 3)
+      if ((blockWrapper.getSerializedSize() + trx.getSerializedSize() + 3)
           > ChainConstant.BLOCK_SIZE) {
         postponedTrxCount++;
         continue;
@@ -971,7 +1113,7 @@ public class Manager {
         tmpDialog.merge();
         // push into block
         blockWrapper.addTransaction(trx);
-        iterator.remove();
+        pendingTransactions.remove(trx);
       } catch (ContractExeException e) {
         logger.info("contract not processed during execute");
         logger.debug(e.getMessage(), e);
@@ -1083,11 +1225,22 @@ public class Manager {
       throw new ValidateScheduleException("validateWitnessSchedule error");
     }
 
-    for (TransactionWrapper transactionWrapper : block.getTransactions()) {
-      if (block.generatedByMyself) {
-        transactionWrapper.setVerified(true);
-      }
-      processTransaction(transactionWrapper);
+    if (block.generatedByMyself) {
+      block.getTransactions().forEach(trx -> trx.setVerified(true));
+    }
+    // accounts and assets touched by several transactions are written once, when all of the
+    // block's transactions are through; a failing block drops them with its dialog
+    accountStore.openWriteBack();
+    assetIssueStore.openWriteBack();
+    blockBandwidthProcessor = BandwidthProcessor.forBlock(this);
+    try {
+      transactionExecutor.execute(block.getTransactions());
+      accountStore.flushWriteBack();
+      assetIssueStore.flushWriteBack();
+    } finally {
+      blockBandwidthProcessor = null;
+      accountStore.discardWriteBack();
+      assetIssueStore.discardWriteBack();
     }
 
     boolean needMaint = needMaintenance(block.getTimeStamp());
@@ -1123,31 +1276,31 @@ public class Manager {
    * update the latest solidified block.
    */
   public void updateLatestSolidifiedBlock() {
-    List<Long> numbers =
-        witnessController
-            .getActiveWitnesses()
-            .stream()
-            .map(address -> witnessController.getWitnesseByAddress(address).getLatestBlockNum())
-            .sorted()
-            .collect(Collectors.toList());
-
-    long size = witnessController.getActiveWitnesses().size();
-    int solidifiedPosition = (int) (size * (1 - ChainConstant.SOLIDIFIED_THRESHOLD));
-    if (solidifiedPosition < 0) {
-      logger.warn(
-          "updateLatestSolidifiedBlock error, solidifiedPosition:{},wits.size:{}",
-          solidifiedPosition,
-          size);
+    long latestSolidifiedBlockNum = solidifiedBlockTracker.getSolidifiedBlockNum();
+    if (latestSolidifiedBlockNum < 0) {
+      logger.warn("updateLatestSolidifiedBlock error, no active witnesses");
       return;
     }
-    long latestSolidifiedBlockNum = numbers.get(solidifiedPosition);
     //if current value is less than the previous value，keep the previous value.
     if (latestSolidifiedBlockNum < getDynamicPropertiesStore().getLatestSolidifiedBlockNum()) {
-      logger.warn("latestSolidifiedBlockNum = 0,LatestBlockNum:{}", numbers);
+      logger.warn("latestSolidifiedBlockNum = 0,LatestBlockNum:{}",
+          Arrays.toString(solidifiedBlockTracker.getLatestBlockNums()));
       return;
     }
     getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(latestSolidifiedBlockNum);
     logger.info("update solid block, num = {}", latestSolidifiedBlockNum);
+    khaosDb.pruneBelow(latestSolidifiedBlockNum);
+    // the solidified block is no later than the head, so it is only read once the head is past
+    // the end of a partition, a few blocks per hour
+    if (!recentTransactionFilter
+        .hasExpired(getDynamicPropertiesStore().getLatestBlockHeaderTimestamp())) {
+      return;
+    }
+    try {
+      recentTransactionFilter.expire(getBlockByNum(latestSolidifiedBlockNum).getTimeStamp());
+    } catch (ItemNotFoundException | BadItemException e) {
+      logger.debug(e.getMessage(), e);
+    }
   }
 
   public long getSyncBeginNumber() {
@@ -1162,7 +1315,13 @@ public class Manager {
   public BlockId getSolidBlockId() {
     try {
       long num = dynamicPropertiesStore.getLatestSolidifiedBlockNum();
-      return getBlockIdByNum(num);
+      BlockId cached = solidBlockId;
+      if (cached != null && cached.getNum() == num) {
+        return cached;
+      }
+      // a solidified number always maps to the same block, so the id can be kept
+      solidBlockId = getBlockIdByNum(num);
+      return solidBlockId;
     } catch (Exception e) {
       return getGenesisBlockId();
     }
@@ -1205,6 +1364,7 @@ public class Manager {
     }
 
     this.getWitnessStore().put(witnessWrapper.getAddress().toByteArray(), witnessWrapper);
+    solidifiedBlockTracker.update(witnessWrapper.getAddress(), block.getNum());
 
     try {
       adjustAllowance(witnessWrapper.getAddress().toByteArray(), ChainConstant.WITNESS_PAY_PER_BLOCK);
@@ -1257,6 +1417,16 @@ public class Manager {
   }
 
   public void closeAllStore() {
+    // init may have stopped before starting them
+    if (admissionQueue != null) {
+      admissionQueue.shutdown();
+    }
+    if (transactionExecutor != null) {
+      transactionExecutor.shutdown();
+    }
+    if (validateSignService != null) {
+      validateSignService.shutdown();
+    }
     System.err.println("******** begin to close db ********");
     closeOneStore(accountStore);
     closeOneStore(blockStore);
@@ -1282,14 +1452,6 @@ public class Manager {
     }
   }
 
-  public boolean isTooManyPending() {
-    if (getPendingTransactions().size() + PendingManager.getTmpTransactions().size()
-        > NodeConstant.MAX_TRANSACTION_PENDING) {
-      return true;
-    }
-    return false;
-  }
-
   public boolean isGeneratingBlock() {
     if (Args.getInstance().isWitness()) {
       return witnessController.isGeneratingBlock();
@@ -1320,15 +1482,25 @@ public class Manager {
     }
   }
 
-  public synchronized void preValidateTransactionSign(BlockWrapper block)
+  public void preValidateTransactionSign(BlockWrapper block)
       throws InterruptedException, ValidateSignatureException {
     logger.info("PreValidate Transaction Sign, size:" + block.getTransactions().size()
         + ",block num:" + block.getNum());
-    int transSize = block.getTransactions().size();
+    // signatures recovered before, most of them when the transaction was pushed, are checked
+    // here instead of going through the pool
+    List<TransactionWrapper> toRecover = new ArrayList<>();
+    for (TransactionWrapper transaction : block.getTransactions()) {
+      if (transaction.isSignatureCached()) {
+        transaction.validateSignature();
+      } else {
+        toRecover.add(transaction);
+      }
+    }
+    int transSize = toRecover.size();
     CountDownLatch countDownLatch = new CountDownLatch(transSize);
     List<Future<Boolean>> futures = new ArrayList<>(transSize);
 
-    for (TransactionWrapper transaction : block.getTransactions()) {
+    for (TransactionWrapper transaction : toRecover) {
       Future<Boolean> future = validateSignService
           .submit(new ValidateSignTask(transaction, countDownLatch));
       futures.add(future);
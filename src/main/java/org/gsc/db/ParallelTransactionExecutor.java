@@ -0,0 +1,379 @@
+package org.gsc.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gsc.core.exception.AccountResourceInsufficientException;
+import org.gsc.core.exception.ContractExeException;
+import org.gsc.core.exception.ContractValidateException;
+import org.gsc.core.exception.DupTransactionException;
+import org.gsc.core.exception.TaposException;
+import org.gsc.core.exception.TooBigTransactionException;
+import org.gsc.core.exception.TransactionExpirationException;
+import org.gsc.core.exception.ValidateSignatureException;
+import org.gsc.core.wrapper.AssetIssueWrapper;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.protos.Contract.TransferAssetContract;
+import org.gsc.protos.Contract.TransferContract;
+import org.gsc.protos.Protocol.Transaction.Contract;
+
+/**
+ * Applies the transactions of a block on several threads with the same outcome as applying
+ * them one by one in block order.
+ *
+ * <p>Transfers touch only the accounts, and for assets the asset, named in their contract, so
+ * transfers sharing none of those are independent; they are grouped into partitions and the
+ * partitions spread over lanes, each lane applying its transactions in block order. Two things
+ * keep the result that of the serial order:
+ * <ul>
+ * <li>bandwidth accounting reads and writes the public net usage and the fee totals shared by
+ * every transaction, so each transaction waits for all earlier ones to be through it;</li>
+ * <li>any other contract may touch state shared more widely, so it waits for all earlier
+ * transactions and all later ones wait for it.</li>
+ * </ul>
+ * The store writes all go through the revoking store, which is safe across threads, so the
+ * block dialog still undoes the whole block. When a transaction fails, the one failing first in
+ * block order is rethrown, as the serial loop would have.
+ */
+public class ParallelTransactionExecutor {
+
+  // blocks with fewer transactions are applied on the calling thread
+  private static final int PARALLEL_THRESHOLD = 64;
+
+  private static final byte ACCOUNT_KEY = 'a';
+  private static final byte ASSET_KEY = 's';
+
+  private final Manager manager;
+  private final int laneCount;
+  private final ExecutorService lanes;
+
+  public ParallelTransactionExecutor(Manager manager, int laneCount) {
+    this.manager = manager;
+    this.laneCount = Math.max(1, laneCount);
+    this.lanes = Executors.newFixedThreadPool(this.laneCount,
+        new ThreadFactoryBuilder().setNameFormat("ApplyTransactions-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Taken by a transaction around its bandwidth accounting.
+   */
+  public interface BandwidthTurn {
+
+    void take();
+
+    void pass();
+  }
+
+  public void shutdown() {
+    lanes.shutdown();
+  }
+
+  public void execute(List<TransactionWrapper> transactions)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, DupTransactionException, TaposException {
+    if (laneCount < 2 || transactions.size() < PARALLEL_THRESHOLD) {
+      for (TransactionWrapper trx : transactions) {
+        manager.processTransaction(trx);
+      }
+      return;
+    }
+
+    List<Set<ByteString>> accesses = new ArrayList<>(transactions.size());
+    transactions.forEach(trx -> accesses.add(access(trx)));
+    Run run = new Run(transactions, accesses);
+
+    List<Future<?>> futures = new ArrayList<>();
+    for (List<Integer> lane : assignLanes(accesses, laneCount)) {
+      if (!lane.isEmpty()) {
+        futures.add(lanes.submit(() -> run.apply(lane)));
+      }
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+    run.rethrowFailure();
+  }
+
+  /**
+   * Keys of the state the transaction reads and writes besides the shared bandwidth state, or
+   * null when it may touch more than it names and has to run alone.
+   */
+  Set<ByteString> access(TransactionWrapper trx) {
+    List<Contract> contracts = trx.getInstance().getRawData().getContractList();
+    if (contracts.size() != 1) {
+      return null;
+    }
+    Contract contract = contracts.get(0);
+    try {
+      Message decoded = trx.getContract(0);
+      switch (contract.getType()) {
+        case TransferContract: {
+          TransferContract transfer = (TransferContract) decoded;
+          return keys(account(transfer.getOwnerAddress()), account(transfer.getToAddress()));
+        }
+        case TransferAssetContract: {
+          TransferAssetContract transfer = (TransferAssetContract) decoded;
+          AssetIssueWrapper asset = manager.getAssetIssueStore()
+              .get(transfer.getAssetName().toByteArray());
+          if (asset == null) {
+            return null;
+          }
+          // bandwidth of asset transfers is charged to the issuer and the asset as well
+          return keys(account(transfer.getOwnerAddress()), account(transfer.getToAddress()),
+              asset(transfer.getAssetName()), account(asset.getOwnerAddress()));
+        }
+        default:
+          return null;
+      }
+    } catch (InvalidProtocolBufferException e) {
+      return null;
+    }
+  }
+
+  private static Set<ByteString> keys(ByteString... keys) {
+    Set<ByteString> set = new LinkedHashSet<>();
+    Collections.addAll(set, keys);
+    return set;
+  }
+
+  private static ByteString account(ByteString address) {
+    return ByteString.copyFrom(new byte[]{ACCOUNT_KEY}).concat(address);
+  }
+
+  private static ByteString asset(ByteString name) {
+    return ByteString.copyFrom(new byte[]{ASSET_KEY}).concat(name);
+  }
+
+  /**
+   * Group the transactions sharing keys into partitions and hand each partition, in order of
+   * its first transaction, to the lane with the fewest transactions so far. Transactions that
+   * run alone go to the first lane. Each lane lists its transactions in block order.
+   */
+  static List<List<Integer>> assignLanes(List<Set<ByteString>> accesses, int laneCount) {
+    int[] parent = new int[accesses.size()];
+    Map<ByteString, Integer> owners = new HashMap<>();
+    for (int i = 0; i < accesses.size(); i++) {
+      parent[i] = i;
+      if (accesses.get(i) == null) {
+        continue;
+      }
+      for (ByteString key : accesses.get(i)) {
+        Integer other = owners.putIfAbsent(key, i);
+        if (other != null) {
+          union(parent, other, i);
+        }
+      }
+    }
+
+    List<List<Integer>> lanes = new ArrayList<>();
+    for (int i = 0; i < laneCount; i++) {
+      lanes.add(new ArrayList<>());
+    }
+    Map<Integer, Integer> laneOfPartition = new HashMap<>();
+    for (int i = 0; i < accesses.size(); i++) {
+      if (accesses.get(i) == null) {
+        lanes.get(0).add(i);
+        continue;
+      }
+      Integer lane = laneOfPartition.get(find(parent, i));
+      if (lane == null) {
+        lane = 0;
+        for (int l = 1; l < laneCount; l++) {
+          if (lanes.get(l).size() < lanes.get(lane).size()) {
+            lane = l;
+          }
+        }
+        laneOfPartition.put(find(parent, i), lane);
+      }
+      lanes.get(lane).add(i);
+    }
+    return lanes;
+  }
+
+  private static int find(int[] parent, int i) {
+    while (parent[i] != i) {
+      parent[i] = parent[parent[i]];
+      i = parent[i];
+    }
+    return i;
+  }
+
+  private static void union(int[] parent, int a, int b) {
+    int rootA = find(parent, a);
+    int rootB = find(parent, b);
+    // the partition is named by its first transaction
+    if (rootA < rootB) {
+      parent[rootB] = rootA;
+    } else {
+      parent[rootA] = rootB;
+    }
+  }
+
+  /**
+   * Progress of one block, shared by its lanes.
+   */
+  private class Run {
+
+    private final List<TransactionWrapper> transactions;
+    private final boolean[] alone;
+    // index of the last transaction before each one that runs alone, or -1
+    private final int[] lastAloneBefore;
+    private final boolean[] finished;
+    private final boolean[] bandwidthPassed;
+    // every transaction below these indexes has finished, or is through its bandwidth
+    private int finishedUpTo;
+    private int bandwidthUpTo;
+    private int failedIndex = Integer.MAX_VALUE;
+    private Exception failure;
+
+    Run(List<TransactionWrapper> transactions, List<Set<ByteString>> accesses) {
+      int size = transactions.size();
+      this.transactions = transactions;
+      this.alone = new boolean[size];
+      this.lastAloneBefore = new int[size];
+      this.finished = new boolean[size];
+      this.bandwidthPassed = new boolean[size];
+      int lastAlone = -1;
+      for (int i = 0; i < size; i++) {
+        alone[i] = accesses.get(i) == null;
+        lastAloneBefore[i] = lastAlone;
+        if (alone[i]) {
+          lastAlone = i;
+        }
+      }
+    }
+
+    void apply(List<Integer> lane) {
+      for (int index : lane) {
+        if (!awaitStart(index)) {
+          return;
+        }
+        try {
+          manager.processTransaction(transactions.get(index), new BandwidthTurn() {
+            @Override
+            public void take() {
+              awaitBandwidth(index);
+            }
+
+            @Override
+            public void pass() {
+              passBandwidth(index);
+            }
+          });
+        } catch (Exception e) {
+          fail(index, e);
+          return;
+        } finally {
+          finish(index);
+        }
+      }
+    }
+
+    private synchronized boolean awaitStart(int index) {
+      int required = alone[index] ? index : lastAloneBefore[index] + 1;
+      while (index < failedIndex && finishedUpTo < required) {
+        await();
+      }
+      return index < failedIndex;
+    }
+
+    private synchronized void awaitBandwidth(int index) {
+      while (index < failedIndex && bandwidthUpTo < index) {
+        await();
+      }
+      if (index > failedIndex) {
+        throw new IllegalStateException("an earlier transaction failed");
+      }
+    }
+
+    private synchronized void passBandwidth(int index) {
+      bandwidthPassed[index] = true;
+      while (bandwidthUpTo < bandwidthPassed.length && bandwidthPassed[bandwidthUpTo]) {
+        bandwidthUpTo++;
+      }
+      notifyAll();
+    }
+
+    private synchronized void finish(int index) {
+      finished[index] = true;
+      while (finishedUpTo < finished.length && finished[finishedUpTo]) {
+        finishedUpTo++;
+      }
+      passBandwidth(index);
+    }
+
+    private synchronized void fail(int index, Exception e) {
+      if (index < failedIndex) {
+        failedIndex = index;
+        failure = e;
+      }
+      notifyAll();
+    }
+
+    private void await() {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+
+    synchronized void rethrowFailure()
+        throws ValidateSignatureException, ContractValidateException, ContractExeException,
+        AccountResourceInsufficientException, TransactionExpirationException,
+        TooBigTransactionException, DupTransactionException, TaposException {
+      if (failure == null) {
+        return;
+      }
+      if (failure instanceof ValidateSignatureException) {
+        throw (ValidateSignatureException) failure;
+      }
+      if (failure instanceof ContractValidateException) {
+        throw (ContractValidateException) failure;
+      }
+      if (failure instanceof ContractExeException) {
+        throw (ContractExeException) failure;
+      }
+      if (failure instanceof AccountResourceInsufficientException) {
+        throw (AccountResourceInsufficientException) failure;
+      }
+      if (failure instanceof TransactionExpirationException) {
+        throw (TransactionExpirationException) failure;
+      }
+      if (failure instanceof TooBigTransactionException) {
+        throw (TooBigTransactionException) failure;
+      }
+      if (failure instanceof DupTransactionException) {
+        throw (DupTransactionException) failure;
+      }
+      if (failure instanceof TaposException) {
+        throw (TaposException) failure;
+      }
+      if (failure instanceof RuntimeException) {
+        throw (RuntimeException) failure;
+      }
+      throw new IllegalStateException(failure);
+    }
+  }
+}
@@ -1,8 +1,6 @@
 package org.gsc.db;
 
-import java.util.ArrayList;
 import java.util.List;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.gsc.core.wrapper.TransactionWrapper;
 import org.gsc.core.exception.AccountResourceInsufficientException;
@@ -18,14 +16,12 @@ import org.gsc.core.exception.ValidateSignatureException;
 @Slf4j
 public class PendingManager implements AutoCloseable {
 
-  @Getter
-  static List<TransactionWrapper> tmpTransactions = new ArrayList<>();
+  private List<TransactionWrapper> tmpTransactions;
   Manager dbManager;
 
   public PendingManager(Manager db) {
     this.dbManager = db;
-    tmpTransactions.addAll(db.getPendingTransactions());
-    db.getPendingTransactions().clear();
+    tmpTransactions = db.getPendingTransactions().drain();
     db.getDialog().reset();
   }
 
@@ -34,7 +30,6 @@ public class PendingManager implements AutoCloseable {
     rePush(this.tmpTransactions);
     rePush(dbManager.getPoppedTransactions());
     dbManager.getPoppedTransactions().clear();
-    tmpTransactions.clear();
   }
 
   private void rePush(List<TransactionWrapper> txs) {
@@ -0,0 +1,166 @@
+package org.gsc.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.protos.Protocol.Transaction.Contract;
+
+/**
+ * Transactions applied to the pending state and waiting for a block, in arrival order.
+ * Indexed by id, owner address and expiration so a transaction is found or removed without
+ * walking the pool, and bounded both in count and in serialized bytes.
+ */
+@Slf4j
+public class PendingTransactionPool {
+
+  private final int maxCount;
+  private final long maxBytes;
+
+  private final LinkedHashMap<Sha256Hash, TransactionWrapper> transactions = new LinkedHashMap<>();
+  private final Map<ByteString, Set<Sha256Hash>> byOwner = new HashMap<>();
+  private final TreeMap<Long, Set<Sha256Hash>> byExpiration = new TreeMap<>();
+  private long bytes;
+  private long evictions;
+
+  public PendingTransactionPool(int maxCount, long maxBytes) {
+    this.maxCount = maxCount;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Whether the pool has room for {@code trx} as well.
+   */
+  public synchronized boolean hasRoom(TransactionWrapper trx) {
+    return transactions.size() < maxCount && bytes + trx.getSerializedSize() <= maxBytes;
+  }
+
+  public synchronized boolean isFull() {
+    return transactions.size() >= maxCount || bytes >= maxBytes;
+  }
+
+  /**
+   * Add a transaction after the ones already pending, unless it is pending already or the
+   * pool has no room for it.
+   */
+  public synchronized boolean add(TransactionWrapper trx) {
+    Sha256Hash id = trx.getTransactionId();
+    if (transactions.containsKey(id) || !hasRoom(trx)) {
+      return false;
+    }
+    transactions.put(id, trx);
+    bytes += trx.getSerializedSize();
+    owners(trx).forEach(owner -> byOwner.computeIfAbsent(owner, k -> new LinkedHashSet<>()).add(id));
+    byExpiration.computeIfAbsent(trx.getExpiration(), k -> new LinkedHashSet<>()).add(id);
+    return true;
+  }
+
+  public synchronized boolean remove(TransactionWrapper trx) {
+    TransactionWrapper removed = transactions.remove(trx.getTransactionId());
+    if (removed == null) {
+      return false;
+    }
+    unindex(removed);
+    return true;
+  }
+
+  public synchronized boolean contains(Sha256Hash id) {
+    return transactions.containsKey(id);
+  }
+
+  public synchronized List<TransactionWrapper> getByOwner(ByteString owner) {
+    return byOwner.getOrDefault(owner, Collections.emptySet()).stream()
+        .map(transactions::get)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * The pending transactions in order; the pool itself is left as it is.
+   */
+  public synchronized List<TransactionWrapper> snapshot() {
+    return new ArrayList<>(transactions.values());
+  }
+
+  /**
+   * Remove and return every pending transaction, in order.
+   */
+  public synchronized List<TransactionWrapper> drain() {
+    List<TransactionWrapper> drained = snapshot();
+    transactions.clear();
+    byOwner.clear();
+    byExpiration.clear();
+    bytes = 0;
+    return drained;
+  }
+
+  /**
+   * Evict the transactions that expire by {@code headBlockTime}, which no block can include.
+   */
+  public synchronized int evictExpired(long headBlockTime) {
+    NavigableMap<Long, Set<Sha256Hash>> expired = byExpiration.headMap(headBlockTime, true);
+    List<Sha256Hash> ids = expired.values().stream()
+        .flatMap(Set::stream)
+        .collect(Collectors.toList());
+    ids.forEach(id -> unindex(transactions.remove(id)));
+    evictions += ids.size();
+    if (!ids.isEmpty()) {
+      logger.info("evict {} expired pending transactions", ids.size());
+    }
+    return ids.size();
+  }
+
+  public synchronized int size() {
+    return transactions.size();
+  }
+
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  private void unindex(TransactionWrapper trx) {
+    Sha256Hash id = trx.getTransactionId();
+    bytes -= trx.getSerializedSize();
+    owners(trx).forEach(owner -> {
+      Set<Sha256Hash> ids = byOwner.get(owner);
+      if (ids != null && ids.remove(id) && ids.isEmpty()) {
+        byOwner.remove(owner);
+      }
+    });
+    Set<Sha256Hash> ids = byExpiration.get(trx.getExpiration());
+    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+      byExpiration.remove(trx.getExpiration());
+    }
+  }
+
+  private static List<ByteString> owners(TransactionWrapper trx) {
+    List<ByteString> owners = new ArrayList<>();
+    for (Contract contract : trx.getInstance().getRawData().getContractList()) {
+      byte[] owner = TransactionWrapper.getOwner(contract);
+      if (owner != null) {
+        owners.add(ByteString.copyFrom(owner));
+      }
+    }
+    return owners;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "pending transactions: " + transactions.size() + ", bytes: " + bytes
+        + ", evictions: " + evictions;
+  }
+}
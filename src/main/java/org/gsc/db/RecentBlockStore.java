@@ -1,5 +1,6 @@
 package org.gsc.db;
 
+import lombok.Getter;
 import org.apache.commons.lang3.ArrayUtils;
 import org.gsc.core.wrapper.BytesWrapper;
 import org.gsc.core.exception.ItemNotFoundException;
@@ -7,17 +8,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Persisted rows behind the {@link TaposRing}. The ring is loaded from them on open and
+ * follows every change of their data source, so revoke and pop restore its slots too.
+ */
 @Component
 public class RecentBlockStore extends GscStoreWithRevoking<BytesWrapper> {
 
+  @Getter
+  private final TaposRing taposRing = new TaposRing();
+
   @Autowired
   private RecentBlockStore(@Value("recent-block") String dbName) {
     super(dbName);
+    loadTaposRing();
+    dbSource.addChangeListener(this::onChanged);
   }
 
-  @Override
-  public void put(byte[] key, BytesWrapper item) {
-    super.put(key, item);
+  private void loadTaposRing() {
+    taposRing.clear();
+    dbSource.allKeys().forEach(this::onChanged);
+  }
+
+  private void onChanged(byte[] key) {
+    if (key == null) {
+      loadTaposRing();
+    } else if (key.length == TaposRing.REF_BLOCK_BYTES_LENGTH) {
+      taposRing.set(key, dbSource.getData(key));
+    }
   }
 
   @Override
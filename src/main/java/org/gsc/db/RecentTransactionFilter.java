@@ -0,0 +1,77 @@
+package org.gsc.db;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filters of the ids of applied transactions, one per span of expiration time.
+ *
+ * <p>A transaction id covers its expiration, so a duplicate expires at the same time as the
+ * original and only the partition of that expiration has to be asked. Once the solidified
+ * block is past the end of a partition, none of its transactions can be applied again and
+ * the partition is dropped. Filters keep false positives only: revoked transactions stay in
+ * them until they expire, and callers confirm a hit against the transaction store.
+ */
+@Slf4j
+public class RecentTransactionFilter {
+
+  private static final long PARTITION_SPAN = 60 * 60 * 1000L;
+  private static final int EXPECTED_INSERTIONS = 500_000;
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+  private final Map<Long, BloomFilter<byte[]>> partitions = new ConcurrentHashMap<>();
+  private volatile boolean ready;
+
+  public void put(byte[] transactionId, long expiration) {
+    partitions.computeIfAbsent(expiration / PARTITION_SPAN, partition -> BloomFilter
+        .create(Funnels.byteArrayFunnel(), EXPECTED_INSERTIONS, FALSE_POSITIVE_PROBABILITY))
+        .put(transactionId);
+  }
+
+  /**
+   * False only if no transaction with this id and expiration has been put; always true until
+   * the filter is marked ready.
+   */
+  public boolean mightContain(byte[] transactionId, long expiration) {
+    if (!ready) {
+      return true;
+    }
+    BloomFilter<byte[]> filter = partitions.get(expiration / PARTITION_SPAN);
+    return filter != null && filter.mightContain(transactionId);
+  }
+
+  /**
+   * Like {@link #mightContain(byte[], long)} for an id whose expiration is unknown.
+   */
+  public boolean mightContain(byte[] transactionId) {
+    return !ready || partitions.values().stream()
+        .anyMatch(filter -> filter.mightContain(transactionId));
+  }
+
+  /**
+   * Whether some partition has expired by {@code time}. Cheap, so the solidified block time
+   * need only be read for {@link #expire(long)} when the head block time passes this.
+   */
+  public boolean hasExpired(long time) {
+    return partitions.keySet().stream()
+        .anyMatch(partition -> (partition + 1) * PARTITION_SPAN <= time);
+  }
+
+  /**
+   * Drop the partitions whose transactions have all expired by {@code solidBlockTime}.
+   */
+  public void expire(long solidBlockTime) {
+    partitions.keySet().removeIf(partition -> (partition + 1) * PARTITION_SPAN <= solidBlockTime);
+  }
+
+  /**
+   * Called once every transaction that could still be a duplicate has been put.
+   */
+  public void setReady() {
+    ready = true;
+    logger.info("recent transaction filter ready, {} partitions", partitions.size());
+  }
+}
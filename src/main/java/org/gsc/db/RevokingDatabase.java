@@ -1,9 +1,12 @@
 package org.gsc.db;
 
+import org.gsc.common.storage.DbSourceInter;
 import org.gsc.core.exception.RevokingStoreIllegalStateException;
 
 public interface RevokingDatabase {
 
+  void add(DbSourceInter<byte[]> database);
+
   AbstractRevokingStore.Dialog buildDialog();
 
   AbstractRevokingStore.Dialog buildDialog(boolean forceEnable);
@@ -30,5 +33,7 @@ public interface RevokingDatabase {
 
   void disable();
 
+  void setMaxSize(int maxSize);
+
   void shutdown();
 }
@@ -1,21 +1,33 @@
 package org.gsc.db;
 
+import org.gsc.config.args.Args;
+import org.gsc.config.args.Storage;
+
 public class RevokingStore extends AbstractRevokingStore {
 
   private RevokingStore() {
   }
 
+  /**
+   * The engine {@code storage.revoking} names, read on each call so that a context built after
+   * the configuration changes, as in tests, gets the engine it asks for.
+   */
   public static RevokingDatabase getInstance() {
-    return RevokingEnum.INSTANCE.getInstance();
+    Storage storage = Args.getInstance().getStorage();
+    if (storage != null && Storage.SNAPSHOT_REVOKING.equals(storage.getRevoking())) {
+      return RevokingEnum.SNAPSHOT.getInstance();
+    }
+    return RevokingEnum.UNDO.getInstance();
   }
 
   private enum RevokingEnum {
-    INSTANCE;
+    UNDO(new RevokingStore()),
+    SNAPSHOT(new SnapshotRevokingStore());
 
     private RevokingDatabase instance;
 
-    RevokingEnum() {
-      instance = new RevokingStore();
+    RevokingEnum(RevokingDatabase instance) {
+      this.instance = instance;
     }
 
     private RevokingDatabase getInstance() {
@@ -0,0 +1,172 @@
+package org.gsc.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.gsc.common.storage.DbSourceInter;
+import org.gsc.core.exception.RevokingStoreIllegalStateException;
+import org.gsc.db.AbstractRevokingStore.Dialog;
+import org.gsc.db.AbstractRevokingStore.RevokingState;
+import org.gsc.db.AbstractRevokingStore.RevokingTuple;
+
+/**
+ * Keeps every dialog as an in-memory snapshot layer of each store instead of an undo log:
+ * revoke and pop drop the newest layer, and layers older than maxSize are written to
+ * leveldb in one batch per store.
+ */
+@Slf4j
+public class SnapshotRevokingStore implements RevokingDatabase {
+
+  private static final int DEFAULT_STACK_MAX_SIZE = 256;
+
+  private List<DbSourceInter<byte[]>> dbs = new ArrayList<>();
+  private boolean disabled = true;
+  private int activeDialog = 0;
+  private int size = 0;
+  private AtomicInteger maxSize = new AtomicInteger(DEFAULT_STACK_MAX_SIZE);
+
+  public SnapshotRevokingStore() {
+  }
+
+  @Override
+  public synchronized void add(DbSourceInter<byte[]> database) {
+    dbs.add(database);
+  }
+
+  @Override
+  public Dialog buildDialog() {
+    return buildDialog(false);
+  }
+
+  @Override
+  public synchronized Dialog buildDialog(boolean forceEnable) {
+    if (disabled && !forceEnable) {
+      return new Dialog(this);
+    }
+
+    boolean disableOnExit = disabled && forceEnable;
+    if (forceEnable) {
+      disabled = false;
+    }
+
+    while (size > maxSize.get() && size > activeDialog) {
+      dbs.forEach(DbSourceInter::solidifySnapshot);
+      --size;
+    }
+
+    dbs.forEach(DbSourceInter::pushSnapshot);
+    ++size;
+    ++activeDialog;
+    return new Dialog(this, disableOnExit);
+  }
+
+  // writes are captured by the snapshot layers themselves
+  @Override
+  public void onCreate(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public void onModify(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public void onRemove(RevokingTuple tuple, byte[] value) {
+  }
+
+  @Override
+  public synchronized void merge() {
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    dbs.forEach(DbSourceInter::mergeSnapshot);
+    --size;
+    --activeDialog;
+  }
+
+  @Override
+  public synchronized void revoke() {
+    if (disabled) {
+      return;
+    }
+
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    dbs.forEach(DbSourceInter::revokeSnapshot);
+    --size;
+    --activeDialog;
+  }
+
+  @Override
+  public synchronized void commit() {
+    if (activeDialog <= 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be greater than 0");
+    }
+
+    --activeDialog;
+  }
+
+  @Override
+  public synchronized void pop() {
+    if (activeDialog != 0) {
+      throw new RevokingStoreIllegalStateException("activeDialog has to be equal 0");
+    }
+
+    if (size == 0) {
+      throw new RevokingStoreIllegalStateException("stack is empty");
+    }
+
+    dbs.forEach(DbSourceInter::revokeSnapshot);
+    --size;
+  }
+
+  /**
+   * Snapshot layers keep no undo records.
+   */
+  @Override
+  public RevokingState head() {
+    return null;
+  }
+
+  @Override
+  public synchronized void enable() {
+    disabled = false;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized void disable() {
+    disabled = true;
+  }
+
+  @Override
+  public void setMaxSize(int maxSize) {
+    this.maxSize.set(maxSize);
+  }
+
+  public int getMaxSize() {
+    return maxSize.get();
+  }
+
+  /**
+   * Unsolidified layers never reached leveldb, so dropping them leaves the stores at the
+   * state the undo-log store reaches by popping its whole stack.
+   */
+  @Override
+  public synchronized void shutdown() {
+    logger.info("******** drop {} snapshot layers ********", size);
+    disable();
+    while (size > 0) {
+      dbs.forEach(DbSourceInter::revokeSnapshot);
+      --size;
+    }
+    activeDialog = 0;
+  }
+}
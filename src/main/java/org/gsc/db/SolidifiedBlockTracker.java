@@ -0,0 +1,118 @@
+package org.gsc.db;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.gsc.config.Parameter.ChainConstant;
+import org.gsc.core.witness.WitnessSchedule;
+import org.gsc.core.wrapper.WitnessWrapper;
+
+/**
+ * Latest block number of each active witness, kept sorted so the solidified block number is
+ * read without loading the witnesses. Blocks update it through {@link #update}; a witness row
+ * changed any other way, such as by a revoke, is reloaded on the next read, and a new active
+ * schedule rebuilds it.
+ */
+public class SolidifiedBlockTracker {
+
+  private final WitnessStore witnessStore;
+  private final WitnessScheduleStore witnessScheduleStore;
+
+  private final Map<ByteString, Long> latestBlockNums = new HashMap<>();
+  private final Set<ByteString> stale = new HashSet<>();
+  private long[] sorted = new long[0];
+  private long scheduleVersion = -1;
+
+  public SolidifiedBlockTracker(WitnessStore witnessStore,
+      WitnessScheduleStore witnessScheduleStore) {
+    this.witnessStore = witnessStore;
+    this.witnessScheduleStore = witnessScheduleStore;
+    witnessStore.getDbSource().addChangeListener(this::onChanged);
+  }
+
+  /**
+   * Record a block produced by {@code address}, after its witness row has been saved.
+   */
+  public synchronized void update(ByteString address, long latestBlockNum) {
+    Long previous = latestBlockNums.get(address);
+    if (previous == null) {
+      return;
+    }
+    stale.remove(address);
+    replace(previous, latestBlockNum);
+    latestBlockNums.put(address, latestBlockNum);
+  }
+
+  /**
+   * The block number reached by the share of active witnesses the solidified threshold asks
+   * for, or -1 without active witnesses.
+   */
+  public synchronized long getSolidifiedBlockNum() {
+    refresh();
+    if (sorted.length == 0) {
+      return -1;
+    }
+    return sorted[(int) (sorted.length * (1 - ChainConstant.SOLIDIFIED_THRESHOLD))];
+  }
+
+  public synchronized long[] getLatestBlockNums() {
+    refresh();
+    return sorted.clone();
+  }
+
+  private synchronized void onChanged(byte[] key) {
+    if (key == null) {
+      scheduleVersion = -1;
+      return;
+    }
+    ByteString address = ByteString.copyFrom(key);
+    if (latestBlockNums.containsKey(address)) {
+      stale.add(address);
+    }
+  }
+
+  private void refresh() {
+    WitnessSchedule schedule = witnessScheduleStore.getActiveSchedule();
+    if (schedule.getVersion() != scheduleVersion) {
+      rebuild(schedule);
+      return;
+    }
+    for (ByteString address : stale) {
+      long latestBlockNum = load(address);
+      replace(latestBlockNums.put(address, latestBlockNum), latestBlockNum);
+    }
+    stale.clear();
+  }
+
+  private void rebuild(WitnessSchedule schedule) {
+    latestBlockNums.clear();
+    stale.clear();
+    schedule.getWitnesses().forEach(address -> latestBlockNums.put(address, load(address)));
+    sorted = latestBlockNums.values().stream().mapToLong(Long::longValue).sorted().toArray();
+    scheduleVersion = schedule.getVersion();
+  }
+
+  private long load(ByteString address) {
+    WitnessWrapper witness = witnessStore.get(address.toByteArray());
+    return witness == null ? 0 : witness.getLatestBlockNum();
+  }
+
+  /**
+   * Move one occurrence of {@code previous} in the sorted numbers to where {@code next} goes.
+   */
+  private void replace(long previous, long next) {
+    int from = Arrays.binarySearch(sorted, previous);
+    int to = Arrays.binarySearch(sorted, next);
+    to = to < 0 ? -to - 1 : to;
+    if (to > from) {
+      System.arraycopy(sorted, from + 1, sorted, from, to - 1 - from);
+      sorted[to - 1] = next;
+    } else {
+      System.arraycopy(sorted, to, sorted, to + 1, from - to);
+      sorted[to] = next;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.gsc.db;
+
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.Getter;
+import org.gsc.common.utils.LatencyHistogram;
+
+/**
+ * The one lock writers of chain state take: blocks being pushed or generated, and batches of
+ * admitted transactions. Readers go to the stores directly and never take it, so they also see
+ * the buffered writes of the dialog being applied, as they did under the Manager monitor.
+ *
+ * <p>Time spent waiting for it and holding it is recorded per acquisition; a reentrant
+ * acquisition, as when a pushed block re-pushes the pending transactions, counts with the
+ * outermost one.
+ */
+public class StateLock {
+
+  // fair, so a block waiting on the lock goes before the next batch of transactions
+  private final ReentrantLock lock = new ReentrantLock(true);
+
+  @Getter
+  private final LatencyHistogram waitTime = new LatencyHistogram("state lock wait");
+  @Getter
+  private final LatencyHistogram holdTime = new LatencyHistogram("state lock hold");
+
+  // written and read by the holder only
+  private long acquiredAt;
+
+  public void lock() {
+    if (lock.isHeldByCurrentThread()) {
+      lock.lock();
+      return;
+    }
+    long start = System.nanoTime();
+    lock.lock();
+    acquiredAt = System.nanoTime();
+    waitTime.record(acquiredAt - start);
+  }
+
+  public void unlock() {
+    if (lock.getHoldCount() == 1) {
+      holdTime.record(System.nanoTime() - acquiredAt);
+    }
+    lock.unlock();
+  }
+
+  public boolean isHeldByCurrentThread() {
+    return lock.isHeldByCurrentThread();
+  }
+}
@@ -0,0 +1,66 @@
+package org.gsc.db;
+
+import com.google.protobuf.ByteString;
+import java.util.BitSet;
+
+/**
+ * Hashes of the last 65536 blocks, one slot per low two bytes of the block number, holding
+ * bytes 8..16 of the block id as a long, the same reference a transaction carries for TaPoS.
+ */
+public class TaposRing {
+
+  public static final int SLOTS = 1 << 16;
+  public static final int REF_BLOCK_BYTES_LENGTH = 2;
+  public static final int REF_BLOCK_HASH_LENGTH = 8;
+
+  private final long[] hashes = new long[SLOTS];
+  private final BitSet present = new BitSet(SLOTS);
+
+  /**
+   * Fill or clear the slot of a recent-block row; a value other than 8 bytes clears it.
+   */
+  public synchronized void set(byte[] refBlockBytes, byte[] refBlockHash) {
+    int slot = slot(refBlockBytes);
+    if (refBlockHash == null || refBlockHash.length != REF_BLOCK_HASH_LENGTH) {
+      present.clear(slot);
+      return;
+    }
+    long hash = 0;
+    for (byte b : refBlockHash) {
+      hash = hash << 8 | (b & 0xff);
+    }
+    hashes[slot] = hash;
+    present.set(slot);
+  }
+
+  public synchronized void clear() {
+    present.clear();
+  }
+
+  public synchronized boolean contains(ByteString refBlockBytes) {
+    return refBlockBytes.size() == REF_BLOCK_BYTES_LENGTH && present.get(slot(refBlockBytes));
+  }
+
+  /**
+   * Whether the slot of {@code refBlockBytes} holds {@code refBlockHash}, read straight from
+   * the transaction's byte strings without copying them.
+   */
+  public synchronized boolean matches(ByteString refBlockBytes, ByteString refBlockHash) {
+    if (!contains(refBlockBytes) || refBlockHash.size() != REF_BLOCK_HASH_LENGTH) {
+      return false;
+    }
+    long hash = 0;
+    for (int i = 0; i < REF_BLOCK_HASH_LENGTH; i++) {
+      hash = hash << 8 | (refBlockHash.byteAt(i) & 0xff);
+    }
+    return hashes[slot(refBlockBytes)] == hash;
+  }
+
+  private static int slot(byte[] refBlockBytes) {
+    return (refBlockBytes[0] & 0xff) << 8 | (refBlockBytes[1] & 0xff);
+  }
+
+  private static int slot(ByteString refBlockBytes) {
+    return (refBlockBytes.byteAt(0) & 0xff) << 8 | (refBlockBytes.byteAt(1) & 0xff);
+  }
+}
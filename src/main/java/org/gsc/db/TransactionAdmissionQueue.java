@@ -0,0 +1,204 @@
+package org.gsc.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.gsc.common.utils.LatencyHistogram;
+import org.gsc.core.exception.AccountResourceInsufficientException;
+import org.gsc.core.exception.ContractExeException;
+import org.gsc.core.exception.ContractValidateException;
+import org.gsc.core.exception.DupTransactionException;
+import org.gsc.core.exception.TaposException;
+import org.gsc.core.exception.TooBigTransactionException;
+import org.gsc.core.exception.TransactionExpirationException;
+import org.gsc.core.exception.ValidateSignatureException;
+import org.gsc.core.wrapper.TransactionWrapper;
+
+/**
+ * Transactions received from peers and clients, waiting for the state writer thread to apply
+ * them to the pending state.
+ *
+ * <p>The writer takes whatever has queued up, at most {@code MAX_BATCH} transactions, applies
+ * them under one acquisition of the state lock and hands each caller its result. Blocks take
+ * the lock between two batches, so a burst of transactions holds a block back by one batch at
+ * most instead of by every transaction queued on the monitor ahead of it.
+ */
+@Slf4j
+public class TransactionAdmissionQueue {
+
+  private static final int MAX_BATCH = 256;
+  private static final long STATS_INTERVAL_MS = 60_000;
+
+  private final Manager manager;
+  private final BlockingQueue<Admission> queue;
+  private final Thread writer;
+  private volatile boolean running = true;
+  // callers queue under the read lock, shutdown() answers the ones left under the write lock,
+  // so no admission is queued after the last one is answered
+  private final ReadWriteLock shutdownLock = new ReentrantReadWriteLock();
+
+  @Getter
+  private final LatencyHistogram queueWait = new LatencyHistogram("admission queue wait");
+
+  private static class Admission {
+
+    private final TransactionWrapper trx;
+    private final long queuedAt = System.nanoTime();
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    Admission(TransactionWrapper trx) {
+      this.trx = trx;
+    }
+  }
+
+  public TransactionAdmissionQueue(Manager manager, int capacity) {
+    this.manager = manager;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.writer = new Thread(this::drain, "state-writer");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * Queue {@code trx} and wait for the writer to apply it.
+   *
+   * @return false when the queue or the pending pool is full
+   */
+  public boolean admit(TransactionWrapper trx)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, DupTransactionException, TaposException,
+      TooBigTransactionException, TransactionExpirationException {
+    if (manager.getStateLock().isHeldByCurrentThread()) {
+      // the writer would wait for this thread to let go of the lock
+      return manager.pushTransactions(trx);
+    }
+    Admission admission = new Admission(trx);
+    shutdownLock.readLock().lock();
+    try {
+      if (!running || !queue.offer(admission)) {
+        logger.debug("admission queue is full, {} waiting", queue.size());
+        return false;
+      }
+    } finally {
+      shutdownLock.readLock().unlock();
+    }
+    try {
+      return admission.result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      throw rethrow(e.getCause());
+    }
+  }
+
+  private void drain() {
+    List<Admission> batch = new ArrayList<>(MAX_BATCH);
+    long statsLoggedAt = System.currentTimeMillis();
+    while (running) {
+      try {
+        Admission first = queue.poll(1, TimeUnit.SECONDS);
+        if (first != null) {
+          batch.add(first);
+          queue.drainTo(batch, MAX_BATCH - 1);
+          apply(batch);
+          batch.clear();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (Throwable t) {
+        logger.error("state writer failed a batch", t);
+        batch.forEach(admission -> admission.result.completeExceptionally(t));
+        batch.clear();
+      }
+      if (System.currentTimeMillis() - statsLoggedAt >= STATS_INTERVAL_MS) {
+        statsLoggedAt = System.currentTimeMillis();
+        logger.info("{}; {}; {}", queueWait, manager.getStateLock().getWaitTime(),
+            manager.getStateLock().getHoldTime());
+      }
+    }
+    rejectQueued();
+  }
+
+  private void rejectQueued() {
+    Admission admission;
+    while ((admission = queue.poll()) != null) {
+      admission.result.complete(false);
+    }
+  }
+
+  private void apply(List<Admission> batch) {
+    manager.getStateLock().lock();
+    try {
+      long now = System.nanoTime();
+      for (Admission admission : batch) {
+        queueWait.record(now - admission.queuedAt);
+        try {
+          admission.result.complete(manager.pushTransactions(admission.trx));
+        } catch (Exception e) {
+          admission.result.completeExceptionally(e);
+        }
+      }
+    } finally {
+      manager.getStateLock().unlock();
+    }
+  }
+
+  private static RuntimeException rethrow(Throwable cause)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, DupTransactionException, TaposException,
+      TooBigTransactionException, TransactionExpirationException {
+    if (cause instanceof ValidateSignatureException) {
+      throw (ValidateSignatureException) cause;
+    }
+    if (cause instanceof ContractValidateException) {
+      throw (ContractValidateException) cause;
+    }
+    if (cause instanceof ContractExeException) {
+      throw (ContractExeException) cause;
+    }
+    if (cause instanceof AccountResourceInsufficientException) {
+      throw (AccountResourceInsufficientException) cause;
+    }
+    if (cause instanceof DupTransactionException) {
+      throw (DupTransactionException) cause;
+    }
+    if (cause instanceof TaposException) {
+      throw (TaposException) cause;
+    }
+    if (cause instanceof TooBigTransactionException) {
+      throw (TooBigTransactionException) cause;
+    }
+    if (cause instanceof TransactionExpirationException) {
+      throw (TransactionExpirationException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    return new IllegalStateException(cause);
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  public void shutdown() {
+    shutdownLock.writeLock().lock();
+    try {
+      running = false;
+      rejectQueued();
+    } finally {
+      shutdownLock.writeLock().unlock();
+    }
+    writer.interrupt();
+  }
+}
@@ -47,7 +47,7 @@ public class TransactionStore extends GscStoreWithRevoking<TransactionWrapper> {
    * get total transaction.
    */
   public long getTotalTransactions() {
-    return dbSource.getTotal();
+    return dbSource.count();
   }
 
   @Override
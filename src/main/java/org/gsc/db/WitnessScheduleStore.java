@@ -3,10 +3,11 @@ package org.gsc.db;
 import com.google.protobuf.ByteString;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.gsc.common.utils.ByteArray;
+import org.gsc.core.witness.WitnessSchedule;
 import org.gsc.core.wrapper.BytesWrapper;
+import org.gsc.db.common.DecodedCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -20,9 +21,14 @@ public class WitnessScheduleStore extends GscStoreWithRevoking<BytesWrapper> {
 
   private static final int ADDRESS_BYTE_ARRAY_LENGTH = 21;
 
+  private static final long CACHE_SIZE = 2;
+
+  private DecodedCache<WitnessSchedule> schedules;
+
   @Autowired
   private WitnessScheduleStore(@Value("witness_schedule") String dbName) {
     super(dbName);
+    schedules = new DecodedCache<>(dbSource, CACHE_SIZE, WitnessScheduleStore::parse);
   }
 
   @Override
@@ -45,38 +51,50 @@ public class WitnessScheduleStore extends GscStoreWithRevoking<BytesWrapper> {
     }
     ;
     this.put(species, new BytesWrapper(ba));
+    schedules.put(species, new WitnessSchedule(witnessesAddressList));
   }
 
-  private List<ByteString> getData(byte[] species) {
+  private static WitnessSchedule parse(byte[] ba) {
     List<ByteString> witnessesAddressList = new ArrayList<>();
-    return Optional.ofNullable(this.dbSource.getData(species))
-        .map(ba -> {
-          int len = ba.length / ADDRESS_BYTE_ARRAY_LENGTH;
-          for (int i = 0; i < len; ++i) {
-            byte[] b = new byte[ADDRESS_BYTE_ARRAY_LENGTH];
-            System.arraycopy(ba, i * ADDRESS_BYTE_ARRAY_LENGTH, b, 0, ADDRESS_BYTE_ARRAY_LENGTH);
-            witnessesAddressList.add(ByteString.copyFrom(b));
-          }
-          logger.debug("getWitnesses:" + ByteArray.toStr(species) + witnessesAddressList);
-          return witnessesAddressList;
-        }).orElseThrow(
-            () -> new IllegalArgumentException(
-                "not found " + ByteArray.toStr(species) + "Witnesses"));
+    int len = ba.length / ADDRESS_BYTE_ARRAY_LENGTH;
+    for (int i = 0; i < len; ++i) {
+      witnessesAddressList.add(
+          ByteString.copyFrom(ba, i * ADDRESS_BYTE_ARRAY_LENGTH, ADDRESS_BYTE_ARRAY_LENGTH));
+    }
+    return new WitnessSchedule(witnessesAddressList);
+  }
+
+  private WitnessSchedule getData(byte[] species) {
+    WitnessSchedule schedule = schedules.get(species);
+    if (schedule == null) {
+      throw new IllegalArgumentException("not found " + ByteArray.toStr(species) + "Witnesses");
+    }
+    return schedule;
   }
 
   public void saveActiveWitnesses(List<ByteString> witnessesAddressList) {
     saveData(ACTIVE_WITNESSES, witnessesAddressList);
   }
 
-  public List<ByteString> getActiveWitnesses() {
+  /**
+   * The active witnesses, held in memory until they are saved again or revoked.
+   */
+  public WitnessSchedule getActiveSchedule() {
     return getData(ACTIVE_WITNESSES);
   }
 
+  /**
+   * Unmodifiable; save a copy to change it.
+   */
+  public List<ByteString> getActiveWitnesses() {
+    return getActiveSchedule().getWitnesses();
+  }
+
   public void saveCurrentShuffledWitnesses(List<ByteString> witnessesAddressList) {
     saveData(CURRENT_SHUFFLED_WITNESSES, witnessesAddressList);
   }
 
   public List<ByteString> getCurrentShuffledWitnesses() {
-    return getData(CURRENT_SHUFFLED_WITNESSES);
+    return getData(CURRENT_SHUFFLED_WITNESSES).getWitnesses();
   }
 }
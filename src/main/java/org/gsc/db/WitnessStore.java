@@ -1,31 +1,45 @@
 package org.gsc.db;
 
+import com.google.common.cache.CacheStats;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 import org.gsc.core.wrapper.WitnessWrapper;
+import org.gsc.db.common.DecodedCache;
 import org.gsc.db.common.iterator.WitnessIterator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.gsc.protos.Protocol.Witness;
 
 @Slf4j
 @Component
 public class WitnessStore extends GscStoreWithRevoking<WitnessWrapper> {
 
+  private static final long CACHE_SIZE = 10_000L;
+
+  private DecodedCache<Witness> cache;
+
   @Autowired
   protected WitnessStore(@Value("witness") String dbName) {
     super(dbName);
+    cache = new DecodedCache<>(dbSource, CACHE_SIZE, data -> new WitnessWrapper(data).getInstance());
   }
 
   @Override
   public WitnessWrapper get(byte[] key) {
-    byte[] value = dbSource.getData(key);
-    return ArrayUtils.isEmpty(value) ? null : new WitnessWrapper(value);
+    Witness witness = cache.get(key);
+    return witness == null ? null : new WitnessWrapper(witness);
+  }
+
+  /**
+   * hit, miss and eviction counts of the decoded witness cache.
+   */
+  public CacheStats getCacheStats() {
+    return cache.getStats();
   }
 
   @Override
@@ -37,6 +51,9 @@ public class WitnessStore extends GscStoreWithRevoking<WitnessWrapper> {
   @Override
   public void put(byte[] key, WitnessWrapper item) {
     super.put(key, item);
+    if (Objects.nonNull(key) && Objects.nonNull(item)) {
+      cache.put(key, item.getInstance());
+    }
     if (Objects.nonNull(indexHelper)) {
       indexHelper.update(item.getInstance());
     }
@@ -0,0 +1,104 @@
+package org.gsc.db.common;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.function.Function;
+import org.apache.commons.lang3.ArrayUtils;
+import org.gsc.common.storage.leveldb.LevelDbDataSourceImpl;
+
+/**
+ * Bounded LRU of decoded rows of one store, keyed by row key. An entry is dropped whenever
+ * its row changes in the data source, so revoke and pop, which rewrite or drop rows there,
+ * never leave a stale object behind.
+ */
+public class DecodedCache<V> {
+
+  private final LevelDbDataSourceImpl dbSource;
+  private final Function<byte[], V> decoder;
+  private final Cache<WrappedByteArray, V> cache;
+  // bumped on every invalidation so a load racing with a write is not cached
+  private long version;
+
+  public DecodedCache(LevelDbDataSourceImpl dbSource, long maximumSize,
+      Function<byte[], V> decoder) {
+    this.dbSource = dbSource;
+    this.decoder = decoder;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    dbSource.addChangeListener(this::invalidate);
+  }
+
+  /**
+   * For a store whose rows decode to different types, each read through
+   * {@link #get(byte[], Function)} with the decoder of its row.
+   */
+  public DecodedCache(LevelDbDataSourceImpl dbSource, long maximumSize) {
+    this(dbSource, maximumSize, null);
+  }
+
+  /**
+   * Decoded value of the row, or null if the row is absent or cannot be decoded.
+   */
+  public V get(byte[] key) {
+    return get(key, decoder);
+  }
+
+  /**
+   * Like {@link #get(byte[])}, decoding a missing row with {@code decoder}. Every read of a
+   * row has to pass the same decoder.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends V> T get(byte[] key, Function<byte[], T> decoder) {
+    WrappedByteArray wrapped = WrappedByteArray.of(key);
+    T value = (T) cache.getIfPresent(wrapped);
+    if (value != null) {
+      return value;
+    }
+
+    long loadVersion = currentVersion();
+    byte[] data = dbSource.getData(key);
+    if (ArrayUtils.isEmpty(data) || (value = decoder.apply(data)) == null) {
+      return null;
+    }
+    synchronized (this) {
+      if (loadVersion == version) {
+        cache.put(wrapped, value);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Cache a value just written to the data source.
+   */
+  public synchronized void put(byte[] key, V value) {
+    if (value != null) {
+      cache.put(WrappedByteArray.of(key), value);
+    }
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  private synchronized long currentVersion() {
+    return version;
+  }
+
+  /**
+   * Drop the decoded value of a row, or of every row when {@code key} is null. Rows changing
+   * in the data source are dropped already; this is for a row whose decoding depends on another.
+   */
+  public synchronized void invalidate(byte[] key) {
+    version++;
+    if (key == null) {
+      cache.invalidateAll();
+    } else {
+      cache.invalidate(WrappedByteArray.of(key));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package org.gsc.db.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Decoded rows of one store written while a block is applied, held here instead of being
+ * encoded and written to the data source on every put, and written once each when the block's
+ * transactions are done. Reads of the store look here first while the buffer is open.
+ */
+public class WriteBackBuffer<V> {
+
+  private volatile Map<WrappedByteArray, V> rows;
+
+  public void open() {
+    rows = new ConcurrentHashMap<>();
+  }
+
+  public boolean isOpen() {
+    return rows != null;
+  }
+
+  /**
+   * The row last put since the buffer was opened, or null.
+   */
+  public V get(byte[] key) {
+    Map<WrappedByteArray, V> open = rows;
+    return open == null ? null : open.get(WrappedByteArray.of(key));
+  }
+
+  /**
+   * Hold the row if the buffer is open.
+   *
+   * @return false when it is closed and the caller has to write the row itself
+   */
+  public boolean put(byte[] key, V value) {
+    Map<WrappedByteArray, V> open = rows;
+    if (open == null) {
+      return false;
+    }
+    open.put(WrappedByteArray.of(key), value);
+    return true;
+  }
+
+  public void remove(byte[] key) {
+    Map<WrappedByteArray, V> open = rows;
+    if (open != null) {
+      open.remove(WrappedByteArray.of(key));
+    }
+  }
+
+  /**
+   * Close the buffer and hand every row held to {@code writer}.
+   */
+  public void flush(BiConsumer<byte[], V> writer) {
+    Map<WrappedByteArray, V> open = rows;
+    rows = null;
+    if (open != null) {
+      open.forEach((key, value) -> writer.accept(key.getBytes(), value));
+    }
+  }
+
+  /**
+   * Close the buffer dropping the rows held, as when the block failed.
+   */
+  public void discard() {
+    rows = null;
+  }
+}
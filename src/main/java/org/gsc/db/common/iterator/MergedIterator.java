@@ -0,0 +1,91 @@
+package org.gsc.db.common.iterator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Walks a sorted store iterator and a sorted overlay of pending writes as one view.
+ * On equal keys the overlay wins; overlay entries holding {@code deleted} hide the key.
+ */
+@Slf4j
+public final class MergedIterator implements DBIterator {
+
+  private final Iterator<Entry<byte[], byte[]>> store;
+  private final Iterator<Entry<byte[], byte[]>> overlay;
+  private final Comparator<byte[]> comparator;
+  private final byte[] deleted;
+
+  private Entry<byte[], byte[]> storeNext;
+  private Entry<byte[], byte[]> overlayNext;
+  private Entry<byte[], byte[]> next;
+  private boolean closed;
+
+  public MergedIterator(Iterator<Entry<byte[], byte[]>> store,
+      Iterator<Entry<byte[], byte[]>> overlay, Comparator<byte[]> comparator, byte[] deleted) {
+    this.store = store;
+    this.overlay = overlay;
+    this.comparator = comparator;
+    this.deleted = deleted;
+    storeNext = poll(store);
+    overlayNext = poll(overlay);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (next == null && (storeNext != null || overlayNext != null)) {
+      int cmp = storeNext == null ? 1
+          : overlayNext == null ? -1 : comparator.compare(storeNext.getKey(), overlayNext.getKey());
+      if (cmp < 0) {
+        next = storeNext;
+        storeNext = poll(store);
+        continue;
+      }
+      if (cmp == 0) {
+        storeNext = poll(store);
+      }
+      if (overlayNext.getValue() != deleted) {
+        next = overlayNext;
+      }
+      overlayNext = poll(overlay);
+    }
+    if (next == null) {
+      closeQuietly();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Entry<byte[], byte[]> result = next;
+    next = null;
+    return result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed && store instanceof Closeable) {
+      closed = true;
+      ((Closeable) store).close();
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      logger.debug(e.getMessage(), e);
+    }
+  }
+
+  private static Entry<byte[], byte[]> poll(Iterator<Entry<byte[], byte[]>> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
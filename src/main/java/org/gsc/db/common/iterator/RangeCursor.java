@@ -0,0 +1,83 @@
+package org.gsc.db.common.iterator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ordered entries of a range scan, read lazily until the {@code to} key (exclusive) or
+ * {@code limit} entries. The resources it was opened with are released once it is exhausted
+ * or closed, whichever comes first.
+ */
+@Slf4j
+public final class RangeCursor implements DBIterator {
+
+  private final Iterator<Entry<byte[], byte[]>> entries;
+  private final byte[] to;
+  private final Comparator<byte[]> comparator;
+  private final Closeable[] resources;
+  private long remaining;
+  private Entry<byte[], byte[]> next;
+  private boolean closed;
+
+  /**
+   * @param comparator key order in the walking direction
+   * @param resources closed in order after the cursor is done
+   */
+  public RangeCursor(Iterator<Entry<byte[], byte[]>> entries, byte[] to, long limit,
+      Comparator<byte[]> comparator, Closeable... resources) {
+    this.entries = entries;
+    this.to = to;
+    this.remaining = limit;
+    this.comparator = comparator;
+    this.resources = resources;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !closed && remaining > 0 && entries.hasNext()) {
+      Entry<byte[], byte[]> entry = entries.next();
+      if (to == null || comparator.compare(entry.getKey(), to) < 0) {
+        next = entry;
+        remaining--;
+      }
+    }
+    if (next == null) {
+      closeQuietly();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Entry<byte[], byte[]> result = next;
+    next = null;
+    return result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Closeable resource : resources) {
+      resource.close();
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      close();
+    } catch (IOException e) {
+      logger.debug(e.getMessage(), e);
+    }
+  }
+}
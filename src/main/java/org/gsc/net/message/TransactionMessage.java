@@ -18,7 +18,7 @@ public class TransactionMessage extends GscMessage {
   public TransactionMessage(Transaction trx) {
     this.transactionWrapper = new TransactionWrapper(trx);
     this.type = MessageTypes.TRX.asByte();
-    this.data = trx.toByteArray();
+    this.data = this.transactionWrapper.getData();
   }
 
   @Override
@@ -0,0 +1,112 @@
+package org.gsc.net.node;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.gsc.core.exception.BadBlockException;
+import org.gsc.core.exception.ValidateSignatureException;
+import org.gsc.core.wrapper.BlockWrapper;
+import org.gsc.core.wrapper.BlockWrapper.BlockId;
+import org.gsc.core.wrapper.TransactionWrapper;
+
+/**
+ * Checks what a received block proves on its own, the witness signature, the merkle root and
+ * every transaction signature, on a pool of workers while earlier blocks are still being
+ * applied, so the applier only has state work left when the block's turn comes.
+ *
+ * <p>At most {@code capacity} blocks wait for a worker; a block submitted beyond that is left
+ * to be checked when it is pushed, which slows the applier and through it the fetching of
+ * more blocks.
+ */
+@Slf4j
+public class BlockVerifier {
+
+  private final ThreadPoolExecutor workers;
+  private final Cache<BlockId, Future<?>> verifications;
+
+  public BlockVerifier(int threads, int capacity) {
+    threads = Math.max(1, threads);
+    this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(capacity),
+        new ThreadFactoryBuilder().setNameFormat("BlockVerifier-%d").setDaemon(true).build());
+    // the oldest entries dropped past this size are long finished, or their block was dropped
+    this.verifications = CacheBuilder.newBuilder().maximumSize(2L * (capacity + threads))
+        .build();
+  }
+
+  /**
+   * Start checking {@code block} ahead of its turn to be applied.
+   *
+   * @return false when the workers are saturated and the block is left to the applier
+   */
+  public boolean submit(BlockWrapper block) {
+    BlockId id = block.getBlockId();
+    if (block.isVerified() || verifications.getIfPresent(id) != null) {
+      return true;
+    }
+    try {
+      verifications.put(id, workers.submit(() -> {
+        verify(block);
+        return null;
+      }));
+      return true;
+    } catch (RejectedExecutionException e) {
+      logger.debug("block verifier saturated, {} left to the applier", id.getString());
+      return false;
+    }
+  }
+
+  /**
+   * Wait for the checks started by {@link #submit} on {@code block}, if any.
+   *
+   * @throws BadBlockException when the block failed them
+   */
+  public void await(BlockWrapper block) throws BadBlockException, InterruptedException {
+    BlockId id = block.getBlockId();
+    Future<?> verification = verifications.getIfPresent(id);
+    if (verification == null) {
+      return;
+    }
+    verifications.invalidate(id);
+    try {
+      verification.get();
+    } catch (ExecutionException e) {
+      throw new BadBlockException("pre-verification failed," + e.getCause().getMessage());
+    }
+  }
+
+  /**
+   * Check the parts of {@code block} that do not depend on chain state, and mark it verified
+   * so pushing it does not check them again.
+   */
+  public static void verify(BlockWrapper block)
+      throws BadBlockException, ValidateSignatureException {
+    if (!block.validateSignature()) {
+      throw new BadBlockException("The signature is not validated");
+    }
+    if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+      throw new BadBlockException("The merkle hash is not validated");
+    }
+    for (TransactionWrapper trx : block.getTransactions()) {
+      if (!trx.validateSignature()) {
+        throw new ValidateSignatureException("trans sig validate failed");
+      }
+    }
+    block.setVerified(true);
+  }
+
+  public int getQueued() {
+    return workers.getQueue().size();
+  }
+
+  public void shutdown() {
+    workers.shutdown();
+  }
+}
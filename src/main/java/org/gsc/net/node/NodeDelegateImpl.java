@@ -49,8 +49,12 @@ public class NodeDelegateImpl implements NodeDelegate {
     this.dbManager = dbManager;
   }
 
+  /**
+   * Not synchronized: pushBlock takes the state lock, and the signatures of one block are
+   * checked while another is being applied.
+   */
   @Override
-  public synchronized LinkedList<Sha256Hash> handleBlock(BlockWrapper block, boolean syncMode)
+  public LinkedList<Sha256Hash> handleBlock(BlockWrapper block, boolean syncMode)
       throws BadBlockException, UnLinkedBlockException, InterruptedException, NonCommonBlockException {
 
     if (block.getInstance().getSerializedSize() > ChainConstant.BLOCK_SIZE + 100) {
@@ -63,7 +67,9 @@ public class NodeDelegateImpl implements NodeDelegate {
       throw new BadBlockException("block time error");
     }
     try {
-      dbManager.preValidateTransactionSign(block);
+      if (!block.isVerified()) {
+        dbManager.preValidateTransactionSign(block);
+      }
       dbManager.pushBlock(block);
       if (!syncMode) {
         List<TransactionWrapper> trx = null;
@@ -110,7 +116,10 @@ public class NodeDelegateImpl implements NodeDelegate {
       dbManager.getTransactionIdCache().put(trx.getTransactionId(), true);
     }
     try {
-      dbManager.pushTransactions(trx);
+      if (!dbManager.admitTransaction(trx)) {
+        logger.info("pending transaction pool is full");
+        return false;
+      }
     } catch (ContractSizeNotEqualToOneException e){
       logger.info("Contract validate failed" + e.getMessage());
       throw new BadTransactionException();
@@ -338,7 +347,8 @@ public class NodeDelegateImpl implements NodeDelegate {
       return dbManager.containBlock(hash);
     } else if (type.equals(MessageTypes.TRX)) {
       //TODO: check it
-      return dbManager.getTransactionStore().has(hash.getBytes());
+      return dbManager.getRecentTransactionFilter().mightContain(hash.getBytes())
+          && dbManager.getTransactionStore().has(hash.getBytes());
     }
     return false;
   }
@@ -203,6 +203,11 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
           new ThreadFactoryBuilder()
               .setNameFormat("TrxsHandlePool-%d").build());
 
+  // checks sync blocks on their own while the blocks before them are applied
+  private BlockVerifier blockVerifier = new BlockVerifier(
+      Args.getInstance().getValidateSignThreadNum(),
+      (int) NodeConstant.MAX_BLOCKS_ALREADY_FETCHED);
+
   //public
   //TODO:need auto erase oldest block
 
@@ -617,6 +622,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
             + "unSyncNum: %d\n"
             + "blockWaitToProc: %d\n"
             + "blockJustReceived: %d\n"
+            + "blockVerifierQueued: %d\n"
             + "syncBlockIdWeRequested: %d\n"
             + "badAdvObj: %d\n",
         del.getHeadBlockId().getNum(),
@@ -626,6 +632,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
         getUnSyncNum(),
         blockWaitToProc.size(),
         blockJustReceived.size(),
+        blockVerifier.getQueued(),
         syncBlockIdWeRequested.size(),
         badAdvObj.size()
     ));
@@ -752,6 +759,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
         return;
       }
       peer.getSyncBlockRequested().remove(blockId);
+      blockVerifier.submit(blkMsg.getBlockCapsule());
       synchronized (blockJustReceived) {
         blockJustReceived.put(blkMsg, peer);
       }
@@ -823,6 +831,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
     ReasonCode reason = null;
     try {
       try {
+        blockVerifier.await(block);
         del.handleBlock(block, true);
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
@@ -1305,6 +1314,7 @@ public class NodeImpl extends PeerConnectionDelegate implements Node {
   public void shutDown() {
     logExecutor.shutdown();
     trxsHandlePool.shutdown();
+    blockVerifier.shutdown();
     disconnectInactiveExecutor.shutdown();
     cleanInventoryExecutor.shutdown();
     broadPool.shutdown();
@@ -31,7 +31,6 @@ import org.gsc.core.exception.HeaderNotFound;
 import org.gsc.core.exception.StoreException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.util.CollectionUtils;
 import org.gsc.api.DatabaseGrpc.DatabaseImplBase;
 import org.gsc.api.GrpcAPI;
 import org.gsc.api.GrpcAPI.AccountNetMessage;
@@ -393,13 +392,7 @@ public class RpcApiService implements Service {
         act.validate();
       }
       try {
-        BlockWrapper headBlock = null;
-        List<BlockWrapper> blockList = dbManager.getBlockStore().getBlockByLatestNum(1);
-        if (CollectionUtils.isEmpty(blockList)) {
-          throw new HeaderNotFound("latest block not found");
-        } else {
-          headBlock = blockList.get(0);
-        }
+        BlockWrapper headBlock = dbManager.getHead();
         gsc.setReference(headBlock.getNum(), headBlock.getBlockId().getBytes());
         long expiration = headBlock.getTimeStamp() + Constant.TRANSACTION_DEFAULT_EXPIRATION_TIME;
         gsc.setExpiration(expiration);
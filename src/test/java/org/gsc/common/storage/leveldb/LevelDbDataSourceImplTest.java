@@ -25,10 +25,15 @@ import static org.junit.Assert.assertNull;
 
 import com.google.common.collect.Sets;
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -38,6 +43,7 @@ import org.gsc.common.utils.ByteArray;
 import org.gsc.common.utils.FileUtil;
 import org.gsc.core.Constant;
 import org.gsc.config.args.Args;
+import org.gsc.db.common.iterator.RangeCursor;
 
 @Slf4j
 public class LevelDbDataSourceImplTest {
@@ -163,6 +169,221 @@ public class LevelDbDataSourceImplTest {
     dataSource.resetDb();
   }
 
+  @Test
+  public void testBatch() {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_batch");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    byte[] key = "431cd8c8d5abe5cb5944b0889b32482d85772fbb98987b10fbb7f17110757350".getBytes();
+    byte[] key2 = "431cd8c8d5abe5cb5944b0889b32482d85772fbb98987b10fbb7f17110757351".getBytes();
+    dataSource.putData(key2, "10000".getBytes());
+
+    dataSource.startBatch();
+    dataSource.putData(key, "50000".getBytes());
+    dataSource.deleteData(key2);
+    assertEquals("50000", ByteArray.toStr(dataSource.getData(key)));
+    assertNull(dataSource.getData(key2));
+    // scans see the buffered rows without writing them
+    assertEquals(1, dataSource.allKeys().size());
+    assertEquals("50000", ByteArray.toStr(dataSource.getlatestValues(1).iterator().next()));
+
+    Assert.assertTrue(dataSource.flush());
+    assertEquals("50000", ByteArray.toStr(dataSource.getData(key)));
+    assertNull(dataSource.getData(key2));
+    assertEquals(1, dataSource.allKeys().size());
+
+    dataSource.putData(key2, "10000".getBytes());
+    assertEquals(2, dataSource.allKeys().size());
+    dataSource.resetDb();
+  }
+
+  @Test
+  public void testSnapshot() {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_snapshot");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    putSomeKeyValue(dataSource);
+    dataSource.pushSnapshot();
+    dataSource.deleteData(key2);
+    dataSource.putData(key3, value6);
+    dataSource.pushSnapshot();
+    byte[] key7 = "00000007aa".getBytes();
+    dataSource.putData(key7, value1);
+
+    assertNull(dataSource.getData(key2));
+    assertEquals("60000", ByteArray.toStr(dataSource.getData(key3)));
+    assertEquals(6, dataSource.getTotal());
+    Set<String> next = new HashSet<>();
+    dataSource.getValuesNext("0000000200".getBytes(), 2).forEach(v -> next.add(ByteArray.toStr(v)));
+    assertEquals(Sets.newHashSet("60000", "40000"), next);
+    Set<String> latest = new HashSet<>();
+    dataSource.getlatestValues(2).forEach(v -> latest.add(ByteArray.toStr(v)));
+    assertEquals(Sets.newHashSet("10000", "60000"), latest);
+
+    dataSource.revokeSnapshot();
+    assertNull(dataSource.getData(key7));
+    assertEquals(5, dataSource.allKeys().size());
+
+    dataSource.mergeSnapshot();
+    assertNull(dataSource.getData(key2));
+    assertEquals("60000", ByteArray.toStr(dataSource.getData(key3)));
+    assertEquals(5, dataSource.allKeys().size());
+    dataSource.resetDb();
+  }
+
+  @Test
+  public void testScan() throws IOException {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_scan");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    putSomeKeyValue(dataSource);
+    List<String> values = new ArrayList<>();
+    try (RangeCursor cursor = dataSource.scan(key2, key5, false, 10)) {
+      cursor.forEachRemaining(entry -> values.add(ByteArray.toStr(entry.getValue())));
+    }
+    assertEquals(Arrays.asList("20000", "30000", "40000"), values);
+
+    values.clear();
+    RangeCursor cursor = dataSource.scan(null, key1, true, 3);
+    dataSource.putData(key6, value1);
+    cursor.forEachRemaining(entry -> values.add(ByteArray.toStr(entry.getValue())));
+    assertEquals(Arrays.asList("60000", "50000", "40000"), values);
+    dataSource.resetDb();
+  }
+
+  @Test
+  public void testCount() {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_count");
+    dataSource.initDB();
+    dataSource.resetDb();
+    assertEquals(0, dataSource.count());
+
+    putSomeKeyValue(dataSource);
+    dataSource.putData(key1, value2);
+    dataSource.deleteData(key2);
+    dataSource.deleteData(key2);
+    assertEquals(5, dataSource.count());
+
+    dataSource.pushSnapshot();
+    dataSource.deleteData(key3);
+    dataSource.putData("00000007aa".getBytes(), value1);
+    dataSource.putData("00000008aa".getBytes(), value1);
+    assertEquals(6, dataSource.count());
+    dataSource.revokeSnapshot();
+    assertEquals(5, dataSource.count());
+
+    dataSource.closeDB();
+    dataSource.initDB();
+    assertEquals(5, dataSource.count());
+    assertEquals(5, dataSource.getTotal());
+
+    // the empty key is a record like any other
+    dataSource.putData(new byte[0], value1);
+    assertEquals(6, dataSource.count());
+    assertEquals(6, dataSource.getTotal());
+    dataSource.deleteData(new byte[0]);
+    assertEquals(5, dataSource.count());
+
+    // the count row is not a record
+    byte[] countKey = "\0\u007fgsc.db.record-count\u007f\0".getBytes();
+    assertNull(dataSource.getData(countKey));
+    try {
+      dataSource.putData(countKey, value1);
+      Assert.fail("the count key is reserved");
+    } catch (IllegalArgumentException e) {
+      assertEquals(5, dataSource.count());
+    }
+    dataSource.resetDb();
+  }
+
+  @Test
+  public void testConcurrentCount() throws Exception {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_concurrent_count");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    for (boolean batching : new boolean[]{false, true}) {
+      if (batching) {
+        dataSource.startBatch();
+      }
+      List<Thread> writers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        String prefix = (batching ? "b" : "d") + t;
+        String shared = batching ? "bs" : "ds";
+        writers.add(new Thread(() -> {
+          for (int i = 0; i < 500; i++) {
+            byte[] key = (prefix + "-" + i).getBytes();
+            dataSource.putData(key, value1);
+            if (i % 5 == 0) {
+              dataSource.deleteData(key);
+            }
+            // every writer creates the same keys, each counted once
+            if (i < 100) {
+              dataSource.putData((shared + "-" + i).getBytes(), value1);
+            }
+          }
+        }));
+      }
+      writers.forEach(Thread::start);
+      for (Thread writer : writers) {
+        writer.join();
+      }
+    }
+    assertEquals(3400, dataSource.count());
+    dataSource.flush();
+    assertEquals(3400, dataSource.count());
+    assertEquals(3400, dataSource.getTotal());
+    dataSource.resetDb();
+  }
+
+  @Test(timeout = 30_000)
+  public void testScanWhileWritingAndClosing() throws Exception {
+    LevelDbDataSourceImpl dataSource = new LevelDbDataSourceImpl(
+        Args.getInstance().getOutputDirectory(), "test_scan_while_writing");
+    dataSource.initDB();
+    dataSource.resetDb();
+
+    Thread writer = new Thread(() -> {
+      for (int i = 0; i < 2_000; i++) {
+        dataSource.startBatch();
+        dataSource.putData(("w" + i).getBytes(), value1);
+        if (i % 20 == 0) {
+          dataSource.flush();
+        }
+      }
+      dataSource.flush();
+    });
+    Thread scanner = new Thread(() -> {
+      for (int i = 0; i < 200; i++) {
+        dataSource.getlatestValues(10);
+        dataSource.getTotal();
+      }
+    });
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    writer.setUncaughtExceptionHandler((thread, e) -> failure.compareAndSet(null, e));
+    scanner.setUncaughtExceptionHandler((thread, e) -> failure.compareAndSet(null, e));
+    writer.start();
+    scanner.start();
+    writer.join();
+    scanner.join();
+    assertNull(failure.get());
+    assertEquals(2_000, dataSource.count());
+
+    // closing waits for the readers and writers in flight, and then for nothing
+    dataSource.closeDB();
+    dataSource.initDB();
+    assertEquals(2_000, dataSource.getTotal());
+    dataSource.resetDb();
+  }
+
   @Test(timeout = 1000)
   public void testLockReleased() {
     dataSourceTest.initDB();
@@ -0,0 +1,83 @@
+package org.gsc.common.storage.rocksdb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.google.common.collect.Sets;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import org.gsc.common.storage.StorageEngine;
+import org.gsc.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.config.args.Args;
+import org.gsc.core.Constant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RocksDBTest {
+
+  private static final String dbPath = "output-rocksDb-test";
+  private LevelDbDataSourceImpl dataSource;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    Args.getInstance().getStorage().setDefaultEngine(StorageEngine.ROCKSDB);
+    dataSource = new LevelDbDataSourceImpl(dbPath, "test_rocks");
+    dataSource.initDB();
+  }
+
+  @After
+  public void destroy() {
+    dataSource.closeDB();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testPutGetDelete() {
+    dataSource.putData("00000001aa".getBytes(), "10000".getBytes());
+    dataSource.putData("00000002aa".getBytes(), "20000".getBytes());
+    assertEquals("10000", ByteArray.toStr(dataSource.getData("00000001aa".getBytes())));
+
+    dataSource.deleteData("00000001aa".getBytes());
+    assertNull(dataSource.getData("00000001aa".getBytes()));
+    assertEquals(1, dataSource.getTotal());
+    assertEquals(1, dataSource.count());
+
+    dataSource.resetDb();
+    assertEquals(0, dataSource.getTotal());
+  }
+
+  @Test
+  public void testSeek() {
+    for (int i = 1; i <= 6; i++) {
+      dataSource.putData(("0000000" + i + "aa").getBytes(), (i + "0000").getBytes());
+    }
+
+    Set<String> next = new HashSet<>();
+    dataSource.getValuesNext("0000000300".getBytes(), 2).forEach(v -> next.add(ByteArray.toStr(v)));
+    assertEquals(Sets.newHashSet("30000", "40000"), next);
+
+    Set<String> prev = new HashSet<>();
+    dataSource.getValuesPrev("0000000300".getBytes(), 2).forEach(v -> prev.add(ByteArray.toStr(v)));
+    assertEquals(Sets.newHashSet("10000", "20000"), prev);
+
+    Set<String> latest = new HashSet<>();
+    dataSource.getlatestValues(2).forEach(v -> latest.add(ByteArray.toStr(v)));
+    assertEquals(Sets.newHashSet("50000", "60000"), latest);
+  }
+
+  @Test
+  public void testReopen() {
+    dataSource.putData("00000001aa".getBytes(), "10000".getBytes());
+    dataSource.closeDB();
+
+    dataSource.initDB();
+    assertEquals("10000", ByteArray.toStr(dataSource.getData("00000001aa".getBytes())));
+    assertEquals(1, dataSource.count());
+  }
+}
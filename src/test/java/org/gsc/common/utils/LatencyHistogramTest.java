@@ -0,0 +1,28 @@
+package org.gsc.common.utils;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void percentiles() {
+    LatencyHistogram histogram = new LatencyHistogram("test");
+    Assert.assertEquals(0, histogram.percentileMicros(99));
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+
+    Assert.assertEquals(100, histogram.getCount());
+    // 100us falls in [64, 128), 50ms in [32768, 65536)
+    Assert.assertEquals(128, histogram.percentileMicros(50));
+    Assert.assertEquals(128, histogram.percentileMicros(99));
+    Assert.assertEquals(65536, histogram.percentileMicros(100));
+    Assert.assertTrue(histogram.toString().contains("max=50000us"));
+
+    histogram.reset();
+    Assert.assertEquals(0, histogram.getCount());
+  }
+}
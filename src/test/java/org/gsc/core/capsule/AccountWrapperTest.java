@@ -14,6 +14,7 @@ import org.junit.Test;
 import org.gsc.common.utils.FileUtil;
 import org.gsc.core.Constant;
 import org.gsc.config.args.Args;
+import org.gsc.protos.Protocol.Account;
 import org.gsc.protos.Protocol.Vote;
 import org.gsc.protos.Protocol.AccountType;
 
@@ -104,6 +105,29 @@ public class AccountWrapperTest {
     Assert.assertTrue(addAsssetTrue);
   }
 
+  @Test
+  public void builtOnDemandTest() {
+    AccountWrapper account = new AccountWrapper(ByteString.copyFromUtf8("owner"),
+        AccountType.Normal);
+    account.setBalance(100L);
+    account.addAssetAmount(ByteString.copyFromUtf8("token"), 5L);
+    account.putFreeAssetNetUsage("token", 7L);
+    Assert.assertEquals(100L, account.getBalance());
+    Assert.assertTrue(account.assetBalanceEnough(ByteString.copyFromUtf8("token"), 5L));
+
+    Account built = account.getInstance();
+    Assert.assertEquals(100L, built.getBalance());
+    Assert.assertEquals(5L, built.getAssetMap().get("token").longValue());
+    Assert.assertEquals(7L, built.getFreeAssetNetUsageMap().get("token").longValue());
+
+    account.setBalance(50L);
+    account.reduceAssetAmount(ByteString.copyFromUtf8("token"), 2L);
+    Assert.assertEquals(100L, built.getBalance());
+    Assert.assertEquals(50L, account.getBalance());
+    Assert.assertEquals(3L, new AccountWrapper(account.getData()).getAssetMap().get("token")
+        .longValue());
+  }
+
 
   public static byte[] randomBytes(int length) {
     //generate the random number
@@ -84,6 +84,23 @@ public class BlockWrapperTest {
     logger.info("Transaction[O] Merkle Root : {}", blockWrapper0.getMerkleRoot().toString());
   }
 
+  @Test
+  public void testAssembledSize() {
+    BlockWrapper blockWrapper = new BlockWrapper(2, Sha256Hash.ZERO_HASH, 1234,
+        ByteString.copyFrom("1234567".getBytes()));
+    for (long i = 1; i <= 100; i++) {
+      TransferContract transferContract = TransferContract.newBuilder()
+          .setAmount(i)
+          .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+          .build();
+      blockWrapper
+          .addTransaction(new TransactionWrapper(transferContract, ContractType.TransferContract));
+    }
+    long assembledSize = blockWrapper.getSerializedSize();
+    Assert.assertEquals(blockWrapper.getInstance().getSerializedSize(), assembledSize);
+    Assert.assertEquals(100, blockWrapper.getInstance().getTransactionsCount());
+  }
+
   /* @Test
   public void testAddTransaction() {
     TransactionWrapper transactionCapsule = new TransactionWrapper("123", 1L);
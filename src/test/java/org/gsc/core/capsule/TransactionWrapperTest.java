@@ -0,0 +1,87 @@
+package org.gsc.core.capsule;
+
+import com.google.common.primitives.Bytes;
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.crypto.ECKey;
+import org.gsc.crypto.ECKey.ECDSASignature;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.protos.Contract.TransferContract;
+import org.gsc.protos.Protocol.Transaction;
+import org.gsc.protos.Protocol.Transaction.Contract.ContractType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionWrapperTest {
+
+  private static TransactionWrapper transfer(long amount) {
+    TransferContract transferContract = TransferContract.newBuilder()
+        .setAmount(amount)
+        .setOwnerAddress(ByteString.copyFrom("0x0000000000000000000".getBytes()))
+        .build();
+    return new TransactionWrapper(transferContract, ContractType.TransferContract);
+  }
+
+  @Test
+  public void cachedUntilChanged() throws Exception {
+    TransactionWrapper trx = transfer(1);
+    Sha256Hash id = trx.getTransactionId();
+    byte[] data = trx.getData();
+    Assert.assertSame(id, trx.getTransactionId());
+    Assert.assertSame(data, trx.getData());
+
+    trx.setExpiration(1_000);
+    Assert.assertNotEquals(id, trx.getTransactionId());
+    Assert.assertEquals(Sha256Hash.of(trx.getInstance().getRawData().toByteArray()),
+        trx.getTransactionId());
+    Assert.assertArrayEquals(trx.getInstance().toByteArray(), trx.getData());
+
+    byte[] wire = trx.getInstance().toByteArray();
+    TransactionWrapper received = new TransactionWrapper(wire);
+    Assert.assertSame(wire, received.getData());
+    Assert.assertEquals(trx.getTransactionId(), received.getTransactionId());
+  }
+
+  @Test
+  public void merkleHashFromStandardEncoding() throws Exception {
+    TransactionWrapper trx = transfer(3);
+    trx.sign(ByteArray
+        .fromHexString("cba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a"));
+    Transaction signed = trx.getInstance();
+    // the signature ahead of the raw data: the same transaction, not its standard encoding
+    byte[] signature = Transaction.newBuilder().addAllSignature(signed.getSignatureList())
+        .build().toByteArray();
+    byte[] raw = Transaction.newBuilder().setRawData(signed.getRawData()).build().toByteArray();
+    byte[] wire = Bytes.concat(signature, raw);
+    Assert.assertFalse(Arrays.equals(wire, signed.toByteArray()));
+
+    TransactionWrapper received = new TransactionWrapper(wire);
+    Assert.assertEquals(signed, received.getInstance());
+    Assert.assertEquals(Sha256Hash.of(signed.toByteArray()), received.getMerkleHash());
+    Assert.assertEquals(trx.getMerkleHash(), received.getMerkleHash());
+  }
+
+  @Test
+  public void contractDecodedOnce() throws Exception {
+    TransactionWrapper trx = transfer(7);
+    TransferContract contract = (TransferContract) trx.getContract(0);
+    Assert.assertSame(contract, trx.getContract(0));
+    Assert.assertEquals(7, contract.getAmount());
+    Assert.assertEquals(trx.getInstance().getRawData().getContract(0).getParameter()
+        .unpack(TransferContract.class), contract);
+  }
+
+  @Test
+  public void recoverFromSignatureBytes() throws Exception {
+    ECKey key = ECKey.fromPrivate(ByteArray
+        .fromHexString("cba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a"));
+    byte[] hash = Sha256Hash.of("signed".getBytes()).getBytes();
+    ECDSASignature signature = key.sign(hash);
+    Assert.assertArrayEquals(key.getPubKey(),
+        ECKey.signatureToKeyBytes(hash, signature.toByteArray()));
+    Assert.assertArrayEquals(ECKey.signatureToKeyBytes(hash, signature.toBase64()),
+        ECKey.signatureToKeyBytes(hash, signature.toByteArray()));
+  }
+}
@@ -150,6 +150,19 @@ public class MerkleTreeTest {
     }
   }
 
+  @Test
+  /**
+   * The flat, parallel root matches the root of the tree for any number of hashes.
+   */
+  public void testCalcRoot() {
+    Assert.assertEquals(Sha256Hash.ZERO_HASH, MerkleTree.calcRoot(getHash(0)));
+    for (int hashNum : new int[]{1, 2, 3, 7, 8, 100, 1001}) {
+      List<Sha256Hash> hashList = getHash(hashNum);
+      Assert.assertEquals(MerkleTree.getInstance().createTree(hashList).getRoot().getHash(),
+          MerkleTree.calcRoot(hashList));
+    }
+  }
+
   private static int getRank(int num) {
     if (num <= 0) {
       return 0;
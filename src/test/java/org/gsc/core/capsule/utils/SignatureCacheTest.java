@@ -0,0 +1,79 @@
+package org.gsc.core.capsule.utils;
+
+import com.google.common.cache.CacheStats;
+import com.google.protobuf.ByteString;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.core.exception.ValidateSignatureException;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.core.wrapper.utils.SignatureCache;
+import org.gsc.crypto.ECKey;
+import org.gsc.protos.Contract.TransferContract;
+import org.gsc.protos.Protocol.Transaction;
+import org.gsc.protos.Protocol.Transaction.Contract.ContractType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SignatureCacheTest {
+
+  private static final byte[] privateKey = ByteArray
+      .fromHexString("cba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a");
+
+  private static TransactionWrapper signedTransfer(long amount) {
+    TransferContract transferContract = TransferContract.newBuilder()
+        .setAmount(amount)
+        .setOwnerAddress(ByteString.copyFrom(ECKey.fromPrivate(privateKey).getAddress()))
+        .build();
+    TransactionWrapper trx = new TransactionWrapper(transferContract,
+        ContractType.TransferContract);
+    trx.sign(privateKey);
+    return trx;
+  }
+
+  @Test
+  public void copyHitsTheCache() throws Exception {
+    TransactionWrapper trx = signedTransfer(11);
+    Assert.assertFalse(trx.isSignatureCached());
+    Assert.assertTrue(trx.validateSignature());
+
+    TransactionWrapper copy = new TransactionWrapper(trx.getInstance().toByteArray());
+    Assert.assertTrue(copy.isSignatureCached());
+    CacheStats before = SignatureCache.getStats();
+    Assert.assertTrue(copy.validateSignature());
+    CacheStats after = SignatureCache.getStats();
+    Assert.assertEquals(before.hitCount() + 1, after.hitCount());
+    // a miss is what recovers the key
+    Assert.assertEquals(before.missCount(), after.missCount());
+  }
+
+  @Test
+  public void tamperedSignatureFails() throws Exception {
+    TransactionWrapper trx = signedTransfer(12);
+    Assert.assertTrue(trx.validateSignature());
+    Transaction transaction = trx.getInstance();
+
+    byte[] tampered = transaction.getSignature(0).toByteArray();
+    tampered[10] ^= 1;
+    TransactionWrapper copy = new TransactionWrapper(transaction.toBuilder()
+        .setSignature(0, ByteString.copyFrom(tampered)).build());
+    Assert.assertEquals(trx.getTransactionId(), copy.getTransactionId());
+    Assert.assertFalse(copy.isSignatureCached());
+    try {
+      copy.validateSignature();
+      Assert.fail("a changed signature is not taken from the cache");
+    } catch (ValidateSignatureException e) {
+      // recovered to another address, or to none
+    }
+
+    // a valid signature of the same id by another key
+    TransactionWrapper other = new TransactionWrapper(transaction.toBuilder().clearSignature()
+        .build());
+    other.sign(ByteArray
+        .fromHexString("aba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a"));
+    try {
+      other.validateSignature();
+      Assert.fail("the signature of another key fails for a cached id");
+    } catch (ValidateSignatureException e) {
+      Assert.assertEquals("sig error", e.getMessage());
+    }
+  }
+}
@@ -16,6 +16,8 @@
 package org.gsc.core.config.args;
 
 import org.gsc.config.args.Args;
+import org.gsc.common.storage.StorageEngine;
+import org.gsc.common.storage.rocksdb.RocksDbOptions;
 import org.gsc.config.args.Storage;
 import org.iq80.leveldb.CompressionType;
 import org.iq80.leveldb.Options;
@@ -85,4 +87,20 @@ public class StorageTest {
     Assert.assertEquals(100, options.maxOpenFiles());
   }
 
+  @Test
+  public void getRocksDbOptions() {
+    Assert.assertEquals(StorageEngine.ROCKSDB, storage.getEngineByDbName("test_rocksdb"));
+    Assert.assertEquals(StorageEngine.LEVELDB, storage.getEngineByDbName("account"));
+
+    RocksDbOptions options = (RocksDbOptions) storage.getOptionsByDbName("test_rocksdb");
+    Assert.assertEquals(16, options.bloomFilterBitsPerKey());
+    Assert.assertEquals(3, options.maxBackgroundJobs());
+    Assert.assertFalse(options.levelCompactionDynamicLevelBytes());
+    Assert.assertEquals(1048576L, options.targetFileSizeBase());
+    Assert.assertEquals(8388608L, options.maxBytesForLevelBase());
+    // the leveldb options keep their defaults
+    Assert.assertEquals(4 * 1024, options.blockSize());
+    Assert.assertEquals(10 * 1024 * 1024L, options.cacheSize());
+  }
+
 }
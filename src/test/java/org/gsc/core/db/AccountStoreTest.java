@@ -4,7 +4,9 @@ import com.google.protobuf.ByteString;
 
 import java.io.File;
 
+import org.gsc.db.AbstractRevokingStore.Dialog;
 import org.gsc.db.AccountStore;
+import org.gsc.db.RevokingStore;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -70,4 +72,43 @@ public class AccountStoreTest {
     ;
     Assert.assertTrue(accountStore.has(data));
   }
+
+  @Test
+  public void cacheFollowsRevoke() {
+    long hits = accountStore.getCacheStats().hitCount();
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      AccountWrapper accountWrapper = accountStore.get(data);
+      accountWrapper.setBalance(100L);
+      accountStore.put(data, accountWrapper);
+      Assert.assertEquals(100L, accountStore.get(data).getBalance());
+    }
+    Assert.assertEquals(0L, accountStore.get(data).getBalance());
+    Assert.assertTrue(accountStore.getCacheStats().hitCount() > hits);
+  }
+
+  @Test
+  public void writeBackHeldUntilFlushed() {
+    byte[] other = TransactionStoreTest.randomBytes(32);
+    AccountWrapper accountWrapper = accountStore.get(data);
+    accountWrapper.setBalance(5L);
+
+    accountStore.openWriteBack();
+    accountStore.put(data, accountWrapper);
+    accountStore.put(other, new AccountWrapper(ByteString.copyFrom(other), AccountType.Normal));
+    Assert.assertEquals(5L, accountStore.get(data).getBalance());
+    Assert.assertTrue(accountStore.has(other));
+    accountStore.discardWriteBack();
+    Assert.assertEquals(0L, accountStore.get(data).getBalance());
+    Assert.assertFalse(accountStore.has(other));
+
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      accountStore.openWriteBack();
+      accountStore.put(data, accountWrapper);
+      accountStore.flushWriteBack();
+      // flushed rows are written through the dialog like any other put
+      accountStore.discardWriteBack();
+      Assert.assertEquals(5L, accountStore.get(data).getBalance());
+    }
+    Assert.assertEquals(0L, accountStore.get(data).getBalance());
+  }
 }
\ No newline at end of file
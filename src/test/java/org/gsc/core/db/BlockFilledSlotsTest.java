@@ -1,5 +1,6 @@
 package org.gsc.core.db;
 
+import org.gsc.db.BlockFilledSlots;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -71,4 +72,29 @@ public class BlockFilledSlotsTest {
 
     assertEquals(count, count2);
   }
+
+  @Test
+  public void testBitsetRing() {
+    final int SLOT_NUMBER = 128;
+    BlockFilledSlots slots = BlockFilledSlots.allFilled(SLOT_NUMBER);
+    assertEquals(SLOT_NUMBER, slots.filledCount());
+
+    BlockFilledSlots missed = slots.with(1, false).with(64, false).with(127, false);
+    assertEquals(SLOT_NUMBER, slots.filledCount());
+    assertEquals(SLOT_NUMBER - 3, missed.filledCount());
+    assertEquals(0, missed.toIntArray()[64]);
+    assertEquals(1, missed.toIntArray()[63]);
+
+    BlockFilledSlots decoded = BlockFilledSlots.fromBytes(SLOT_NUMBER, missed.toBytes());
+    assertArrayEquals(missed.toIntArray(), decoded.toIntArray());
+    assertEquals(SLOT_NUMBER / 8, missed.toBytes().length);
+  }
+
+  @Test
+  public void testLegacyDigits() {
+    int[] legacy = {1, 0, 1, 1, 0};
+    StringBuilder digits = new StringBuilder();
+    IntStream.of(legacy).forEach(digits::append);
+    assertArrayEquals(legacy, BlockFilledSlots.fromDigits(digits.toString()).toIntArray());
+  }
 }
\ No newline at end of file
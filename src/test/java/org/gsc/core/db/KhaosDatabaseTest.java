@@ -0,0 +1,110 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.LinkedList;
+import javafx.util.Pair;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.config.DefaultConfig;
+import org.gsc.config.args.Args;
+import org.gsc.core.Constant;
+import org.gsc.core.exception.NonCommonBlockException;
+import org.gsc.core.wrapper.BlockWrapper;
+import org.gsc.db.KhaosDatabase;
+import org.gsc.db.KhaosDatabase.KhaosBlock;
+import org.gsc.db.Manager;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+public class KhaosDatabaseTest {
+
+  private static final String dbPath = "output-khaosDatabase-test";
+  private static AnnotationConfigApplicationContext context;
+  private static KhaosDatabase khaosDatabase;
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    context = new AnnotationConfigApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    context.getBean(Manager.class);
+    khaosDatabase = context.getBean(KhaosDatabase.class);
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+    context.destroy();
+  }
+
+  private static BlockWrapper pushChain(BlockWrapper parent, int length, long when)
+      throws Exception {
+    BlockWrapper block = parent;
+    for (int i = 0; i < length; i++) {
+      block = new BlockWrapper(block.getNum() + 1, block.getBlockId(), when + i,
+          ByteString.copyFromUtf8("witness"));
+      khaosDatabase.push(block);
+    }
+    return block;
+  }
+
+  @Test
+  public void branchOfForks() throws Exception {
+    BlockWrapper fork = pushChain(khaosDatabase.getHead(), 10, 1_000);
+    BlockWrapper tip1 = pushChain(fork, 30, 2_000);
+    BlockWrapper tip2 = pushChain(fork, 25, 3_000);
+    Assert.assertEquals(tip1.getBlockId(), khaosDatabase.getHead().getBlockId());
+
+    Pair<LinkedList<KhaosBlock>, LinkedList<KhaosBlock>> branch =
+        khaosDatabase.getBranch((Sha256Hash) tip1.getBlockId(), (Sha256Hash) tip2.getBlockId());
+    Assert.assertEquals(30, branch.getKey().size());
+    Assert.assertEquals(25, branch.getValue().size());
+    Assert.assertEquals(tip1.getBlockId(), branch.getKey().peekFirst().getBlk().getBlockId());
+    Assert.assertEquals(fork.getBlockId(), branch.getKey().peekLast().getParentHash());
+    Assert.assertEquals(fork.getBlockId(), branch.getValue().peekLast().getParentHash());
+  }
+
+  @Test
+  public void removedBlockCutsItsBranch() throws Exception {
+    BlockWrapper fork = pushChain(khaosDatabase.getHead(), 5, 4_000);
+    BlockWrapper removed = pushChain(fork, 5, 5_000);
+    BlockWrapper tip1 = pushChain(removed, 10, 6_000);
+    BlockWrapper tip2 = pushChain(fork, 8, 7_000);
+
+    khaosDatabase.removeBlk(removed.getBlockId());
+    Assert.assertFalse(khaosDatabase.containBlock(removed.getBlockId()));
+    Assert.assertNull(khaosDatabase.getBlock(removed.getBlockId()));
+    Assert.assertEquals(tip1.getBlockId(), khaosDatabase.getHead().getBlockId());
+    try {
+      khaosDatabase.getBranch((Sha256Hash) tip1.getBlockId(), (Sha256Hash) tip2.getBlockId());
+      Assert.fail("the branch of tip1 is cut at the removed block");
+    } catch (NonCommonBlockException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void pruneBelowTheSolidifiedBlock() throws Exception {
+    BlockWrapper low = pushChain(khaosDatabase.getHead(), 1, 8_000);
+    BlockWrapper solidified = pushChain(low, 9, 9_000);
+    BlockWrapper tip1 = pushChain(solidified, 10, 10_000);
+    BlockWrapper tip2 = pushChain(solidified, 5, 11_000);
+
+    khaosDatabase.pruneBelow(solidified.getNum());
+    Assert.assertFalse(khaosDatabase.containBlock(low.getBlockId()));
+    Assert.assertTrue(khaosDatabase.containBlock(solidified.getBlockId()));
+    Assert.assertEquals(tip1.getBlockId(), khaosDatabase.getHead().getBlockId());
+
+    Pair<LinkedList<KhaosBlock>, LinkedList<KhaosBlock>> branch =
+        khaosDatabase.getBranch((Sha256Hash) tip1.getBlockId(), (Sha256Hash) tip2.getBlockId());
+    Assert.assertEquals(10, branch.getKey().size());
+    Assert.assertEquals(5, branch.getValue().size());
+  }
+}
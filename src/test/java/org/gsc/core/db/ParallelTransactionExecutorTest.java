@@ -0,0 +1,155 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.config.DefaultConfig;
+import org.gsc.config.args.Args;
+import org.gsc.core.Constant;
+import org.gsc.core.Wallet;
+import org.gsc.core.wrapper.AccountWrapper;
+import org.gsc.core.wrapper.BlockWrapper;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.db.AbstractRevokingStore.Dialog;
+import org.gsc.db.Manager;
+import org.gsc.db.ParallelTransactionExecutor;
+import org.gsc.db.RevokingStore;
+import org.gsc.protos.Contract.TransferContract;
+import org.gsc.protos.Protocol.AccountType;
+import org.gsc.protos.Protocol.Transaction.Contract.ContractType;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+@Slf4j
+public class ParallelTransactionExecutorTest {
+
+  private static final String dbPath = "output_parallel_executor_test";
+  private static final int ACCOUNT_COUNT = 64;
+  private static final long INITIAL_BALANCE = 1_000_000_000L;
+
+  private static AnnotationConfigApplicationContext context;
+  private static Manager dbManager;
+  private static List<ByteString> addresses = new ArrayList<>();
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    context = new AnnotationConfigApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() throws Exception {
+    dbManager = context.getBean(Manager.class);
+    for (int i = 0; i < ACCOUNT_COUNT; i++) {
+      byte[] address = new byte[21];
+      address[0] = Wallet.getAddressPreFixByte();
+      address[20] = (byte) i;
+      addresses.add(ByteString.copyFrom(address));
+      dbManager.getAccountStore().put(address, new AccountWrapper(ByteString.EMPTY,
+          ByteString.copyFrom(address), AccountType.Normal, INITIAL_BALANCE));
+    }
+    dbManager.updateRecentBlock(dbManager.getHead());
+  }
+
+  @AfterClass
+  public static void removeDb() {
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+    context.destroy();
+  }
+
+  /**
+   * Transfers chaining through the accounts, so some partitions span many transactions and
+   * others only one.
+   */
+  private static List<TransactionWrapper> transfers(int count) throws Exception {
+    BlockWrapper head = dbManager.getHead();
+    List<TransactionWrapper> transactions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int from = i % ACCOUNT_COUNT;
+      int to = (i * 7 + 1) % ACCOUNT_COUNT;
+      TransactionWrapper trx = new TransactionWrapper(TransferContract.newBuilder()
+          .setOwnerAddress(addresses.get(from))
+          .setToAddress(addresses.get(to == from ? (to + 1) % ACCOUNT_COUNT : to))
+          .setAmount(1_000 + i)
+          .build(), ContractType.TransferContract);
+      trx.setReference(head.getNum(), head.getBlockId().getBytes());
+      trx.setExpiration(head.getTimeStamp() + 60_000);
+      trx.setVerified(true);
+      transactions.add(trx);
+    }
+    return transactions;
+  }
+
+  private static List<Long> state() {
+    List<Long> state = new ArrayList<>();
+    for (ByteString address : addresses) {
+      AccountWrapper account = dbManager.getAccountStore().get(address.toByteArray());
+      state.add(account.getBalance());
+      state.add(account.getFreeNetUsage());
+      state.add(account.getNetUsage());
+    }
+    state.add(dbManager.getDynamicPropertiesStore().getPublicNetUsage());
+    state.add(dbManager.getDynamicPropertiesStore().getTotalTransactionCost());
+    return state;
+  }
+
+  private static List<Long> apply(List<TransactionWrapper> transactions, int lanes)
+      throws Exception {
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      new ParallelTransactionExecutor(dbManager, lanes).execute(transactions);
+      // the dialog is left uncommitted, so closing it revokes the block
+      return state();
+    }
+  }
+
+  @Test
+  public void sameStateAsSerial() throws Exception {
+    List<TransactionWrapper> transactions = transfers(256);
+    List<Long> serial = apply(transactions, 1);
+    Assert.assertEquals(serial, apply(transactions, 4));
+    Assert.assertEquals((Long) INITIAL_BALANCE, state().get(0));
+  }
+
+  @Test
+  public void firstFailureRethrown() throws Exception {
+    List<TransactionWrapper> transactions = transfers(128);
+    TransactionWrapper overdraft = new TransactionWrapper(TransferContract.newBuilder()
+        .setOwnerAddress(addresses.get(3))
+        .setToAddress(addresses.get(4))
+        .setAmount(INITIAL_BALANCE * 2)
+        .build(), ContractType.TransferContract);
+    overdraft.setReference(dbManager.getHead().getNum(),
+        dbManager.getHead().getBlockId().getBytes());
+    overdraft.setExpiration(dbManager.getHead().getTimeStamp() + 60_000);
+    overdraft.setVerified(true);
+    transactions.add(100, overdraft);
+
+    try {
+      apply(transactions, 4);
+      Assert.fail("the overdraft should fail the block");
+    } catch (Exception e) {
+      Assert.assertTrue(e.getMessage().contains("balance is not sufficient"));
+    }
+    Assert.assertEquals((Long) INITIAL_BALANCE, state().get(0));
+  }
+
+  @Ignore
+  @Test
+  public void benchmark() throws Exception {
+    List<TransactionWrapper> transactions = transfers(4_000);
+    for (int lanes : new int[]{1, 2, 4, 8}) {
+      apply(transactions, lanes);
+      long start = System.nanoTime();
+      apply(transactions, lanes);
+      logger.info("{} transfers on {} lanes: {} ms", transactions.size(), lanes,
+          (System.nanoTime() - start) / 1_000_000);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.db.PendingTransactionPool;
+import org.gsc.protos.Contract.VoteWitnessContract;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PendingTransactionPoolTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(new byte[]{(byte) 0xa0, 1});
+
+  private static TransactionWrapper transaction(long count, long expiration) {
+    TransactionWrapper trx = new TransactionWrapper(VoteWitnessContract.newBuilder()
+        .setOwnerAddress(OWNER)
+        .addVotes(VoteWitnessContract.Vote.newBuilder()
+            .setVoteAddress(OWNER)
+            .setVoteCount(count))
+        .build());
+    trx.setExpiration(expiration);
+    return trx;
+  }
+
+  @Test
+  public void boundedAndIndexed() {
+    PendingTransactionPool pool = new PendingTransactionPool(2, Long.MAX_VALUE);
+    TransactionWrapper first = transaction(1, 1_000);
+    TransactionWrapper second = transaction(2, 2_000);
+
+    Assert.assertTrue(pool.add(first));
+    Assert.assertFalse(pool.add(first));
+    Assert.assertTrue(pool.add(second));
+    Assert.assertTrue(pool.isFull());
+    Assert.assertFalse(pool.add(transaction(3, 3_000)));
+    Assert.assertEquals(2, pool.getByOwner(OWNER).size());
+    Assert.assertEquals(first.getTransactionId(), pool.snapshot().get(0).getTransactionId());
+
+    Assert.assertEquals(1, pool.evictExpired(1_000));
+    Assert.assertFalse(pool.contains(first.getTransactionId()));
+    Assert.assertEquals(second.getSerializedSize(), pool.getBytes());
+
+    Assert.assertTrue(pool.remove(second));
+    Assert.assertEquals(0, pool.size());
+    Assert.assertEquals(0, pool.getBytes());
+    Assert.assertTrue(pool.getByOwner(OWNER).isEmpty());
+  }
+}
@@ -0,0 +1,43 @@
+package org.gsc.core.db;
+
+import org.gsc.db.RecentTransactionFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecentTransactionFilterTest {
+
+  private static final long HOUR = 60 * 60 * 1000L;
+
+  @Test
+  public void mightContain() {
+    RecentTransactionFilter filter = new RecentTransactionFilter();
+    byte[] id = "trx-1".getBytes();
+    byte[] other = "trx-2".getBytes();
+    long expiration = 10 * HOUR + 1000;
+
+    filter.put(id, expiration);
+    Assert.assertTrue(filter.mightContain(other, expiration));
+
+    filter.setReady();
+    Assert.assertTrue(filter.mightContain(id, expiration));
+    Assert.assertTrue(filter.mightContain(id));
+    Assert.assertFalse(filter.mightContain(id, expiration + 2 * HOUR));
+  }
+
+  @Test
+  public void expire() {
+    RecentTransactionFilter filter = new RecentTransactionFilter();
+    byte[] id = "trx-1".getBytes();
+    long expiration = 10 * HOUR + 1000;
+    filter.put(id, expiration);
+    filter.setReady();
+
+    Assert.assertFalse(filter.hasExpired(expiration));
+    filter.expire(expiration);
+    Assert.assertTrue(filter.mightContain(id, expiration));
+    Assert.assertTrue(filter.hasExpired(11 * HOUR));
+    filter.expire(11 * HOUR);
+    Assert.assertFalse(filter.hasExpired(12 * HOUR));
+    Assert.assertFalse(filter.mightContain(id, expiration));
+  }
+}
@@ -0,0 +1,33 @@
+package org.gsc.core.db;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.gsc.common.storage.DbSourceInter;
+import org.gsc.db.AbstractRevokingStore;
+import org.gsc.db.AbstractRevokingStore.RevokingTuple;
+import org.iq80.leveldb.WriteOptions;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RevokingStoreTest {
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void popSyncsTheUndo() {
+    AbstractRevokingStore revokingStore = new AbstractRevokingStore() {
+    };
+    DbSourceInter<byte[]> database = mock(DbSourceInter.class);
+    revokingStore.add(database);
+    revokingStore.enable();
+
+    byte[] key = "pop".getBytes();
+    revokingStore.onCreate(new RevokingTuple(database, key), "value".getBytes());
+    revokingStore.pop();
+
+    Assert.assertEquals(0, revokingStore.size());
+    verify(database).deleteData(key);
+    verify(database).flush(argThat(WriteOptions::sync));
+  }
+}
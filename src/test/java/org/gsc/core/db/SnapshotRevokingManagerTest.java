@@ -0,0 +1,91 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.Collections;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.config.DefaultConfig;
+import org.gsc.config.Parameter.ChainConstant;
+import org.gsc.config.args.Args;
+import org.gsc.config.args.Storage;
+import org.gsc.core.Constant;
+import org.gsc.core.wrapper.AccountWrapper;
+import org.gsc.core.wrapper.BlockWrapper;
+import org.gsc.core.wrapper.WitnessWrapper;
+import org.gsc.crypto.ECKey;
+import org.gsc.db.Manager;
+import org.gsc.db.RevokingStore;
+import org.gsc.db.SnapshotRevokingStore;
+import org.gsc.protos.Protocol.AccountType;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+public class SnapshotRevokingManagerTest {
+
+  private static final String dbPath = "output_SnapshotRevokingManager_test";
+  private static AnnotationConfigApplicationContext context;
+  private static Manager dbManager;
+  private static ECKey witnessKey = new ECKey();
+  private static ByteString witness = ByteString.copyFrom(witnessKey.getAddress());
+
+  @BeforeClass
+  public static void init() {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    Args.getInstance().getStorage().setRevoking(Storage.SNAPSHOT_REVOKING);
+    context = new AnnotationConfigApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+
+    // one witness producing every slot
+    dbManager.getWitnessStore().put(witness.toByteArray(), new WitnessWrapper(witness));
+    dbManager.getAccountStore().put(witness.toByteArray(),
+        new AccountWrapper(witness, ByteString.copyFromUtf8("witness"), AccountType.Normal));
+    dbManager.getWitnessController().setActiveWitnesses(Collections.singletonList(witness));
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+    context.destroy();
+  }
+
+  private static BlockWrapper newBlock(long number, Sha256Hash parent, long slot) {
+    long time = dbManager.getGenesisBlock().getTimeStamp()
+        + slot * ChainConstant.BLOCK_PRODUCED_INTERVAL;
+    BlockWrapper block = new BlockWrapper(number, parent, time, witness);
+    block.setMerkleRoot();
+    block.sign(witnessKey.getPrivKeyBytes());
+    return block;
+  }
+
+  @Test
+  public void switchFork() throws Exception {
+    Assert.assertTrue(RevokingStore.getInstance() instanceof SnapshotRevokingStore);
+
+    BlockWrapper block1 = newBlock(1, dbManager.getGenesisBlockId(), 1);
+    dbManager.pushBlock(block1);
+    BlockWrapper block2 = newBlock(2, block1.getBlockId(), 2);
+    dbManager.pushBlock(block2);
+    Assert.assertEquals(block2.getBlockId(), dbManager.getHeadBlockId());
+
+    // a longer branch from block 1 replaces block 2
+    BlockWrapper fork2 = newBlock(2, block1.getBlockId(), 3);
+    dbManager.pushBlock(fork2);
+    Assert.assertEquals(block2.getBlockId(), dbManager.getHeadBlockId());
+    BlockWrapper fork3 = newBlock(3, fork2.getBlockId(), 4);
+    dbManager.pushBlock(fork3);
+
+    Assert.assertEquals(fork3.getBlockId(), dbManager.getHeadBlockId());
+    Assert.assertEquals(3, dbManager.getHeadBlockNum());
+    Assert.assertEquals(fork2.getBlockId(), dbManager.getBlockIdByNum(2));
+    Assert.assertFalse(dbManager.getBlockStore().has(block2.getBlockId().getBytes()));
+    Assert.assertTrue(dbManager.getBlockStore().has(fork2.getBlockId().getBytes()));
+    // block 2 was undone, so only blocks 1, 2' and 3' count for the witness
+    Assert.assertEquals(3,
+        dbManager.getWitnessStore().get(witness.toByteArray()).getTotalProduced());
+  }
+}
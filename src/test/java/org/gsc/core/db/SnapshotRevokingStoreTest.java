@@ -0,0 +1,188 @@
+package org.gsc.core.db;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.config.args.Args;
+import org.gsc.core.Constant;
+import org.gsc.core.exception.RevokingStoreIllegalStateException;
+import org.gsc.core.wrapper.BytesWrapper;
+import org.gsc.db.AbstractRevokingStore;
+import org.gsc.db.GscStoreWithRevoking;
+import org.gsc.db.RevokingDatabase;
+import org.gsc.db.SnapshotRevokingStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Runs each case on the undo-log store and on the snapshot store, which have to leave the
+ * stores in the same state.
+ */
+@RunWith(Parameterized.class)
+public class SnapshotRevokingStoreTest {
+
+  private static final String dbPath = "output_SnapshotRevokingStore_test";
+
+  private final Supplier<RevokingDatabase> engine;
+  private RevokingDatabase revokingDatabase;
+  private TestStore store;
+
+  public SnapshotRevokingStoreTest(String name, Supplier<RevokingDatabase> engine) {
+    this.engine = engine;
+  }
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    Supplier<RevokingDatabase> undo = () -> new AbstractRevokingStore() {
+    };
+    Supplier<RevokingDatabase> snapshot = SnapshotRevokingStore::new;
+    return Arrays.asList(new Object[]{"undo", undo}, new Object[]{"snapshot", snapshot});
+  }
+
+  private static class TestStore extends GscStoreWithRevoking<BytesWrapper> {
+
+    TestStore(String dbName, RevokingDatabase revokingDatabase) {
+      super(dbName, revokingDatabase);
+    }
+
+    @Override
+    public BytesWrapper get(byte[] key) {
+      byte[] value = dbSource.getData(key);
+      return value == null ? null : new BytesWrapper(value);
+    }
+
+    @Override
+    public boolean has(byte[] key) {
+      return dbSource.getData(key) != null;
+    }
+  }
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    revokingDatabase = engine.get();
+    store = new TestStore("revoking-test", revokingDatabase);
+    put("a", "1");
+    put("c", "3");
+    revokingDatabase.enable();
+  }
+
+  @After
+  public void destroy() {
+    store.close();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  private void put(String key, String value) {
+    store.put(key.getBytes(), new BytesWrapper(value.getBytes()));
+  }
+
+  private String get(String key) {
+    BytesWrapper value = store.get(key.getBytes());
+    return value == null ? null : ByteArray.toStr(value.getData());
+  }
+
+  private void assertInitialState() {
+    Assert.assertEquals("1", get("a"));
+    Assert.assertNull(get("b"));
+    Assert.assertEquals("3", get("c"));
+  }
+
+  @Test
+  public void revokeDropsTheDialogWrites() {
+    revokingDatabase.buildDialog();
+    put("a", "2");
+    put("b", "2");
+    store.delete("c".getBytes());
+    Assert.assertEquals("2", get("a"));
+    Assert.assertEquals("2", get("b"));
+    Assert.assertNull(get("c"));
+
+    revokingDatabase.revoke();
+    assertInitialState();
+    Assert.assertEquals(0, revokingDatabase.size());
+  }
+
+  @Test
+  public void mergeFoldsIntoTheOuterDialog() {
+    revokingDatabase.buildDialog();
+    put("a", "2");
+    revokingDatabase.buildDialog();
+    put("b", "2");
+    store.delete("c".getBytes());
+
+    revokingDatabase.merge();
+    Assert.assertEquals(1, revokingDatabase.size());
+    Assert.assertEquals("2", get("a"));
+    Assert.assertEquals("2", get("b"));
+    Assert.assertNull(get("c"));
+
+    revokingDatabase.revoke();
+    assertInitialState();
+  }
+
+  @Test
+  public void popUndoesACommittedDialog() {
+    revokingDatabase.buildDialog();
+    put("a", "2");
+    put("b", "2");
+    store.delete("c".getBytes());
+    revokingDatabase.commit();
+    Assert.assertEquals(1, revokingDatabase.size());
+    Assert.assertEquals("2", get("a"));
+
+    revokingDatabase.pop();
+    assertInitialState();
+    Assert.assertEquals(0, revokingDatabase.size());
+    try {
+      revokingDatabase.pop();
+      Assert.fail("nothing is left to pop");
+    } catch (RevokingStoreIllegalStateException e) {
+      Assert.assertEquals("stack is empty", e.getMessage());
+    }
+  }
+
+  @Test
+  public void dialogsPastMaxSizeCannotBePopped() {
+    revokingDatabase.setMaxSize(2);
+    for (int i = 0; i < 5; i++) {
+      revokingDatabase.buildDialog();
+      put("key" + i, String.valueOf(i));
+      revokingDatabase.commit();
+    }
+    Assert.assertEquals(3, revokingDatabase.size());
+
+    while (revokingDatabase.size() > 0) {
+      revokingDatabase.pop();
+    }
+    Assert.assertEquals("0", get("key0"));
+    Assert.assertEquals("1", get("key1"));
+    Assert.assertNull(get("key2"));
+    Assert.assertNull(get("key3"));
+    Assert.assertNull(get("key4"));
+    Assert.assertEquals(4, store.getDbSource().count());
+  }
+
+  @Test
+  public void shutdownDropsEveryDialog() {
+    revokingDatabase.buildDialog();
+    put("a", "2");
+    revokingDatabase.commit();
+    revokingDatabase.buildDialog();
+    put("b", "2");
+
+    revokingDatabase.shutdown();
+    assertInitialState();
+    Assert.assertEquals(0, revokingDatabase.size());
+    Assert.assertEquals(2, store.getDbSource().count());
+  }
+}
@@ -0,0 +1,74 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.gsc.common.utils.FileUtil;
+import org.gsc.config.DefaultConfig;
+import org.gsc.config.args.Args;
+import org.gsc.core.Constant;
+import org.gsc.core.wrapper.WitnessWrapper;
+import org.gsc.db.AbstractRevokingStore.Dialog;
+import org.gsc.db.Manager;
+import org.gsc.db.RevokingStore;
+import org.gsc.db.SolidifiedBlockTracker;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+public class SolidifiedBlockTrackerTest {
+
+  private static final String dbPath = "output-solidifiedBlockTracker-test";
+  private static AnnotationConfigApplicationContext context;
+  private static Manager dbManager;
+
+  static {
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    context = new AnnotationConfigApplicationContext(DefaultConfig.class);
+  }
+
+  @BeforeClass
+  public static void init() {
+    dbManager = context.getBean(Manager.class);
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.clearParam();
+    FileUtil.deleteDir(new File(dbPath));
+    context.destroy();
+  }
+
+  private static ByteString saveWitness(int i, long latestBlockNum) {
+    ByteString address = ByteString.copyFrom(new byte[]{(byte) 0xa0, (byte) i});
+    WitnessWrapper witness = new WitnessWrapper(address, 0, "http://witness" + i);
+    witness.setLatestBlockNum(latestBlockNum);
+    dbManager.getWitnessStore().put(address.toByteArray(), witness);
+    return address;
+  }
+
+  @Test
+  public void followsBlocksAndRevoke() {
+    List<ByteString> witnesses = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      witnesses.add(saveWitness(i, 100 + i));
+    }
+    dbManager.getWitnessScheduleStore().saveActiveWitnesses(witnesses);
+    SolidifiedBlockTracker tracker = dbManager.getSolidifiedBlockTracker();
+    // 30% of the witnesses may lag behind the solidified block
+    Assert.assertEquals(103, tracker.getSolidifiedBlockNum());
+
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      for (int i = 0; i < 5; i++) {
+        saveWitness(i, 200 + i);
+        tracker.update(witnesses.get(i), 200 + i);
+      }
+      Assert.assertEquals(108, tracker.getSolidifiedBlockNum());
+    }
+
+    Assert.assertEquals(103, tracker.getSolidifiedBlockNum());
+  }
+}
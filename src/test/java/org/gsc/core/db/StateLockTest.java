@@ -0,0 +1,51 @@
+package org.gsc.core.db;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.gsc.db.StateLock;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StateLockTest {
+
+  @Test
+  public void reentrantAcquisitionCountsOnce() {
+    StateLock stateLock = new StateLock();
+    stateLock.lock();
+    stateLock.lock();
+    Assert.assertTrue(stateLock.isHeldByCurrentThread());
+
+    stateLock.unlock();
+    Assert.assertTrue(stateLock.isHeldByCurrentThread());
+    Assert.assertEquals(0, stateLock.getHoldTime().getCount());
+
+    stateLock.unlock();
+    Assert.assertFalse(stateLock.isHeldByCurrentThread());
+    Assert.assertEquals(1, stateLock.getWaitTime().getCount());
+    Assert.assertEquals(1, stateLock.getHoldTime().getCount());
+  }
+
+  @Test(timeout = 10_000)
+  public void waitIsRecorded() throws InterruptedException {
+    StateLock stateLock = new StateLock();
+    CountDownLatch locked = new CountDownLatch(1);
+    Thread other = new Thread(() -> {
+      stateLock.lock();
+      Assert.assertTrue(stateLock.isHeldByCurrentThread());
+      stateLock.unlock();
+      locked.countDown();
+    });
+
+    stateLock.lock();
+    other.start();
+    Assert.assertFalse(locked.await(100, TimeUnit.MILLISECONDS));
+    stateLock.unlock();
+    locked.await();
+    other.join();
+
+    Assert.assertEquals(2, stateLock.getWaitTime().getCount());
+    Assert.assertEquals(2, stateLock.getHoldTime().getCount());
+    // the other thread waited for the 100ms the lock was held
+    Assert.assertTrue(stateLock.getWaitTime().percentileMicros(100) >= 65536);
+  }
+}
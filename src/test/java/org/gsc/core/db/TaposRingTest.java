@@ -0,0 +1,55 @@
+package org.gsc.core.db;
+
+import com.google.protobuf.ByteString;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.db.TaposRing;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TaposRingTest {
+
+  private static final byte[] HASH = {1, 2, 3, 4, 5, 6, 7, (byte) 0xff};
+
+  private static byte[] refBlockBytes(long num) {
+    return ByteArray.subArray(ByteArray.fromLong(num), 6, 8);
+  }
+
+  @Test
+  public void matches() {
+    TaposRing ring = new TaposRing();
+    ByteString ref = ByteString.copyFrom(refBlockBytes(70000));
+    Assert.assertFalse(ring.contains(ref));
+
+    ring.set(refBlockBytes(70000), HASH);
+    Assert.assertTrue(ring.matches(ref, ByteString.copyFrom(HASH)));
+    Assert.assertFalse(ring.matches(ref, ByteString.copyFrom(new byte[8])));
+    Assert.assertFalse(ring.matches(ByteString.copyFrom(refBlockBytes(70001)),
+        ByteString.copyFrom(HASH)));
+
+    // 70000 and 4464 share the low two bytes
+    Assert.assertTrue(ring.matches(ByteString.copyFrom(refBlockBytes(4464)),
+        ByteString.copyFrom(HASH)));
+  }
+
+  @Test
+  public void clearSlot() {
+    TaposRing ring = new TaposRing();
+    ring.set(refBlockBytes(1), HASH);
+    ring.set(refBlockBytes(1), null);
+    Assert.assertFalse(ring.contains(ByteString.copyFrom(refBlockBytes(1))));
+
+    ring.set(refBlockBytes(2), HASH);
+    ring.clear();
+    Assert.assertFalse(ring.matches(ByteString.copyFrom(refBlockBytes(2)),
+        ByteString.copyFrom(HASH)));
+  }
+
+  @Test
+  public void malformedReference() {
+    TaposRing ring = new TaposRing();
+    ring.set(refBlockBytes(1), HASH);
+    Assert.assertFalse(ring.matches(ByteString.copyFrom(new byte[3]), ByteString.copyFrom(HASH)));
+    Assert.assertFalse(ring.matches(ByteString.copyFrom(refBlockBytes(1)),
+        ByteString.copyFrom(new byte[4])));
+  }
+}
@@ -0,0 +1,159 @@
+package org.gsc.core.db;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gsc.core.exception.DupTransactionException;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.db.Manager;
+import org.gsc.db.StateLock;
+import org.gsc.db.TransactionAdmissionQueue;
+import org.gsc.protos.Protocol.Transaction;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionAdmissionQueueTest {
+
+  private Manager manager;
+  private StateLock stateLock;
+  private CountDownLatch writerLocking;
+  private TransactionAdmissionQueue queue;
+  private ExecutorService callers = Executors.newCachedThreadPool();
+
+  @Before
+  public void init() throws Exception {
+    manager = mock(Manager.class);
+    stateLock = new StateLock();
+    writerLocking = new CountDownLatch(1);
+    when(manager.getStateLock()).thenAnswer(invocation -> {
+      if ("state-writer".equals(Thread.currentThread().getName())) {
+        writerLocking.countDown();
+      }
+      return stateLock;
+    });
+    when(manager.pushTransactions(any())).thenReturn(true);
+  }
+
+  @After
+  public void destroy() {
+    if (queue != null) {
+      queue.shutdown();
+    }
+    callers.shutdownNow();
+  }
+
+  private static TransactionWrapper newTransaction() {
+    return new TransactionWrapper(Transaction.getDefaultInstance());
+  }
+
+  private Future<Boolean> admitLater(TransactionWrapper trx) {
+    return callers.submit(() -> queue.admit(trx));
+  }
+
+  /**
+   * Hold the state lock while the writer takes one admission, leaving it waiting for the lock.
+   */
+  private Future<Boolean> blockWriter() throws InterruptedException {
+    stateLock.lock();
+    Future<Boolean> first = admitLater(newTransaction());
+    writerLocking.await();
+    Thread.sleep(100);
+    return first;
+  }
+
+  private void awaitQueued(int size) throws InterruptedException {
+    while (queue.size() != size) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void queuedTransactionsAreAppliedInOneBatch() throws Exception {
+    queue = new TransactionAdmissionQueue(manager, 100);
+    Future<Boolean> first = blockWriter();
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      results.add(admitLater(newTransaction()));
+    }
+    awaitQueued(10);
+    stateLock.unlock();
+
+    Assert.assertTrue(first.get());
+    for (Future<Boolean> result : results) {
+      Assert.assertTrue(result.get());
+    }
+    verify(manager, times(11)).pushTransactions(any());
+    // this thread, then one batch for the first transaction and one for the other ten, which
+    // may not have let go of the lock yet
+    Assert.assertTrue(stateLock.getHoldTime().getCount() <= 3);
+    Assert.assertEquals(11, queue.getQueueWait().getCount());
+  }
+
+  @Test(timeout = 10_000)
+  public void fullQueueRejects() throws Exception {
+    queue = new TransactionAdmissionQueue(manager, 1);
+    Future<Boolean> first = blockWriter();
+    Future<Boolean> queued = admitLater(newTransaction());
+    awaitQueued(1);
+
+    Assert.assertFalse(admitLater(newTransaction()).get());
+    stateLock.unlock();
+    Assert.assertTrue(first.get());
+    Assert.assertTrue(queued.get());
+  }
+
+  @Test(timeout = 10_000)
+  public void exceptionReachesCaller() throws Exception {
+    queue = new TransactionAdmissionQueue(manager, 10);
+    TransactionWrapper dup = newTransaction();
+    when(manager.pushTransactions(same(dup))).thenThrow(new DupTransactionException("dup trans"));
+
+    try {
+      queue.admit(dup);
+      Assert.fail("the writer's exception is thrown to the caller");
+    } catch (DupTransactionException e) {
+      Assert.assertEquals("dup trans", e.getMessage());
+    }
+    Assert.assertTrue(queue.admit(newTransaction()));
+  }
+
+  @Test(timeout = 10_000)
+  public void admitUnderTheStateLockSkipsTheQueue() throws Exception {
+    queue = new TransactionAdmissionQueue(manager, 10);
+    stateLock.lock();
+    try {
+      Assert.assertTrue(queue.admit(newTransaction()));
+    } finally {
+      stateLock.unlock();
+    }
+    Assert.assertEquals(0, queue.getQueueWait().getCount());
+  }
+
+  @Test(timeout = 10_000)
+  public void shutdownAnswersQueuedTransactions() throws Exception {
+    queue = new TransactionAdmissionQueue(manager, 10);
+    Future<Boolean> first = blockWriter();
+    Future<Boolean> queued = admitLater(newTransaction());
+    awaitQueued(1);
+
+    queue.shutdown();
+    Assert.assertFalse(queued.get());
+    Assert.assertFalse(queue.admit(newTransaction()));
+
+    stateLock.unlock();
+    Assert.assertTrue(first.get());
+    verify(manager, times(1)).pushTransactions(any());
+  }
+}
@@ -0,0 +1,77 @@
+package org.gsc.core.net.node;
+
+import com.google.protobuf.ByteString;
+import org.gsc.common.utils.ByteArray;
+import org.gsc.common.utils.Sha256Hash;
+import org.gsc.core.exception.BadBlockException;
+import org.gsc.core.wrapper.BlockWrapper;
+import org.gsc.core.wrapper.TransactionWrapper;
+import org.gsc.crypto.ECKey;
+import org.gsc.net.node.BlockVerifier;
+import org.gsc.protos.Contract.TransferContract;
+import org.gsc.protos.Protocol.Transaction.Contract.ContractType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlockVerifierTest {
+
+  private static final byte[] PRIVATE_KEY = ByteArray
+      .fromHexString("cba92a516ea09f620a16ff7ee95ce0df1d56550a8babe9964981a7144c8a784a");
+
+  private static BlockWrapper block(long num, boolean withMerkleRoot) {
+    ECKey key = ECKey.fromPrivate(PRIVATE_KEY);
+    BlockWrapper block = new BlockWrapper(num, Sha256Hash.ZERO_HASH, 1_000 * num,
+        ByteString.copyFrom(key.getAddress()));
+    for (int i = 0; i < 3; i++) {
+      TransactionWrapper trx = new TransactionWrapper(TransferContract.newBuilder()
+          .setOwnerAddress(ByteString.copyFrom(key.getAddress()))
+          .setToAddress(ByteString.copyFrom(new byte[21]))
+          .setAmount(num * 10 + i)
+          .build(), ContractType.TransferContract);
+      trx.sign(PRIVATE_KEY);
+      block.addTransaction(trx);
+    }
+    if (withMerkleRoot) {
+      block.setMerkleRoot();
+    }
+    block.sign(PRIVATE_KEY);
+    // as received from a peer
+    return new BlockWrapper(block.getInstance());
+  }
+
+  @Test
+  public void verifiedAhead() throws Exception {
+    BlockVerifier verifier = new BlockVerifier(2, 4);
+    BlockWrapper block = block(1, true);
+    Assert.assertTrue(verifier.submit(block));
+    verifier.await(block);
+    Assert.assertTrue(block.isVerified());
+    Assert.assertTrue(block.getTransactions().stream().allMatch(trx -> {
+      try {
+        return trx.validateSignature();
+      } catch (Exception e) {
+        return false;
+      }
+    }));
+    verifier.shutdown();
+  }
+
+  @Test
+  public void failureReachesApplier() throws Exception {
+    BlockVerifier verifier = new BlockVerifier(2, 4);
+    BlockWrapper block = block(2, false);
+    verifier.submit(block);
+    try {
+      verifier.await(block);
+      Assert.fail("the merkle root was never set");
+    } catch (BadBlockException e) {
+      Assert.assertTrue(e.getMessage().contains("merkle"));
+    }
+    Assert.assertFalse(block.isVerified());
+    // a block never submitted is left to the applier
+    BlockWrapper notSubmitted = block(3, true);
+    verifier.await(notSubmitted);
+    Assert.assertFalse(notSubmitted.isVerified());
+    verifier.shutdown();
+  }
+}
@@ -1,6 +1,9 @@
 package org.gsc.core.witness;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.google.protobuf.ByteString;
 import java.io.File;
@@ -15,7 +18,9 @@ import org.gsc.common.utils.FileUtil;
 import org.gsc.core.Constant;
 import org.gsc.config.DefaultConfig;
 import org.gsc.config.args.Args;
+import org.gsc.db.AbstractRevokingStore.Dialog;
 import org.gsc.db.Manager;
+import org.gsc.db.RevokingStore;
 
 public class WitnessControllerTest {
   private static Manager dbManager = new Manager();
@@ -54,6 +59,33 @@ public class WitnessControllerTest {
 
   }
 
+  @Test
+  public void testScheduleFollowsRevoke() {
+    ByteString a =
+        ByteString.copyFrom(ByteArray.fromHexString("a0ec6525979a351a54fa09fea64beb4cce33ffbb7a"));
+    ByteString b =
+        ByteString.copyFrom(ByteArray.fromHexString("a0fab5fbf6afb681e4e37e9d33bddb7e923d6132e5"));
+    List<ByteString> w = new ArrayList<>();
+    w.add(a);
+    dbManager.getWitnessScheduleStore().saveActiveWitnesses(w);
+    WitnessSchedule before = dbManager.getWitnessScheduleStore().getActiveSchedule();
+    assertSame(before, dbManager.getWitnessScheduleStore().getActiveSchedule());
+
+    try (Dialog dialog = RevokingStore.getInstance().buildDialog(true)) {
+      w.add(b);
+      dbManager.getWitnessScheduleStore().saveActiveWitnesses(w);
+      WitnessSchedule during = dbManager.getWitnessScheduleStore().getActiveSchedule();
+      assertTrue(during.getVersion() > before.getVersion());
+      assertTrue(during.contains(b));
+      assertEquals(b, during.getScheduledWitness(1, 1));
+      assertEquals(a, during.getScheduledWitness(1, 2));
+    }
+
+    WitnessSchedule after = dbManager.getWitnessScheduleStore().getActiveSchedule();
+    assertEquals(1, after.size());
+    assertFalse(after.contains(b));
+  }
+
 //  @Test
   public void testWitnessSchedule() {
 